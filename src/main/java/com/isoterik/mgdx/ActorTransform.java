@@ -1,12 +1,52 @@
 package com.isoterik.mgdx;
 
+import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 
+/**
+ * A {@link Transform} backed by a scene2d {@link Actor} so game objects can be animated with scene2d actions.
+ * <p>
+ * The actor is only acted while it has actions. Adding an action to the actor tells the host scene to start acting it; the scene stops once the
+ * actions complete. The state of the actor is copied into this transform only while the actor is animating, so idle actors cost nothing per frame.
+ */
 public class ActorTransform extends Transform {
     public final Actor actor;
 
+    private boolean animating;
+
     public ActorTransform() {
-        actor = new Actor();
+        actor = new Actor() {
+            @Override
+            public void addAction(Action action) {
+                super.addAction(action);
+                onActionAdded();
+            }
+        };
+    }
+
+    /* Asks the host scene to act the actor until its actions complete */
+    private void onActionAdded() {
+        if (!animating && scene != null)
+            scene.__startAnimating(this);
+    }
+
+    /**
+     *
+     * @return whether the actor has actions and is acted by the host scene
+     */
+    public boolean isAnimating()
+    { return animating; }
+
+    /**
+     * Marks the actor as animating or idle. When the actor becomes idle, its final state is copied into this transform.
+     * This method is called internally by the system. Do not call it directly!
+     * @param animating whether the actor is animating
+     */
+    public void __setAnimating(boolean animating) {
+        if (this.animating && !animating)
+            copyFromActor();
+
+        this.animating = animating;
     }
 
     @Override
@@ -120,6 +160,13 @@ public class ActorTransform extends Transform {
 
     @Override
     public void update(float deltaTime) {
+        // Idle actors can't change so there is nothing to copy
+        if (animating)
+            copyFromActor();
+    }
+
+    /* Copies the state of the actor into this transform */
+    private void copyFromActor() {
         scale.set(actor.getScaleX(), actor.getScaleY(), 1);
         size.set(actor.getWidth(), actor.getHeight(), 0);
         rotation.set(0, actor.getRotation(), 0);
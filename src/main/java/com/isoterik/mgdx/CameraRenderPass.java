@@ -0,0 +1,190 @@
+package com.isoterik.mgdx;
+
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+/**
+ * A CameraRenderPass renders the game objects of a {@link Scene} with an extra camera. This is useful for split-screen games, minimaps and
+ * picture-in-picture views. Passes are added with {@link Scene#addRenderPass(CameraRenderPass)} and rendered after the main camera (and before the UI canvas).
+ * <p>
+ * A pass renders either into an area of the screen or into a target {@link FrameBuffer}. It can be limited to some layers of the scene and it can carry a
+ * level of detail hint. Components can check the hint (see {@link Scene#getRenderLod()}) to draw less while the pass renders; for example, a minimap pass
+ * could use a level where only icons are drawn.
+ * <p>
+ * <strong>Note:</strong> only passes that use a {@link com.isoterik.mgdx.m2d.GameCamera2d} are rendered.
+ *
+ * @author isoteriksoftware
+ */
+public class CameraRenderPass {
+    /** The level of detail used by the main camera. Components should draw everything. */
+    public static final int LOD_FULL = 0;
+
+    private GameCamera gameCamera;
+    private FrameBuffer target;
+    private final Array<Layer> layers = new Array<>();
+    private int lod;
+    private boolean enabled = true;
+    private boolean clear = true;
+
+    // The area of the screen (as fractions of the screen size) this pass renders into
+    private float screenX, screenY, screenWidth = 1, screenHeight = 1;
+    private int lastWidth, lastHeight;
+
+    /**
+     * Creates a new instance given a camera. The pass renders into the whole screen until {@link #setScreenArea(float, float, float, float)} or
+     * {@link #setTarget(FrameBuffer)} is called.
+     * @param gameCamera the camera
+     */
+    public CameraRenderPass(GameCamera gameCamera)
+    { this.gameCamera = gameCamera; }
+
+    /**
+     * Changes the camera of this pass.
+     * @param gameCamera the camera
+     */
+    public void setGameCamera(GameCamera gameCamera) {
+        this.gameCamera = gameCamera;
+        lastWidth = lastHeight = 0;
+    }
+
+    /**
+     *
+     * @return the camera of this pass
+     */
+    public GameCamera getGameCamera()
+    { return gameCamera; }
+
+    /**
+     * Sets the frame buffer this pass renders into. The viewport of the camera is fitted to the frame buffer.
+     * @param target the frame buffer or null to render to the screen
+     */
+    public void setTarget(FrameBuffer target) {
+        this.target = target;
+        lastWidth = lastHeight = 0;
+    }
+
+    /**
+     *
+     * @return the frame buffer this pass renders into or null if it renders to the screen
+     */
+    public FrameBuffer getTarget()
+    { return target; }
+
+    /**
+     * Sets the area of the screen this pass renders into. The values are fractions of the screen size, so they stay valid when the screen is resized.
+     * For example, {@code setScreenArea(0, 0, .5f, 1)} is the left half of the screen. This has no effect if a target frame buffer is set.
+     * @param x the left edge (0 - 1)
+     * @param y the bottom edge (0 - 1)
+     * @param width the width (0 - 1)
+     * @param height the height (0 - 1)
+     */
+    public void setScreenArea(float x, float y, float width, float height) {
+        screenX = x;
+        screenY = y;
+        screenWidth = width;
+        screenHeight = height;
+        lastWidth = lastHeight = 0;
+    }
+
+    /**
+     * Limits this pass to a layer. Call it multiple times to add more layers. A pass without layers renders every layer.
+     * @param layer the layer
+     */
+    public void addLayer(Layer layer) {
+        if (!layers.contains(layer, true))
+            layers.add(layer);
+    }
+
+    /**
+     * Stops rendering a layer.
+     * @param layer the layer
+     * @return true if the layer was removed. false otherwise
+     */
+    public boolean removeLayer(Layer layer)
+    { return layers.removeValue(layer, true); }
+
+    /**
+     *
+     * @return the layers rendered by this pass. Empty if every layer is rendered
+     */
+    public Array<Layer> getLayers()
+    { return layers; }
+
+    /**
+     * Checks if this pass renders a layer.
+     * @param layer the layer
+     * @return true if the layer is rendered by this pass. false otherwise
+     */
+    public boolean includesLayer(Layer layer)
+    { return layers.isEmpty() || layers.contains(layer, true); }
+
+    /**
+     * Sets the level of detail hint of this pass. Defaults to {@link #LOD_FULL}.
+     * The meaning of other levels is up to the components of the game.
+     * @param lod the level of detail
+     */
+    public void setLod(int lod)
+    { this.lod = lod; }
+
+    /**
+     *
+     * @return the level of detail hint of this pass
+     */
+    public int getLod()
+    { return lod; }
+
+    /**
+     * Enables/Disables this pass.
+     * @param enabled whether this pass should be rendered
+     */
+    public void setEnabled(boolean enabled)
+    { this.enabled = enabled; }
+
+    /**
+     *
+     * @return whether this pass is rendered
+     */
+    public boolean isEnabled()
+    { return enabled; }
+
+    /**
+     * Whether the area of this pass should be cleared with the background color of the camera before rendering. It is enabled by default.
+     * @param clear whether the area should be cleared
+     */
+    public void setClear(boolean clear)
+    { this.clear = clear; }
+
+    /**
+     *
+     * @return whether the area of this pass is cleared before rendering
+     */
+    public boolean isClear()
+    { return clear; }
+
+    /**
+     * Fits the viewport of the camera to the target frame buffer or the area of the screen. Nothing is done if the size did not change.
+     * This method is called internally by the system. Do not call it directly!
+     * @param screenWidth the width of the screen
+     * @param screenHeight the height of the screen
+     */
+    public void __fitViewport(int screenWidth, int screenHeight) {
+        int width = target != null ? target.getWidth() : screenWidth;
+        int height = target != null ? target.getHeight() : screenHeight;
+        if (width == lastWidth && height == lastHeight)
+            return;
+
+        lastWidth = width;
+        lastHeight = height;
+
+        Viewport viewport = gameCamera.getViewport();
+        if (target != null) {
+            viewport.update(width, height, true);
+            return;
+        }
+
+        viewport.update((int)(width * this.screenWidth), (int)(height * this.screenHeight), true);
+        viewport.setScreenPosition(viewport.getScreenX() + (int)(width * screenX),
+                viewport.getScreenY() + (int)(height * screenY));
+    }
+}
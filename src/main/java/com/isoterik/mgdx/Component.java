@@ -76,6 +76,14 @@ public class Component {
      */
     public void render(GameCamera gameCamera) {}
 
+    /**
+     * Called at the sync point of a scene that runs its simulation on a separate thread (see {@link Scene#setThreadedSimulation(boolean)}).
+     * The simulation thread is idle while this method executes. Components that render should capture the state they need here
+     * (transforms, sprite regions, colors...) and use only the captured state in {@link #render(GameCamera)}.
+     * @param gameCamera the camera used by the scene. It is already updated
+     */
+    public void syncRenderState(GameCamera gameCamera) {}
+
     /**
      * Called when the component should render debug drawings of type {@link com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType#Line}
      * @param shapeRenderer a shape renderer to draw with
@@ -160,6 +168,15 @@ public class Component {
      */
     public void onSensorExit2d(Collision2d collision) {}
 
+    /**
+     * Requests a new frame to be rendered. Call this when the component changes something that should be displayed while the host scene
+     * is rendered {@link Scene#setOnDemandRendering(boolean) on demand}. It has no effect if there is no host scene.
+     */
+    public void requestRendering() {
+        if (scene != null)
+            scene.requestRendering();
+    }
+
     /**
      * Components can be disabled. This determines if it is enabled or not
      * @param enabled is it enabled?
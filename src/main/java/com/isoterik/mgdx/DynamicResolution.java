@@ -0,0 +1,311 @@
+package com.isoterik.mgdx;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.HdpiUtils;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.WindowedMean;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.isoterik.mgdx.graphics.FrameBufferPool;
+
+/**
+ * DynamicResolution renders the world of a {@link Scene} into an offscreen {@link FrameBuffer} at a fraction of the screen resolution and then
+ * upscales it to the screen. The UI canvas of the scene is not affected; it is always rendered at the native resolution.
+ * <p>
+ * The scale factor is adjusted automatically from a rolling average of the measured frame time. When frames take longer than the target frame time the
+ * resolution is reduced and when there is enough headroom the resolution is raised again. Separate thresholds for both directions and a full measuring
+ * window between changes keep the scale from oscillating.
+ * <p>
+ * To use it, simply set an instance on a scene using {@link Scene#setDynamicResolution(DynamicResolution)}.
+ *
+ * @author isoteriksoftware
+ */
+public class DynamicResolution implements Disposable {
+    private float minScale, maxScale;
+    private float scale;
+    private float scaleStep;
+
+    private float targetFrameTime;
+    private float downscaleThreshold, upscaleThreshold;
+
+    private boolean autoScale;
+
+    private final WindowedMean frameTimes;
+
+    private FrameBuffer frameBuffer;
+    private final TextureRegion frameRegion;
+    private final SpriteBatch batch;
+    private final boolean hasDepth;
+
+    private int scaledWidth, scaledHeight;
+
+    /**
+     * Creates a new instance given the bounds of the scale factor.
+     * @param minScale the minimum scale factor (0 - 1)
+     * @param maxScale the maximum scale factor (0 - 1)
+     * @param hasDepth whether the offscreen frame buffer should have a depth buffer attached. Useful for 3D scenes.
+     */
+    public DynamicResolution(float minScale, float maxScale, boolean hasDepth) {
+        this.hasDepth = hasDepth;
+
+        setScaleBounds(minScale, maxScale);
+        scale = this.maxScale;
+        scaleStep = .1f;
+
+        targetFrameTime = 1f / 60f;
+        downscaleThreshold = 1.15f;
+        upscaleThreshold = 1.02f;
+
+        autoScale = true;
+
+        frameTimes = new WindowedMean(30);
+        frameRegion = new TextureRegion();
+        batch = new SpriteBatch(1);
+    }
+
+    /**
+     * Creates a new instance given the bounds of the scale factor.
+     * @param minScale the minimum scale factor (0 - 1)
+     * @param maxScale the maximum scale factor (0 - 1)
+     */
+    public DynamicResolution(float minScale, float maxScale)
+    { this(minScale, maxScale, false); }
+
+    /**
+     * Creates a new instance that scales between half and full resolution.
+     */
+    public DynamicResolution()
+    { this(.5f, 1f); }
+
+    /**
+     * Sets the bounds of the scale factor. The current scale is clamped to the new bounds.
+     * @param minScale the minimum scale factor (0 - 1)
+     * @param maxScale the maximum scale factor (0 - 1)
+     * @throws IllegalArgumentException if the bounds are invalid
+     */
+    public void setScaleBounds(float minScale, float maxScale) throws IllegalArgumentException {
+        if (minScale <= 0 || maxScale > 1 || minScale > maxScale)
+            throw new IllegalArgumentException("The scale bounds must satisfy 0 < minScale <= maxScale <= 1");
+
+        this.minScale = minScale;
+        this.maxScale = maxScale;
+        scale = MathUtils.clamp(scale, minScale, maxScale);
+    }
+
+    /**
+     *
+     * @return the minimum scale factor
+     */
+    public float getMinScale()
+    { return minScale; }
+
+    /**
+     *
+     * @return the maximum scale factor
+     */
+    public float getMaxScale()
+    { return maxScale; }
+
+    /**
+     * Sets the current scale factor. The scale is clamped to the scale bounds.
+     * <strong>Note:</strong> if auto scaling is enabled, the scale will still be adjusted from the measured frame time.
+     * @param scale the scale factor
+     */
+    public void setScale(float scale) {
+        this.scale = MathUtils.clamp(scale, minScale, maxScale);
+        frameTimes.clear();
+    }
+
+    /**
+     *
+     * @return the current scale factor
+     */
+    public float getScale()
+    { return scale; }
+
+    /**
+     * Sets the amount the scale factor changes by whenever it is adjusted. Defaults to 0.1
+     * @param scaleStep the amount the scale factor changes by
+     */
+    public void setScaleStep(float scaleStep)
+    { this.scaleStep = scaleStep; }
+
+    /**
+     *
+     * @return the amount the scale factor changes by whenever it is adjusted
+     */
+    public float getScaleStep()
+    { return scaleStep; }
+
+    /**
+     * Sets the frame time (in seconds) the scale factor is adjusted to meet. Defaults to 1f/60f (60 frames per second)
+     * @param targetFrameTime the target frame time in seconds
+     */
+    public void setTargetFrameTime(float targetFrameTime)
+    { this.targetFrameTime = targetFrameTime; }
+
+    /**
+     *
+     * @return the target frame time in seconds
+     */
+    public float getTargetFrameTime()
+    { return targetFrameTime; }
+
+    /**
+     * Sets the thresholds (as multiples of the target frame time) that trigger a change of the scale factor.
+     * The resolution is reduced when the average frame time exceeds {@code targetFrameTime * downscaleThreshold} and raised when it falls
+     * below {@code targetFrameTime * upscaleThreshold}. Defaults to 1.15 and 1.02
+     * @param downscaleThreshold the threshold for reducing the resolution
+     * @param upscaleThreshold the threshold for raising the resolution
+     * @throws IllegalArgumentException if the upscale threshold is not less than the downscale threshold
+     */
+    public void setThresholds(float downscaleThreshold, float upscaleThreshold) throws IllegalArgumentException {
+        if (upscaleThreshold >= downscaleThreshold)
+            throw new IllegalArgumentException("The upscale threshold must be less than the downscale threshold");
+
+        this.downscaleThreshold = downscaleThreshold;
+        this.upscaleThreshold = upscaleThreshold;
+    }
+
+    /**
+     *
+     * @return the threshold for reducing the resolution
+     */
+    public float getDownscaleThreshold()
+    { return downscaleThreshold; }
+
+    /**
+     *
+     * @return the threshold for raising the resolution
+     */
+    public float getUpscaleThreshold()
+    { return upscaleThreshold; }
+
+    /**
+     * Enables/Disables automatic adjustment of the scale factor. It is enabled by default.
+     * @param autoScale whether the scale factor should be adjusted automatically
+     */
+    public void setAutoScale(boolean autoScale) {
+        this.autoScale = autoScale;
+        frameTimes.clear();
+    }
+
+    /**
+     *
+     * @return whether the scale factor is adjusted automatically
+     */
+    public boolean isAutoScale()
+    { return autoScale; }
+
+    /**
+     *
+     * @return the average frame time (in seconds) measured so far
+     */
+    public float getAverageFrameTime()
+    { return frameTimes.getMean(); }
+
+    /* Adjusts the scale factor once a full window of frame times has been measured */
+    private void adjustScale() {
+        frameTimes.addValue(Gdx.graphics.getDeltaTime());
+        if (!frameTimes.hasEnoughData())
+            return;
+
+        float averageFrameTime = frameTimes.getMean();
+        float newScale = scale;
+
+        if (averageFrameTime > targetFrameTime * downscaleThreshold)
+            newScale = Math.max(minScale, scale - scaleStep);
+        else if (averageFrameTime < targetFrameTime * upscaleThreshold)
+            newScale = Math.min(maxScale, scale + scaleStep);
+
+        // Wait for a full window of measurements before adjusting again so the new scale can take effect
+        if (newScale != scale) {
+            scale = newScale;
+            frameTimes.clear();
+        }
+    }
+
+    /**
+     * Starts rendering into the offscreen frame buffer. The frame buffer is (re)created if the size of the viewport changed.
+     * This method is called internally by the system. Do not call it directly!
+     * @param viewport the viewport of the camera used for rendering the world
+     */
+    public void __begin(Viewport viewport) {
+        if (autoScale)
+            adjustScale();
+
+        // The scene can be rendered into another frame buffer (such as a scaled transition buffer); size the world for that target
+        FrameBufferPool frameBuffers = MinGdx.instance().frameBuffers;
+        float targetScaleX = frameBuffers.getTargetWidth() / (float)Gdx.graphics.getBackBufferWidth();
+        float targetScaleY = frameBuffers.getTargetHeight() / (float)Gdx.graphics.getBackBufferHeight();
+
+        int width = Math.max(1, (int)(HdpiUtils.toBackBufferX(viewport.getScreenWidth()) * targetScaleX));
+        int height = Math.max(1, (int)(HdpiUtils.toBackBufferY(viewport.getScreenHeight()) * targetScaleY));
+
+        // The frame buffer is allocated at the maximum scale; lower scales render into a portion of it so scale changes don't reallocate it
+        int bufferWidth = Math.max(1, (int)(width * maxScale));
+        int bufferHeight = Math.max(1, (int)(height * maxScale));
+
+        if (frameBuffer == null || frameBuffer.getWidth() != bufferWidth || frameBuffer.getHeight() != bufferHeight) {
+            if (frameBuffer != null)
+                frameBuffer.dispose();
+
+            frameBuffer = new FrameBuffer(Pixmap.Format.RGB888, bufferWidth, bufferHeight, hasDepth);
+            frameBuffer.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        }
+
+        scaledWidth = Math.max(1, Math.min(bufferWidth, (int)(width * scale)));
+        scaledHeight = Math.max(1, Math.min(bufferHeight, (int)(height * scale)));
+
+        // Rendering into the frame buffer through the pool lets the scene itself be rendered into another frame buffer
+        frameBuffers.begin(frameBuffer);
+        Gdx.gl.glViewport(0, 0, scaledWidth, scaledHeight);
+    }
+
+    /**
+     * Stops rendering into the offscreen frame buffer and upscales its content to the screen area of the given viewport.
+     * This method is called internally by the system. Do not call it directly!
+     * @param viewport the viewport of the camera used for rendering the world
+     * @param clearColor the color used for clearing the screen outside the viewport
+     */
+    public void __end(Viewport viewport, Color clearColor) {
+        // Restores the previous render target, which is not always the screen
+        FrameBufferPool frameBuffers = MinGdx.instance().frameBuffers;
+        frameBuffers.end();
+
+        Gdx.gl.glClearColor(clearColor.r, clearColor.g, clearColor.b, clearColor.a);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        // Frame buffer textures are upside down
+        frameRegion.setTexture(frameBuffer.getColorBufferTexture());
+        frameRegion.setRegion(0, 0, scaledWidth, scaledHeight);
+        frameRegion.flip(false, true);
+
+        // The screen area of the viewport is mapped into the restored target
+        frameBuffers.applyViewport(viewport);
+
+        batch.getProjectionMatrix().setToOrtho2D(0, 0, 1, 1);
+        batch.disableBlending();
+        batch.begin();
+        batch.draw(frameRegion, 0, 0, 1, 1);
+        batch.end();
+        batch.enableBlending();
+    }
+
+    @Override
+    public void dispose() {
+        if (frameBuffer != null) {
+            frameBuffer.dispose();
+            frameBuffer = null;
+        }
+
+        batch.dispose();
+    }
+}
@@ -1,6 +1,9 @@
 package com.isoterik.mgdx;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.isoterik.mgdx.m2d.physics.Collision2d;
+import com.isoterik.mgdx.utils.ReflectionUtils;
 
 /**
  * A GameObject represents an entity in the game. A GameObject can't do anything on its own; you have to give it properties before it can do anything.
@@ -22,12 +25,22 @@ public class GameObject {
     protected final Array<Component> components;
     protected final Array.ArrayIterator<Component> arrayIterator;
 
+    /* The components that override at least one of the collision callbacks. Contacts are dispatched to these only */
+    protected final Array<Component> collisionListeners = new Array<>();
+
+    // Caches whether component classes override the collision callbacks (1) or not (0)
+    private static final ObjectIntMap<Class<?>> collisionListenerClasses = new ObjectIntMap<>();
+
     public Transform transform;
 
     protected String tag;
 
     protected Scene hostScene;
 
+    protected Layer layer;
+
+    private float sortKey;
+
     public GameObject()
     { this("Untagged"); }
 
@@ -49,9 +62,16 @@ public class GameObject {
      * @param hostScene the host scene
      */
     public void __setHostScene(Scene hostScene) {
+        Scene previousScene = this.hostScene;
+        if (previousScene != null && previousScene != hostScene)
+            previousScene.__unregisterComponents(this);
+
         this.hostScene = hostScene;
         for (Component comp : components)
             comp.__setHostScene(hostScene);
+
+        if (hostScene != null && previousScene != hostScene)
+            hostScene.__registerComponents(this);
     }
 
     /**
@@ -61,6 +81,42 @@ public class GameObject {
     public Scene getHostScene()
     { return hostScene; }
 
+    /**
+     * Sets the layer where this game object resides.
+     * This method is called internally by the system. Do not call it directly!
+     * @param layer the layer
+     */
+    public void __setLayer(Layer layer)
+    { this.layer = layer; }
+
+    /**
+     *
+     * @return the layer where this game object resides
+     */
+    public Layer getLayer()
+    { return layer; }
+
+    /**
+     * Sets the key used for ordering this game object within its layer. Game objects with lower keys are rendered first.
+     * It has effect only if the sort mode of the layer is {@link Layer.SortMode#SORT_KEY}.
+     * @param sortKey the sort key
+     */
+    public void setSortKey(float sortKey) {
+        if (this.sortKey == sortKey)
+            return;
+
+        this.sortKey = sortKey;
+        if (layer != null)
+            layer.__invalidateSort();
+    }
+
+    /**
+     *
+     * @return the key used for ordering this game object within its layer
+     */
+    public float getSortKey()
+    { return sortKey; }
+
     /**
      * Sets the tag for this game object. It is not required to be unique.
      * @param tag the tag
@@ -105,6 +161,12 @@ public class GameObject {
         }
 
         components.add(component);
+
+        if (isCollisionListener(component.getClass()))
+            collisionListeners.add(component);
+
+        if (hostScene != null)
+            hostScene.__registerComponent(component);
     }
 
     /**
@@ -116,6 +178,11 @@ public class GameObject {
     public boolean removeComponent(Component component) {
         if (components.contains(component, true) &&
                 components.removeValue(component, true)) {
+            collisionListeners.removeValue(component, true);
+
+            if (hostScene != null)
+                hostScene.__unregisterComponent(component);
+
             for (Component comp : components)
                 comp.componentRemoved(component);
 
@@ -215,6 +282,40 @@ public class GameObject {
         arrayIterator.reset();
     }
 
+    /**
+     * Calls the given IterationListener on the components that override at least one of the collision callbacks
+     * ({@link Component#onCollisionEnter2d(Collision2d)}, {@link Component#onCollisionExit2d(Collision2d)}, {@link Component#onSensorEnter2d(Collision2d)}
+     * and {@link Component#onSensorExit2d(Collision2d)}).
+     * This method is used internally by the system. While it is safe to call it, you usually don't need to.
+     * @param iterationListener the iteration listener
+     */
+    public void __forEachCollisionListener(__ComponentIterationListener iterationListener) {
+        for (int i = 0; i < collisionListeners.size; i++)
+            iterationListener.onComponent(collisionListeners.get(i));
+    }
+
+    /**
+     *
+     * @return whether this game object has components that override at least one of the collision callbacks
+     */
+    public boolean hasCollisionListeners()
+    { return collisionListeners.size > 0; }
+
+    /* Determines whether a component class overrides at least one of the collision callbacks */
+    private static boolean isCollisionListener(Class<?> componentClass) {
+        int listener = collisionListenerClasses.get(componentClass, -1);
+        if (listener != -1)
+            return listener == 1;
+
+        boolean overridden = ReflectionUtils.isMethodOverridden(componentClass, Component.class, "onCollisionEnter2d", Collision2d.class)
+                || ReflectionUtils.isMethodOverridden(componentClass, Component.class, "onCollisionExit2d", Collision2d.class)
+                || ReflectionUtils.isMethodOverridden(componentClass, Component.class, "onSensorEnter2d", Collision2d.class)
+                || ReflectionUtils.isMethodOverridden(componentClass, Component.class, "onSensorExit2d", Collision2d.class);
+
+        collisionListenerClasses.put(componentClass, overridden ? 1 : 0);
+        return overridden;
+    }
+
     /**
      * An iteration listener that can be used to iterate the components of a {@link GameObject}.
      */
@@ -4,14 +4,34 @@ import com.badlogic.gdx.utils.Array;
 
 /**
  * Layers are be used to group {@link GameObject}s of a {@link Scene}.
+ * <p>
+ * The game objects of a layer are rendered in the order they are stored. A layer can keep them ordered by a sort key (see {@link SortMode}); the order is
+ * maintained with an incremental insertion sort, so a mostly sorted layer is sorted in near linear time.
  *
  * @author isoteriksoftware
  */
 public class Layer {
+    /**
+     * Determines how a layer orders its game objects.
+     */
+    public enum SortMode {
+        /** Game objects are rendered in the order they were added. */
+        NONE,
+
+        /** Game objects are rendered in ascending order of their sort key (see {@link GameObject#setSortKey(float)}). */
+        SORT_KEY,
+
+        /** Game objects are rendered from the top of the world to the bottom; game objects lower on the screen are drawn in front. Useful for top-down games. */
+        Y_SORT
+    }
+
     private Array<GameObject> gameObjects;
 
     private String name;
 
+    private SortMode sortMode = SortMode.NONE;
+    private boolean sortDirty;
+
     /**
      * Creates a new layer with a given name.
      * @param name a name for the layer
@@ -26,16 +46,24 @@ public class Layer {
      * Adds a game object to this layer
      * @param gameObject the game object to add
      */
-    public void addGameObject(GameObject gameObject)
-    { gameObjects.add(gameObject); }
+    public void addGameObject(GameObject gameObject) {
+        gameObjects.add(gameObject);
+        gameObject.__setLayer(this);
+        sortDirty = true;
+    }
 
     /**
      * Removes a game object from this layer
      * @param gameObject the game object to remove
      * @return true if the game object was removed. false otherwise
      */
-    public boolean removeGameObject(GameObject gameObject)
-    { return gameObjects.removeValue(gameObject, true); }
+    public boolean removeGameObject(GameObject gameObject) {
+        if (!gameObjects.removeValue(gameObject, true))
+            return false;
+
+        gameObject.__setLayer(null);
+        return true;
+    }
 
     /**
      *
@@ -57,4 +85,68 @@ public class Layer {
      */
     public String getName()
     { return name; }
+
+    /**
+     * Sets how this layer orders its game objects. Defaults to {@link SortMode#NONE}.
+     * @param sortMode the sort mode
+     */
+    public void setSortMode(SortMode sortMode) {
+        if (this.sortMode != sortMode)
+            sortDirty = true;
+
+        this.sortMode = sortMode;
+    }
+
+    /**
+     *
+     * @return how this layer orders its game objects
+     */
+    public SortMode getSortMode()
+    { return sortMode; }
+
+    /**
+     * Marks the order of this layer as changed. It is called when the sort key of a game object of this layer changes.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __invalidateSort()
+    { sortDirty = true; }
+
+    /**
+     * Orders the game objects of this layer.
+     * With {@link SortMode#SORT_KEY}, nothing is done unless a game object was added or a sort key changed.
+     * With {@link SortMode#Y_SORT}, the positions can change at any time so the order is checked every time; a layer that is still sorted costs a single pass.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __sort() {
+        if (sortMode == SortMode.NONE || (sortMode == SortMode.SORT_KEY && !sortDirty))
+            return;
+
+        // Insertion sort is stable and close to linear when only a few game objects moved
+        Array<GameObject> gameObjects = this.gameObjects;
+        for (int i = 1; i < gameObjects.size; i++) {
+            GameObject gameObject = gameObjects.get(i);
+            float key = sortKeyOf(gameObject);
+
+            int j = i - 1;
+            if (sortKeyOf(gameObjects.get(j)) <= key)
+                continue;
+
+            while (j >= 0 && sortKeyOf(gameObjects.get(j)) > key) {
+                gameObjects.set(j + 1, gameObjects.get(j));
+                j--;
+            }
+
+            gameObjects.set(j + 1, gameObject);
+        }
+
+        sortDirty = false;
+    }
+
+    private float sortKeyOf(GameObject gameObject) {
+        // Higher game objects are drawn first so the ones lower on the screen appear in front
+        if (sortMode == SortMode.Y_SORT)
+            return -gameObject.transform.position.y;
+
+        return gameObject.getSortKey();
+    }
 }
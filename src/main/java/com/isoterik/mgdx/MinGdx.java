@@ -4,6 +4,8 @@ import com.badlogic.gdx.Application;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Graphics;
 import com.isoterik.mgdx.audio.AudioManager;
+import com.isoterik.mgdx.graphics.FrameBufferPool;
+import com.isoterik.mgdx.graphics.SpriteBatchPool;
 import com.isoterik.mgdx.input.InputManager;
 import com.isoterik.mgdx.io.GameAssetsLoader;
 import com.isoterik.mgdx.m2d.scenes.transition.ISceneTransition;
@@ -30,6 +32,12 @@ public final class MinGdx {
     /** A reference to the shared instance of {@link AudioManager} for managing game audio. */
     public final AudioManager audio;
 
+    /** A reference to the shared instance of {@link SpriteBatchPool} for sharing sprite batches. */
+    public final SpriteBatchPool spriteBatches;
+
+    /** A reference to the shared instance of {@link FrameBufferPool} for reusing offscreen render targets. */
+    public final FrameBufferPool frameBuffers;
+
     /** A reference to the shared instance of {@link SceneManager} for scene management. */
     public final SceneManager sceneManager;
 
@@ -62,6 +70,12 @@ public final class MinGdx {
         GameAssetsLoader.__init();
         this.assets = GameAssetsLoader.instance();
 
+        SpriteBatchPool.__init();
+        this.spriteBatches = SpriteBatchPool.instance();
+
+        FrameBufferPool.__init();
+        this.frameBuffers = FrameBufferPool.instance();
+
         SceneManager.__init();
         this.sceneManager = SceneManager.instance();
 
@@ -130,6 +144,8 @@ public final class MinGdx {
      */
     public void __dispose() {
         sceneManager.__dispose();
+        spriteBatches.__dispose();
+        frameBuffers.__dispose();
         assets.__dispose();
     }
 
@@ -155,5 +171,9 @@ public final class MinGdx {
 
         /** The default number of pixels that equals one world unit. */
         public float PIXELS_PER_UNIT = 100f;
+
+        /* Rendering settings */
+        /** The default number of sprites a shared sprite batch can hold before it flushes (max 8191). Large scenes can use bigger batches to reduce flushes. */
+        public int SPRITE_BATCH_SIZE = 1000;
     }
 }
\ No newline at end of file
@@ -1,31 +1,62 @@
 package com.isoterik.mgdx;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.Box2DDebugRenderer;
 import com.badlogic.gdx.physics.box2d.Contact;
 import com.badlogic.gdx.physics.box2d.ContactImpulse;
 import com.badlogic.gdx.physics.box2d.ContactListener;
+import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.Manifold;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.badlogic.gdx.utils.viewport.StretchViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
+import com.isoterik.mgdx.graphics.FrameBufferPool;
+import com.isoterik.mgdx.graphics.ProfilingSpriteBatch;
+import com.isoterik.mgdx.graphics.RenderStats;
+import com.isoterik.mgdx.graphics.postprocessing.PostProcessor;
 import com.isoterik.mgdx.input.InputManager;
 import com.isoterik.mgdx.m2d.GameCamera2d;
 import com.isoterik.mgdx.m2d.components.SpriteRenderer;
+import com.isoterik.mgdx.m2d.components.debug.DebugRendererBase;
+import com.isoterik.mgdx.m2d.components.physics.ArcadeBody2d;
 import com.isoterik.mgdx.m2d.components.physics.Physics2d;
+import com.isoterik.mgdx.m2d.physics.ArcadeWorld2d;
 import com.isoterik.mgdx.m2d.physics.Collision2d;
+import com.isoterik.mgdx.m2d.physics.CollisionMatrix2d;
+import com.isoterik.mgdx.m2d.physics.ContactEvent2d;
+import com.isoterik.mgdx.m2d.physics.PhysicsQuery2d;
+import com.isoterik.mgdx.m2d.physics.PhysicsRegion2d;
+import com.isoterik.mgdx.m2d.physics.RaycastHit2d;
+import com.isoterik.mgdx.utils.ReflectionUtils;
 import com.isoterik.mgdx.utils.WorldUnits;
 
 /**
@@ -68,6 +99,15 @@ public class Scene implements ContactListener {
     /** The Box2D physics world */
     protected final World physicsWorld2d;
 
+    /** The named collision layers of 2D physics and which of them interact */
+    protected final CollisionMatrix2d collisionMatrix2d = new CollisionMatrix2d();
+
+    /** Runs ray casts and overlap tests against the physics world */
+    protected final PhysicsQuery2d physicsQuery2d;
+
+    /** The lightweight arcade physics world. It is stepped together with the Box2D world */
+    protected final ArcadeWorld2d arcadeWorld2d = new ArcadeWorld2d(collisionMatrix2d);
+
     /** Velocity iterations for 2D physics. Defaults to 8 */
     protected int velocityIterations;
     /** Position iterations for 2D physics. Defaults to 3 */
@@ -82,6 +122,17 @@ public class Scene implements ContactListener {
     private double accumulator;
     private double currentTime;
 
+    /* The Physics2d components of this scene. Unordered; each component knows its index which is also its slot in the state buffer */
+    private final Array<Physics2d> physicsComponents2d = new Array<>(false, 16);
+
+    /*
+    The previous and current states of the physics bodies, PHYSICS_STATE_STRIDE floats per Physics2d component:
+    previous x, y and angle, current x, y and angle (center of the body, radians) and a flag (see below)
+     */
+    private static final int PHYSICS_STATE_STRIDE = 7;
+    private static final float STATE_UNINITIALIZED = -1, STATE_INTERPOLATING = 0, STATE_SETTLED = 1;
+    private float[] physicsStates2d = new float[16 * PHYSICS_STATE_STRIDE];
+
     /** The fixed time step for the Box2D physics engine. Defaults to 1f/60f (60 frames per second). */
     protected float physicsTimeStep = 1.0f/60.0f;
 
@@ -93,9 +144,17 @@ public class Scene implements ContactListener {
     // These iteration listeners prevent us from creating new instances every time!
     protected GameObject.__ComponentIterationListener startIter, pauseIter,
             resumeIter, updateIter, resizeIter, lateUpdateIter, fixedUpdateIter, renderIter,
-            debugLineIter, debugFilledIter, debugPointIter, destroyIter;
+            renderPassIter, syncRenderStateIter, debugLineIter, debugFilledIter, debugPointIter, destroyIter;
 
     protected Array<Body> garbagePhysicsBodies2d = new Array<>();
+    private final ObjectSet<Body> garbagePhysicsBodySet2d = new ObjectSet<>();
+
+    // Deactivated bodies kept for reuse, keyed by the configuration of their colliders.
+    // Released bodies join the pool at the end of the frame since a body cannot be deactivated while the world steps
+    private final ObjectMap<String, Array<Body>> physicsBodyPool2d = new ObjectMap<>();
+    private final Array<Body> releasedPhysicsBodies2d = new Array<>();
+    private final Array<String> releasedPhysicsBodyKeys2d = new Array<>();
+    private int physicsBodyPoolCapacity2d = 32;
 
     // The state of the Scene
     private boolean isActive;
@@ -106,6 +165,9 @@ public class Scene implements ContactListener {
     /** {@link com.badlogic.gdx.scenes.scene2d.Stage} instance used for managing GameObjects that wants to use the Scene2d API for animations */
     protected Stage animationCanvas;
 
+    /* The actor transforms whose actors have actions. Only these actors are acted; idle actors cost nothing */
+    private final Array<ActorTransform> animatingActors = new Array<>();
+
     /** ShapeRenderer for debug drawings */
     protected ShapeRenderer shapeRenderer;
 
@@ -115,6 +177,49 @@ public class Scene implements ContactListener {
     /** Determines whether this Scene is a 3D scene */
     protected boolean is3dMode = false;
 
+    /** Renders the world at a reduced resolution when set. null means the world is rendered at the native resolution. */
+    protected DynamicResolution dynamicResolution;
+
+    /** Extra cameras that render the game objects after the main camera. */
+    protected final Array<CameraRenderPass> renderPasses = new Array<>();
+
+    /** The camera pass being rendered or null if the main camera is rendering */
+    protected CameraRenderPass currentRenderPass;
+
+    /** Applies post processing effects to the world when set. */
+    protected PostProcessor postProcessor;
+
+    /** Determines whether this scene is rendered only when something changes. */
+    protected boolean onDemandRendering;
+
+    /** Collects statistics about every rendered frame when set. */
+    protected RenderStats renderStats;
+
+    /** Determines whether the simulation runs on a separate thread while the world is rendered. */
+    protected boolean threadedSimulation;
+
+    /** The projection used for rendering the world. When the simulation is threaded, it is captured at the sync point. */
+    protected final Matrix4 renderProjection = new Matrix4();
+
+    /** The area of the world seen by the main camera (if it is an {@link OrthographicCamera}) captured at the sync point. */
+    protected final Rectangle renderViewBounds = new Rectangle();
+
+    // The simulation thread
+    private AsyncExecutor simulationExecutor;
+    private AsyncResult<Void> simulationResult;
+    private final AsyncTask<Void> simulationTask;
+    private boolean simulationPending;
+    private boolean physicsActive;
+    private boolean renderingCapturedState;
+
+    // The components to render captured at the sync point. Each layer starts at the index stored in renderListLayerStarts
+    private final Array<Component> renderList = new Array<>();
+    private final Array<Layer> renderListLayers = new Array<>();
+    private final IntArray renderListLayerStarts = new IntArray();
+
+    // Used for checking whether the physics world has moving bodies in on-demand rendering mode
+    private final Array<Body> physicsBodies2d = new Array<>();
+
     /** Determines whether this stack can be stacked. */
     protected boolean stackable = true;
 
@@ -134,9 +239,44 @@ public class Scene implements ContactListener {
     // The collision pool
     private final Collision2d.CollisionPool collisionPool;
 
+    // Contacts that began or ended during the current physics step. They are dispatched after the step
+    private boolean queueContactEvents2d = true;
+    private boolean steppingPhysics2d;
+    private final Array<ContactEvent2d> contactEvents2d = new Array<>();
+    private final ContactEvent2d.ContactEventPool contactEventPool = new ContactEvent2d.ContactEventPool();
+    private final LongMap<ContactEvent2d> contactEventsByPair = new LongMap<>();
+
+    // Fixtures destroyed by the handlers while the queued contact events are dispatched. Their remaining events are skipped
+    private boolean dispatchingContactEvents2d;
+    private final ObjectSet<Fixture> destroyedFixtures2d = new ObjectSet<>();
+
+    // Extra physics worlds stepped in parallel with the main world. The id of a region is its index + 1; 0 is the main world
+    private final Array<PhysicsRegion2d> physicsRegions2d = new Array<>();
+    private final ObjectIntMap<Layer> layerPhysicsRegions2d = new ObjectIntMap<>();
+    private final Array<AsyncResult<Void>> physicsRegionResults2d = new Array<>();
+    private AsyncExecutor physicsRegionExecutor2d;
+    private int physicsRegionWorkers2d;
+
     // An array of game objects
     Array<GameObject> gameObjects = new Array<>();
 
+    // Debug renderers registered by the game objects of this scene.
+    // They are sorted into buckets (one per shape type) every frame so each shape type is drawn in a single pass
+    private final Array<DebugRendererBase> debugRenderers = new Array<>();
+    private final Array<DebugRendererBase> debugLineBucket = new Array<>();
+    private final Array<DebugRendererBase> debugFilledBucket = new Array<>();
+    private final Array<DebugRendererBase> debugPointBucket = new Array<>();
+
+    // Other components that override the debug drawing methods of Component
+    private final Array<Component> debugLineComponents = new Array<>();
+    private final Array<Component> debugFilledComponents = new Array<>();
+    private final Array<Component> debugPointComponents = new Array<>();
+
+    private static final int DEBUG_LINE = 1, DEBUG_FILLED = 1 << 1, DEBUG_POINT = 1 << 2;
+
+    // Caches the debug drawing methods overridden by each component class
+    private static final ObjectIntMap<Class<?>> debugDrawingFlags = new ObjectIntMap<>();
+
     /**
      * Creates a new instance given a gravity.
      * @param gravity the gravity of the physics world
@@ -166,8 +306,61 @@ public class Scene implements ContactListener {
 
         inputManager = new InputManager(this);
 
+        // Request rendering whenever input arrives. This is what keeps on-demand scenes responsive
+        inputManager.getInputMultiplexer().addProcessor(0, new InputAdapter() {
+            @Override
+            public boolean keyDown(int keycode) {
+                requestRendering();
+                return false;
+            }
+
+            @Override
+            public boolean keyUp(int keycode) {
+                requestRendering();
+                return false;
+            }
+
+            @Override
+            public boolean keyTyped(char character) {
+                requestRendering();
+                return false;
+            }
+
+            @Override
+            public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+                requestRendering();
+                return false;
+            }
+
+            @Override
+            public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+                requestRendering();
+                return false;
+            }
+
+            @Override
+            public boolean touchDragged(int screenX, int screenY, int pointer) {
+                requestRendering();
+                return false;
+            }
+
+            @Override
+            public boolean mouseMoved(int screenX, int screenY) {
+                requestRendering();
+                return false;
+            }
+
+            @Override
+            public boolean scrolled(float amountX, float amountY) {
+                requestRendering();
+                return false;
+            }
+        });
+
         physicsWorld2d = new World(new Vector2(gravity.x, gravity.y),true);
         physicsWorld2d.setContactListener(this);
+        physicsQuery2d = new PhysicsQuery2d(physicsWorld2d);
+        arcadeWorld2d.setGravity(gravity.x, gravity.y);
 
         physicsDebugRenderer2d = new Box2DDebugRenderer();
 
@@ -231,14 +424,44 @@ public class Scene implements ContactListener {
             @Override
             public void onComponent(Component component) {
                 if (component.isEnabled())
-                    component.render(mainCamera);
+                    renderComponent(component);
+            }
+        };
+
+        renderPassIter = new GameObject.__ComponentIterationListener() {
+            @Override
+            public void onComponent(Component component) {
+                if (component.isEnabled()) {
+                    if (renderStats != null)
+                        renderStats.__setComponent(component);
+
+                    component.render(currentRenderPass.getGameCamera());
+                }
+            }
+        };
+
+        syncRenderStateIter = new GameObject.__ComponentIterationListener() {
+            @Override
+            public void onComponent(Component component) {
+                if (component.isEnabled()) {
+                    component.syncRenderState(mainCamera);
+                    renderList.add(component);
+                }
+            }
+        };
+
+        simulationTask = new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                simulate(deltaTime);
+                return null;
             }
         };
 
         debugLineIter = new GameObject.__ComponentIterationListener() {
             @Override
             public void onComponent(Component component) {
-                if (component.isEnabled())
+                if (component.isEnabled() && !isDebugDrawingCulled(component))
                     component.drawDebugLine(shapeRenderer, mainCamera);
             }
         };
@@ -246,7 +469,7 @@ public class Scene implements ContactListener {
         debugFilledIter = new GameObject.__ComponentIterationListener() {
             @Override
             public void onComponent(Component component) {
-                if (component.isEnabled())
+                if (component.isEnabled() && !isDebugDrawingCulled(component))
                     component.drawDebugFilled(shapeRenderer, mainCamera);
             }
         };
@@ -254,7 +477,7 @@ public class Scene implements ContactListener {
         debugPointIter = new GameObject.__ComponentIterationListener() {
             @Override
             public void onComponent(Component component) {
-                if (component.isEnabled())
+                if (component.isEnabled() && !isDebugDrawingCulled(component))
                     component.drawDebugPoint(shapeRenderer, mainCamera);
             }
         };
@@ -326,6 +549,9 @@ public class Scene implements ContactListener {
         setupAnimationCanvas(mainCamera.getViewport());
 
         shapeRenderer = new ShapeRenderer();
+
+        // The assets retrieved while this scene is set up are claimed for it
+        MinGdx.instance().assets.__sceneCreated(this);
     }
 
     /**
@@ -378,6 +604,7 @@ public class Scene implements ContactListener {
 
     /**
      * Currently the physics engine simulates at a fixed time step of (1f / 60f) 60 frames per second. Use this method to change it if you have to.
+     * The transforms of the bodies are interpolated between the last two steps every frame, so a lower rate such as (1f / 30f) still moves smoothly.
      * @param physicsTimeStep the fixed time step for physics simulation.
      */
     public void setPhysicsTimeStep(float physicsTimeStep)
@@ -394,8 +621,13 @@ public class Scene implements ContactListener {
      * Sets the gravity used for physics simulation.
      * @param gravity the gravity
      */
-    public void setGravity(Vector3 gravity)
-    { physicsWorld2d.setGravity(new Vector2(gravity.x, gravity.y)); }
+    public void setGravity(Vector3 gravity) {
+        Vector2 gravity2d = new Vector2(gravity.x, gravity.y);
+        physicsWorld2d.setGravity(gravity2d);
+        for (PhysicsRegion2d region : physicsRegions2d)
+            region.getWorld().setGravity(gravity2d);
+        arcadeWorld2d.setGravity(gravity.x, gravity.y);
+    }
 
     /**
      * Debug lines can be rendered around physics bodies. This is very useful for debugging.
@@ -428,6 +660,227 @@ public class Scene implements ContactListener {
     public boolean isRenderCustomDebugLines()
     { return renderCustomDebugLines; }
 
+    /**
+     * On-demand rendering is useful for scenes that rarely change such as menus, inventories and pause screens. When enabled, continuous rendering is
+     * turned off while this scene is active and a frame is rendered only when:
+     * <ul>
+     *     <li>input arrives</li>
+     *     <li>actors of the UI canvas or the animation canvas have running actions</li>
+     *     <li>the physics world has awake bodies that can move</li>
+     *     <li>{@link #requestRendering()} is called (components can call {@link Component#requestRendering()})</li>
+     * </ul>
+     * Physics simulation (including {@link Component#fixedUpdate(float)}) is suspended while the physics world is empty or every body is asleep.
+     * <p>
+     * <strong>Note:</strong> components that animate on their own (for example, through {@link Component#update(float)}) must request rendering for every frame they need.
+     * @param onDemandRendering whether this scene should be rendered on demand
+     */
+    public void setOnDemandRendering(boolean onDemandRendering) {
+        this.onDemandRendering = onDemandRendering;
+
+        if (isActive) {
+            Gdx.graphics.setContinuousRendering(!onDemandRendering);
+            requestRendering();
+        }
+    }
+
+    /**
+     *
+     * @return whether this scene is rendered on demand
+     */
+    public boolean isOnDemandRendering()
+    { return onDemandRendering; }
+
+    /**
+     * Requests a new frame to be rendered. This is only needed when {@link #setOnDemandRendering(boolean) on-demand rendering} is enabled;
+     * it has no effect when rendering continuously.
+     */
+    public void requestRendering() {
+        if (onDemandRendering)
+            Gdx.graphics.requestRendering();
+    }
+
+    /* Checks if an actor or any of its descendants has running actions */
+    private boolean hasActions(Actor actor) {
+        if (actor.hasActions())
+            return true;
+
+        if (actor instanceof Group) {
+            for (Actor child : ((Group)actor).getChildren()) {
+                if (hasActions(child))
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
+    /* Checks if the physics world has bodies that are awake and can move */
+    private boolean hasMovingPhysicsBodies2d() {
+        if (hasMovingPhysicsBodies2d(physicsWorld2d) || arcadeWorld2d.hasMovingBodies())
+            return true;
+
+        for (PhysicsRegion2d region : physicsRegions2d) {
+            if (hasMovingPhysicsBodies2d(region.getWorld()))
+                return true;
+        }
+
+        return false;
+    }
+
+    private boolean hasMovingPhysicsBodies2d(World world) {
+        if (world.getBodyCount() == 0)
+            return false;
+
+        world.getBodies(physicsBodies2d);
+        for (Body body : physicsBodies2d) {
+            if (body.getType() != BodyDef.BodyType.StaticBody && body.isAwake() && body.isActive()) {
+                physicsBodies2d.clear();
+                return true;
+            }
+        }
+
+        physicsBodies2d.clear();
+        return false;
+    }
+
+    /**
+     * Sets the {@link DynamicResolution} used for rendering the world of this scene at a reduced resolution. The UI canvas is always rendered at
+     * the native resolution. Pass null to render the world at the native resolution.
+     * <strong>Note:</strong> the previous instance, if any, is not disposed.
+     * @param dynamicResolution the dynamic resolution or null
+     */
+    public void setDynamicResolution(DynamicResolution dynamicResolution)
+    { this.dynamicResolution = dynamicResolution; }
+
+    /**
+     *
+     * @return the {@link DynamicResolution} used for rendering the world of this scene or null if the world is rendered at the native resolution
+     */
+    public DynamicResolution getDynamicResolution()
+    { return dynamicResolution; }
+
+    /**
+     * Adds a camera pass. Camera passes render the game objects with extra cameras after the main camera, for split-screen games or minimaps.
+     * They are rendered in the order they were added, before the UI canvas.
+     * @param renderPass the camera pass
+     */
+    public void addRenderPass(CameraRenderPass renderPass) {
+        if (!renderPasses.contains(renderPass, true))
+            renderPasses.add(renderPass);
+    }
+
+    /**
+     * Removes a camera pass.
+     * @param renderPass the camera pass
+     * @return true if the camera pass was removed. false otherwise
+     */
+    public boolean removeRenderPass(CameraRenderPass renderPass)
+    { return renderPasses.removeValue(renderPass, true); }
+
+    /**
+     *
+     * @return the camera passes of this scene
+     */
+    public Array<CameraRenderPass> getRenderPasses()
+    { return renderPasses; }
+
+    /**
+     *
+     * @return the camera pass being rendered or null if the main camera is rendering
+     */
+    public CameraRenderPass getCurrentRenderPass()
+    { return currentRenderPass; }
+
+    /**
+     * Components can check this while rendering to draw less for cameras that don't need every detail (such as minimaps).
+     * @return the level of detail hint of the camera pass being rendered or {@link CameraRenderPass#LOD_FULL} if the main camera is rendering
+     */
+    public int getRenderLod()
+    { return currentRenderPass != null ? currentRenderPass.getLod() : CameraRenderPass.LOD_FULL; }
+
+    /**
+     * When the simulation is threaded, the world is rendered from the state captured at the sync point while the simulation runs.
+     * Components must render only their captured state while this returns true.
+     * @return whether the captured render state is being rendered
+     */
+    public boolean isRenderingCapturedState()
+    { return renderingCapturedState; }
+
+    /**
+     * Sets the {@link PostProcessor} used for applying post processing effects to the world of this scene. The UI canvas is not affected.
+     * The post processor is skipped entirely while none of its effects is enabled. Pass null to disable post processing.
+     * <strong>Note:</strong> the previous instance, if any, is not disposed.
+     * @param postProcessor the post processor or null
+     */
+    public void setPostProcessor(PostProcessor postProcessor)
+    { this.postProcessor = postProcessor; }
+
+    /**
+     *
+     * @return the {@link PostProcessor} used for applying post processing effects to the world of this scene or null if none
+     */
+    public PostProcessor getPostProcessor()
+    { return postProcessor; }
+
+    /**
+     * Sets the {@link RenderStats} used for collecting statistics about every rendered frame of this scene. Pass null to stop collecting statistics.
+     * <strong>Note:</strong> the previous instance, if any, is not disposed.
+     * @param renderStats the render stats or null
+     */
+    public void setRenderStats(RenderStats renderStats)
+    { this.renderStats = renderStats; }
+
+    /**
+     *
+     * @return the {@link RenderStats} used for collecting statistics about every rendered frame of this scene or null if none
+     */
+    public RenderStats getRenderStats()
+    { return renderStats; }
+
+    /**
+     * When enabled, the simulation ({@link Component#update(float)}, {@link Component#fixedUpdate(float)}, {@link Component#lateUpdate(float)}, physics and
+     * collision callbacks) runs on a dedicated thread while the GL thread renders the state of the previous tick. This is useful for CPU heavy scenes on
+     * multi-core devices.
+     * <p>
+     * Every frame has a sync point where the simulation thread is idle. There, the main camera is updated, the render state is captured by calling
+     * {@link Component#syncRenderState(GameCamera)} on every enabled component and then the next tick is started. The simulation runs while the game objects
+     * are rendered and it is waited for before the debug drawings and the UI canvas are rendered. Input listeners and the actions of the UI canvas and the
+     * animation canvas run on the GL thread while the simulation is idle.
+     * <p>
+     * <strong>Note:</strong> while enabled, {@link Component#render(GameCamera)} must only use the state captured in
+     * {@link Component#syncRenderState(GameCamera)} and simulation code must not touch the UI canvas, the animation canvas or any GL resource.
+     * {@link SpriteRenderer} already does this.
+     * @param threadedSimulation whether the simulation should run on a separate thread
+     */
+    public void setThreadedSimulation(boolean threadedSimulation) {
+        if (this.threadedSimulation == threadedSimulation)
+            return;
+
+        awaitSimulation();
+        this.threadedSimulation = threadedSimulation;
+
+        if (threadedSimulation) {
+            if (simulationExecutor == null)
+                simulationExecutor = new AsyncExecutor(1, "MinGdxSimulation");
+        }
+        else {
+            if (simulationExecutor != null) {
+                simulationExecutor.dispose();
+                simulationExecutor = null;
+            }
+
+            simulationPending = false;
+            renderList.clear();
+        }
+    }
+
+    /**
+     *
+     * @return whether the simulation runs on a separate thread
+     */
+    public boolean isThreadedSimulation()
+    { return threadedSimulation; }
+
     /**
      * By default, the ui canvas (an instance of {@link Stage}) is setup with an {@link com.badlogic.gdx.utils.viewport.StretchViewport}.
      * Use this method to change the viewport to your desired viewport.
@@ -478,117 +931,384 @@ public class Scene implements ContactListener {
      * @param body the body to destroy
      */
     public void destroyPhysicsBody2d(Body body) {
-        if (body != null && !garbagePhysicsBodies2d.contains(body, true))
+        if (body != null && garbagePhysicsBodySet2d.add(body))
             garbagePhysicsBodies2d.add(body);
     }
 
+    /**
+     * Sets the maximum number of deactivated bodies kept for reuse per collider configuration. Bodies released when the pool is full are destroyed.
+     * Defaults to 32. See {@link Physics2d#setPooled(boolean)}
+     * @param physicsBodyPoolCapacity2d the maximum number of pooled bodies per configuration
+     */
+    public void setPhysicsBodyPoolCapacity2d(int physicsBodyPoolCapacity2d)
+    { this.physicsBodyPoolCapacity2d = physicsBodyPoolCapacity2d; }
+
     /**
      *
-     * @return the physics world ({@link World}) for 2d physics simulation.
+     * @return the maximum number of deactivated bodies kept for reuse per collider configuration
      */
-    public World getPhysicsWorld2d()
-    { return physicsWorld2d; }
+    public int getPhysicsBodyPoolCapacity2d()
+    { return physicsBodyPoolCapacity2d; }
 
     /**
-     * Sets the velocity iterations for physics simulation. Highly values produces more realistic simulations but higher values also eat up processing power.
-     * Defaults to 8. Change it only when necessary.
-     * @param velocityIterations the velocity iterations for physics simulation.
+     * Destroys every pooled body. Bodies are destroyed at the end of the frame.
      */
-    public void setVelocityIterations(int velocityIterations)
-    { this.velocityIterations = velocityIterations; }
+    public void clearPhysicsBodyPool2d() {
+        for (Array<Body> bodies : physicsBodyPool2d.values()) {
+            for (Body body : bodies)
+                destroyPhysicsBody2d(body);
+        }
+
+        physicsBodyPool2d.clear();
+    }
 
     /**
-     *
-     * @return the velocity iterations for physics simulation.
+     * Takes a pooled body for a collider configuration. The body is still deactivated.
+     * This method is called internally by the system. Do not call it directly!
+     * @param key the collider configuration
+     * @return a pooled body or null if there is none
      */
-    public int getVelocityIterations()
-    { return velocityIterations; }
+    public Body __obtainPooledPhysicsBody2d(String key) {
+        Array<Body> bodies = physicsBodyPool2d.get(key);
+        if (bodies == null || bodies.isEmpty())
+            return null;
+
+        return bodies.pop();
+    }
 
     /**
-     * Sets the position iterations for physics simulation. Highly values produces more realistic simulations but higher values also eat up processing power.
-     * Defaults to 3. Change it only when necessary.
-     * @param positionIterations the position iterations for physics simulation.
+     * Records a fixture that is about to be destroyed. Queued contact events of the fixture that are not dispatched yet are skipped since
+     * Box2D frees the fixture.
+     * This method is called internally by the system. Do not call it directly!
+     * @param fixture the fixture
      */
-    public void setPositionIterations(int positionIterations)
-    { this.positionIterations = positionIterations; }
+    public void __fixtureDestroyed2d(Fixture fixture) {
+        if (dispatchingContactEvents2d)
+            destroyedFixtures2d.add(fixture);
+    }
 
     /**
-     *
-     * @return the position iterations for physics simulation.
+     * Releases a body into the pool of its collider configuration. The body is deactivated and pooled at the end of the frame.
+     * This method is called internally by the system. Do not call it directly!
+     * @param key the collider configuration
+     * @param body the body
      */
-    public int getPositionIterations()
-    { return positionIterations; }
+    public void __releasePhysicsBody2d(String key, Body body) {
+        if (body == null || garbagePhysicsBodySet2d.contains(body))
+            return;
+
+        // Contacts of the body must not reach the game object that released it
+        body.setUserData(null);
+        releasedPhysicsBodies2d.add(body);
+        releasedPhysicsBodyKeys2d.add(key);
+    }
 
     /**
-     * Use this to determine if physics should be simulated or not. Useful for games that don't need physics.
-     * @param simulatePhysics whether physics should be simulated or not.
+     * Whether the contacts that begin and end during a physics step should be queued and dispatched after the step. It is enabled by default.
+     * Queued events are cheaper (the physics callbacks only record them) and their handlers can safely create and destroy bodies.
+     * Duplicate events of the same pair of fixtures within a step are coalesced.
+     * <strong>Note:</strong> the {@link Collision2d#contact} of a queued event is null because Box2D reuses its contacts once the step completes.
+     * Disable queuing if the handlers need the contact.
+     * @param queueContactEvents2d whether contact events should be queued
      */
-    public void setSimulatePhysics(boolean simulatePhysics)
-    { this.simulatePhysics = simulatePhysics; }
+    public void setQueueContactEvents2d(boolean queueContactEvents2d)
+    { this.queueContactEvents2d = queueContactEvents2d; }
 
     /**
      *
-     * @return whether physics is simulated or not.
+     * @return whether the contacts that begin and end during a physics step are dispatched after the step
      */
-    public boolean isSimulatePhysics()
-    { return simulatePhysics; }
+    public boolean isQueueContactEvents2d()
+    { return queueContactEvents2d; }
 
     /**
      *
-     * @return the input manager for this scene
+     * @return the physics world ({@link World}) for 2d physics simulation.
      */
-    public InputManager getInputManager()
-    { return inputManager; }
+    public World getPhysicsWorld2d()
+    { return physicsWorld2d; }
 
     /**
-     * Changes the main camera used for projecting this scene.
-     * @param mainCamera the main camera used for projecting this scene.
+     * The collision matrix holds the named collision layers of this scene and which pairs of them interact. Colliders that reference a layer
+     * (see {@link com.isoterik.mgdx.m2d.components.physics.Collider#setCollisionLayer(String)}) get their category and mask bits from it, so pairs
+     * of layers that never interact are rejected by the broadphase of Box2D.
+     * @return the collision matrix for 2d physics simulation
      */
-    public void setMainCamera(GameCamera mainCamera)
-    { this.mainCamera = mainCamera; }
+    public CollisionMatrix2d getCollisionMatrix2d()
+    { return collisionMatrix2d; }
 
     /**
      *
-     * @return the main camera used for projecting this scene.
+     * @return the object that runs the physics queries of this scene
      */
-    public GameCamera getMainCamera()
-    { return mainCamera; }
+    public PhysicsQuery2d getPhysicsQuery2d()
+    { return physicsQuery2d; }
 
     /**
-     * Finds a layer given a name.
-     * @param name the name of the layer to find.
-     * @return the layer if found or null if not found
+     * The arcade world is a lightweight alternative to Box2D. Game objects take part in it by attaching an {@link ArcadeBody2d}.
+     * It is stepped with the fixed time step of this scene, right after the Box2D world.
+     * @return the arcade physics world of this scene
      */
-    public Layer findLayer(String name) {
-        for (Layer layer : layers) {
-            if (layer.getName().equals(name))
-                return layer;
-        }
+    public ArcadeWorld2d getArcadeWorld2d()
+    { return arcadeWorld2d; }
 
-        return null;
+    /**
+     * Adds a physics region to this scene. A region is an extra physics world; bodies in different regions never interact, so the regions are stepped in
+     * parallel (on a pool of worker threads) with the main physics world. Use regions for independent areas of large maps such as separate arenas or rooms.
+     * <p>
+     * A {@link Physics2d} is placed in a region explicitly with {@link Physics2d#setPhysicsRegion(int)} or through the layer of its game object
+     * (see {@link #setPhysicsRegion2d(Layer, int)}). Bodies can migrate between regions by changing their region.
+     * <p>
+     * <strong>Note:</strong> the contacts of a region are always dispatched after the step, so the {@link Collision2d#contact} of their collisions is null.
+     * The physics queries of this scene ({@link #getPhysicsQuery2d()}) only cover the main physics world.
+     * @return the id of the new region
+     */
+    public int addPhysicsRegion2d() {
+        int id = physicsRegions2d.size + 1;
+        physicsRegions2d.add(new PhysicsRegion2d(id, physicsWorld2d.getGravity(), this));
+
+        // The workers are created when the regions are first stepped
+        return id;
     }
 
     /**
      *
-     * @return the default layer for this scene.
+     * @return the number of physics regions of this scene including the main physics world
      */
-    public Layer getDefaultLayer()
-    { return defaultLayer; }
+    public int getPhysicsRegionCount2d()
+    { return physicsRegions2d.size + 1; }
 
     /**
-     * Checks if a given layer is one of the layers of this scene.
-     * @param layer the layer to check
-     * @return true if the layer exists. false otherwise
+     *
+     * @param region the id of a physics region
+     * @return the physics world of the region. The id 0 returns the main physics world
+     * @throws IllegalArgumentException if there is no such region
      */
-    public boolean hasLayer(Layer layer)
-    { return layers.contains(layer, true); }
+    public World getPhysicsWorld2d(int region) throws IllegalArgumentException {
+        if (region == 0)
+            return physicsWorld2d;
+
+        if (region < 0 || region > physicsRegions2d.size)
+            throw new IllegalArgumentException("There is no physics region with the id " + region);
+
+        return physicsRegions2d.get(region - 1).getWorld();
+    }
 
     /**
-     * Checks if a layer with a given name is one of the layers of this scene.
-     * @param layerName the name of the layer.
-     * @return true if the layer exists. false otherwise.
+     * Places the bodies of the game objects of a layer in a physics region. This applies to bodies created afterwards; bodies that already exist are
+     * moved with {@link Physics2d#setPhysicsRegion(int)}. An explicit region set on a {@link Physics2d} wins against the region of its layer.
+     * @param layer the layer
+     * @param region the id of the region. 0 for the main physics world
      */
-    public boolean hasLayer(String layerName) {
+    public void setPhysicsRegion2d(Layer layer, int region)
+    { layerPhysicsRegions2d.put(layer, region); }
+
+    /**
+     *
+     * @param layer a layer
+     * @return the id of the physics region of the layer. 0 if the layer uses the main physics world
+     */
+    public int getPhysicsRegion2d(Layer layer)
+    { return layerPhysicsRegions2d.get(layer, 0); }
+
+    /**
+     * Finds the physics world a {@link Physics2d} component should create its body in.
+     * This method is called internally by the system. Do not call it directly!
+     * @param physics2d the component
+     * @return the physics world
+     */
+    public World __resolvePhysicsWorld2d(Physics2d physics2d)
+    { return getPhysicsWorld2d(__resolvePhysicsRegion2d(physics2d)); }
+
+    /**
+     * Finds the id of the physics region a {@link Physics2d} component should create its body in.
+     * This method is called internally by the system. Do not call it directly!
+     * @param physics2d the component
+     * @return the id of the region. 0 for the main physics world
+     */
+    public int __resolvePhysicsRegion2d(Physics2d physics2d) {
+        int region = physics2d.getPhysicsRegion();
+        if (region < 0) {
+            Layer layer = physics2d.getGameObject() == null ? null : physics2d.getGameObject().getLayer();
+            region = layer == null ? 0 : layerPhysicsRegions2d.get(layer, 0);
+        }
+
+        return region;
+    }
+
+    /**
+     * Casts a ray and finds the closest fixture it hits. This does not allocate.
+     * See {@link PhysicsQuery2d#raycastFirst(float, float, float, float, int, RaycastHit2d)}
+     * @param x1 the x coordinate of the start of the ray
+     * @param y1 the y coordinate of the start of the ray
+     * @param x2 the x coordinate of the end of the ray
+     * @param y2 the y coordinate of the end of the ray
+     * @param layerMask the categories of fixtures that can be hit. Use {@link PhysicsQuery2d#ALL_LAYERS} to hit every fixture
+     * @param hit receives the closest hit. It is left untouched if nothing is hit
+     * @return true if the ray hit a fixture. false otherwise
+     */
+    public boolean raycastFirst(float x1, float y1, float x2, float y2, int layerMask, RaycastHit2d hit)
+    { return physicsQuery2d.raycastFirst(x1, y1, x2, y2, layerMask, hit); }
+
+    /**
+     * Casts a ray and finds every fixture it hits, sorted from the closest to the farthest. The hits are pooled; give them back with
+     * {@link #freeRaycastHits2d(Array)}. See {@link PhysicsQuery2d#raycastAll(float, float, float, float, int, Array)}
+     * @param x1 the x coordinate of the start of the ray
+     * @param y1 the y coordinate of the start of the ray
+     * @param x2 the x coordinate of the end of the ray
+     * @param y2 the y coordinate of the end of the ray
+     * @param layerMask the categories of fixtures that can be hit
+     * @param hits the array that receives the hits
+     * @return the number of hits added
+     */
+    public int raycastAll(float x1, float y1, float x2, float y2, int layerMask, Array<RaycastHit2d> hits)
+    { return physicsQuery2d.raycastAll(x1, y1, x2, y2, layerMask, hits); }
+
+    /**
+     * Casts many rays (packed as {@code x1, y1, x2, y2}) in one call and finds the closest fixture each of them hits. The hits are pooled; give them back with
+     * {@link #freeRaycastHits2d(Array)}. See {@link PhysicsQuery2d#raycastBatch(float[], int, int, Array)}
+     * @param rays the rays
+     * @param rayCount the number of rays
+     * @param layerMask the categories of fixtures that can be hit
+     * @param hits the array that receives the hits
+     * @return the number of rays that hit a fixture
+     */
+    public int raycastBatch(float[] rays, int rayCount, int layerMask, Array<RaycastHit2d> hits)
+    { return physicsQuery2d.raycastBatch(rays, rayCount, layerMask, hits); }
+
+    /**
+     * Finds the game objects with a fixture that overlaps an axis aligned box. This does not allocate.
+     * @param centerX the x coordinate of the center of the box
+     * @param centerY the y coordinate of the center of the box
+     * @param width the width of the box
+     * @param height the height of the box
+     * @param layerMask the categories of fixtures that can be found
+     * @param gameObjects the array that receives the game objects
+     * @return the number of game objects added
+     */
+    public int overlapBox(float centerX, float centerY, float width, float height, int layerMask, Array<GameObject> gameObjects)
+    { return physicsQuery2d.overlapBox(centerX, centerY, width, height, layerMask, gameObjects); }
+
+    /**
+     * Finds the game objects with a fixture that overlaps a circle. This does not allocate.
+     * @param x the x coordinate of the center of the circle
+     * @param y the y coordinate of the center of the circle
+     * @param radius the radius of the circle
+     * @param layerMask the categories of fixtures that can be found
+     * @param gameObjects the array that receives the game objects
+     * @return the number of game objects added
+     */
+    public int overlapCircle(float x, float y, float radius, int layerMask, Array<GameObject> gameObjects)
+    { return physicsQuery2d.overlapCircle(x, y, radius, layerMask, gameObjects); }
+
+    /**
+     * Gives the hits of {@link #raycastAll(float, float, float, float, int, Array)} and {@link #raycastBatch(float[], int, int, Array)}
+     * back to the pool and clears the array.
+     * @param hits the hits
+     */
+    public void freeRaycastHits2d(Array<RaycastHit2d> hits)
+    { physicsQuery2d.freeHits(hits); }
+
+    /**
+     * Sets the velocity iterations for physics simulation. Highly values produces more realistic simulations but higher values also eat up processing power.
+     * Defaults to 8. Change it only when necessary.
+     * @param velocityIterations the velocity iterations for physics simulation.
+     */
+    public void setVelocityIterations(int velocityIterations)
+    { this.velocityIterations = velocityIterations; }
+
+    /**
+     *
+     * @return the velocity iterations for physics simulation.
+     */
+    public int getVelocityIterations()
+    { return velocityIterations; }
+
+    /**
+     * Sets the position iterations for physics simulation. Highly values produces more realistic simulations but higher values also eat up processing power.
+     * Defaults to 3. Change it only when necessary.
+     * @param positionIterations the position iterations for physics simulation.
+     */
+    public void setPositionIterations(int positionIterations)
+    { this.positionIterations = positionIterations; }
+
+    /**
+     *
+     * @return the position iterations for physics simulation.
+     */
+    public int getPositionIterations()
+    { return positionIterations; }
+
+    /**
+     * Use this to determine if physics should be simulated or not. Useful for games that don't need physics.
+     * @param simulatePhysics whether physics should be simulated or not.
+     */
+    public void setSimulatePhysics(boolean simulatePhysics)
+    { this.simulatePhysics = simulatePhysics; }
+
+    /**
+     *
+     * @return whether physics is simulated or not.
+     */
+    public boolean isSimulatePhysics()
+    { return simulatePhysics; }
+
+    /**
+     *
+     * @return the input manager for this scene
+     */
+    public InputManager getInputManager()
+    { return inputManager; }
+
+    /**
+     * Changes the main camera used for projecting this scene.
+     * @param mainCamera the main camera used for projecting this scene.
+     */
+    public void setMainCamera(GameCamera mainCamera)
+    { this.mainCamera = mainCamera; }
+
+    /**
+     *
+     * @return the main camera used for projecting this scene.
+     */
+    public GameCamera getMainCamera()
+    { return mainCamera; }
+
+    /**
+     * Finds a layer given a name.
+     * @param name the name of the layer to find.
+     * @return the layer if found or null if not found
+     */
+    public Layer findLayer(String name) {
+        for (Layer layer : layers) {
+            if (layer.getName().equals(name))
+                return layer;
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @return the default layer for this scene.
+     */
+    public Layer getDefaultLayer()
+    { return defaultLayer; }
+
+    /**
+     * Checks if a given layer is one of the layers of this scene.
+     * @param layer the layer to check
+     * @return true if the layer exists. false otherwise
+     */
+    public boolean hasLayer(Layer layer)
+    { return layers.contains(layer, true); }
+
+    /**
+     * Checks if a layer with a given name is one of the layers of this scene.
+     * @param layerName the name of the layer.
+     * @return true if the layer exists. false otherwise.
+     */
+    public boolean hasLayer(String layerName) {
         for (Layer layer : layers) {
             if (layer.getName().equals(layerName))
                 return true;
@@ -651,10 +1371,10 @@ public class Scene implements ContactListener {
 
         // If this game object is an ActorGameObject, add it to the animation canvas
         if (gameObject instanceof ActorGameObject)
-            animationCanvas.addActor(((ActorGameObject)gameObject).actorTransform.actor);
+            addToAnimationCanvas(((ActorGameObject)gameObject).actorTransform);
 
-        gameObject.__setHostScene(this);
         layer.addGameObject(gameObject);
+        gameObject.__setHostScene(this);
 
         gameObject.__forEachComponent(startIter);
     }
@@ -672,10 +1392,10 @@ public class Scene implements ContactListener {
 
         // If this game object is an ActorGameObject, add it to the animation canvas
         if (gameObject instanceof ActorGameObject)
-            animationCanvas.addActor(((ActorGameObject)gameObject).actorTransform.actor);
+            addToAnimationCanvas(((ActorGameObject)gameObject).actorTransform);
 
-        gameObject.__setHostScene(this);
         layer.addGameObject(gameObject);
+        gameObject.__setHostScene(this);
 
         gameObject.__forEachComponent(startIter);
     }
@@ -687,10 +1407,10 @@ public class Scene implements ContactListener {
     public void addGameObject(GameObject gameObject) {
         // If this game object is an ActorGameObject, add it to the animation canvas
         if (gameObject instanceof ActorGameObject)
-            animationCanvas.addActor(((ActorGameObject)gameObject).actorTransform.actor);
+            addToAnimationCanvas(((ActorGameObject)gameObject).actorTransform);
 
-        gameObject.__setHostScene(this);
         defaultLayer.addGameObject(gameObject);
+        gameObject.__setHostScene(this);
 
         gameObject.__forEachComponent(startIter);
     }
@@ -707,7 +1427,7 @@ public class Scene implements ContactListener {
 
         // If this game object is an ActorGameObject, remove it to the animation canvas
         if (gameObject instanceof ActorGameObject)
-            ((ActorGameObject)gameObject).actorTransform.actor.remove();
+            removeFromAnimationCanvas(((ActorGameObject)gameObject).actorTransform);
 
         gameObject.__removeFromScene();
         gameObject.__setHostScene(null);
@@ -727,7 +1447,7 @@ public class Scene implements ContactListener {
 
         // If this game object is an ActorGameObject, remove it to the animation canvas
         if (gameObject instanceof ActorGameObject)
-            ((ActorGameObject)gameObject).actorTransform.actor.remove();
+            removeFromAnimationCanvas(((ActorGameObject)gameObject).actorTransform);
 
         gameObject.__removeFromScene();
         gameObject.__setHostScene(null);
@@ -742,7 +1462,7 @@ public class Scene implements ContactListener {
     public boolean removeGameObject(GameObject gameObject) {
         // If this game object is an ActorGameObject, remove it to the animation canvas
         if (gameObject instanceof ActorGameObject)
-            ((ActorGameObject)gameObject).actorTransform.actor.remove();
+            removeFromAnimationCanvas(((ActorGameObject)gameObject).actorTransform);
 
         gameObject.__removeFromScene();
         gameObject.__setHostScene(null);
@@ -763,6 +1483,152 @@ public class Scene implements ContactListener {
         return gameObjects;
     }
 
+    /**
+     * Registers the components of a game object that was just added to this scene.
+     * <strong>DO NOT CALL THIS METHOD!</strong>
+     * @param gameObject the game object
+     */
+    public void __registerComponents(GameObject gameObject) {
+        for (Component component : gameObject.getComponents())
+            __registerComponent(component);
+    }
+
+    /**
+     * Unregisters the components of a game object that was just removed from this scene.
+     * <strong>DO NOT CALL THIS METHOD!</strong>
+     * @param gameObject the game object
+     */
+    public void __unregisterComponents(GameObject gameObject) {
+        for (Component component : gameObject.getComponents())
+            __unregisterComponent(component);
+    }
+
+    /**
+     * Registers a component that was added to a game object of this scene.
+     * Components are registered so the scene can process some of them without walking every game object.
+     * <strong>DO NOT CALL THIS METHOD!</strong>
+     * @param component the component
+     */
+    public void __registerComponent(Component component) {
+        if (component instanceof Physics2d) {
+            registerPhysicsComponent2d((Physics2d)component);
+            return;
+        }
+
+        if (component instanceof ArcadeBody2d) {
+            ((ArcadeBody2d)component).__addToWorld(arcadeWorld2d);
+            return;
+        }
+
+        int flags = getDebugDrawingFlags(component.getClass());
+        if (component instanceof DebugRendererBase && flags == 0) {
+            if (!debugRenderers.contains((DebugRendererBase)component, true))
+                debugRenderers.add((DebugRendererBase)component);
+            return;
+        }
+
+        if ((flags & DEBUG_LINE) != 0 && !debugLineComponents.contains(component, true))
+            debugLineComponents.add(component);
+        if ((flags & DEBUG_FILLED) != 0 && !debugFilledComponents.contains(component, true))
+            debugFilledComponents.add(component);
+        if ((flags & DEBUG_POINT) != 0 && !debugPointComponents.contains(component, true))
+            debugPointComponents.add(component);
+    }
+
+    /**
+     * Unregisters a component that was removed from a game object of this scene.
+     * <strong>DO NOT CALL THIS METHOD!</strong>
+     * @param component the component
+     */
+    public void __unregisterComponent(Component component) {
+        if (component instanceof Physics2d) {
+            unregisterPhysicsComponent2d((Physics2d)component);
+            return;
+        }
+
+        if (component instanceof ArcadeBody2d) {
+            ((ArcadeBody2d)component).__removeFromWorld();
+            return;
+        }
+
+        int flags = getDebugDrawingFlags(component.getClass());
+        if (component instanceof DebugRendererBase && flags == 0) {
+            debugRenderers.removeValue((DebugRendererBase)component, true);
+            return;
+        }
+
+        if ((flags & DEBUG_LINE) != 0)
+            debugLineComponents.removeValue(component, true);
+        if ((flags & DEBUG_FILLED) != 0)
+            debugFilledComponents.removeValue(component, true);
+        if ((flags & DEBUG_POINT) != 0)
+            debugPointComponents.removeValue(component, true);
+    }
+
+    private void registerPhysicsComponent2d(Physics2d physics2d) {
+        if (physics2d.__getStateIndex() >= 0)
+            return;
+
+        int index = physicsComponents2d.size;
+        physicsComponents2d.add(physics2d);
+        physics2d.__setStateIndex(index);
+
+        if ((index + 1) * PHYSICS_STATE_STRIDE > physicsStates2d.length) {
+            float[] states = new float[physicsStates2d.length * 2];
+            System.arraycopy(physicsStates2d, 0, states, 0, physicsStates2d.length);
+            physicsStates2d = states;
+        }
+
+        // The first state is read after the next step; until then there is nothing to interpolate from
+        physicsStates2d[index * PHYSICS_STATE_STRIDE + 6] = STATE_UNINITIALIZED;
+    }
+
+    private void unregisterPhysicsComponent2d(Physics2d physics2d) {
+        int index = physics2d.__getStateIndex();
+        if (index < 0 || index >= physicsComponents2d.size || physicsComponents2d.get(index) != physics2d)
+            return;
+
+        // The last component takes the place of the removed one; move its state along
+        int last = physicsComponents2d.size - 1;
+        physicsComponents2d.removeIndex(index);
+        if (index != last) {
+            System.arraycopy(physicsStates2d, last * PHYSICS_STATE_STRIDE, physicsStates2d, index * PHYSICS_STATE_STRIDE, PHYSICS_STATE_STRIDE);
+            physicsComponents2d.get(index).__setStateIndex(index);
+        }
+
+        physics2d.__setStateIndex(-1);
+    }
+
+    /*
+    Determines which debug drawing methods are overridden by a component class.
+    Debug renderers are compared against DebugRendererBase; those that override any of the methods are drawn through all three of them (the
+    implementations of DebugRendererBase only draw for their shape type) instead of being bucketed by shape type.
+     */
+    private static int getDebugDrawingFlags(Class<?> componentClass) {
+        int flags = debugDrawingFlags.get(componentClass, -1);
+        if (flags != -1)
+            return flags;
+
+        Class<?> baseType = DebugRendererBase.class.isAssignableFrom(componentClass) ? DebugRendererBase.class : Component.class;
+
+        flags = 0;
+        if (ReflectionUtils.isMethodOverridden(componentClass, baseType, "drawDebugLine",
+                ShapeRenderer.class, GameCamera.class))
+            flags |= DEBUG_LINE;
+        if (ReflectionUtils.isMethodOverridden(componentClass, baseType, "drawDebugFilled",
+                ShapeRenderer.class, GameCamera.class))
+            flags |= DEBUG_FILLED;
+        if (ReflectionUtils.isMethodOverridden(componentClass, baseType, "drawDebugPoint",
+                ShapeRenderer.class, GameCamera.class))
+            flags |= DEBUG_POINT;
+
+        if (baseType == DebugRendererBase.class && flags != 0)
+            flags = DEBUG_LINE | DEBUG_FILLED | DEBUG_POINT;
+
+        debugDrawingFlags.put(componentClass, flags);
+        return flags;
+    }
+
     /**
      * Sets the background color of this scene if it uses a {@link GameCamera2d}
      * @param color the background color
@@ -772,7 +1638,10 @@ public class Scene implements ContactListener {
             ((GameCamera2d)mainCamera).setBackgroundColor(color);
     }
 
-    /* Steps the physics world */
+    /*
+    Steps the physics world with a fixed time step. The states of the bodies before and after each step are kept so the transforms can be interpolated
+    between the last two steps with the time left in the accumulator. This keeps the motion smooth even when the physics runs slower than the game.
+     */
     private void stepPhysicsWorld2d() {
         double newTime = TimeUtils.millis() / 1000.0;
         double frameTime = Math.min(newTime - currentTime, 0.25);
@@ -780,40 +1649,181 @@ public class Scene implements ContactListener {
         currentTime = newTime;
         accumulator += frameTime;
 
-        // Step once
-        physicsWorld2d.step(physicsTimeStep, velocityIterations, positionIterations);
+        Array<GameObject> gameObjects = null;
+        while (accumulator >= physicsTimeStep) {
+            storePreviousPhysicsStates();
 
-        // Update components
-        Array<GameObject> gameObjects = getGameObjects();
-        for (GameObject go : gameObjects) {
-            go.__forEachComponent(fixedUpdateIter);
-        }
+            steppingPhysics2d = true;
+            try {
+                submitPhysicsRegions2d();
+                physicsWorld2d.step(physicsTimeStep, velocityIterations, positionIterations);
+            } finally {
+                awaitPhysicsRegions2d();
+            }
+
+            try {
+                replayPhysicsRegionContacts2d();
+            } finally {
+                steppingPhysics2d = false;
+            }
 
-        // Interpolate the physics bodies to avoid temporal aliasing
-        while(accumulator >= physicsTimeStep) {
-            physicsWorld2d.step(physicsTimeStep, velocityIterations, positionIterations);
             accumulator -= physicsTimeStep;
+            storeCurrentPhysicsStates();
+            dispatchContactEvents2d();
+            arcadeWorld2d.step(physicsTimeStep);
+
+            if (gameObjects == null)
+                gameObjects = getGameObjects();
 
             for (GameObject go : gameObjects) {
                 go.__forEachComponent(fixedUpdateIter);
             }
+        }
+
+        interpolatePhysicsStates((float)(accumulator / physicsTimeStep));
+    }
+
+    /* Starts stepping the physics regions on the worker threads */
+    private void submitPhysicsRegions2d() {
+        if (physicsRegions2d.size == 0)
+            return;
+
+        ensurePhysicsRegionWorkers2d();
 
-            interpolateTransforms(gameObjects, (float)accumulator/physicsTimeStep);
+        for (PhysicsRegion2d region : physicsRegions2d) {
+            physicsRegionResults2d.add(physicsRegionExecutor2d.submit(
+                    region.__prepareStep(physicsTimeStep, velocityIterations, positionIterations)));
         }
     }
 
-    private void updateComponents(Array<GameObject> gameObjects, final float deltaTime) {
-        this.deltaTime = deltaTime;
-        for (GameObject go : gameObjects) {
-            go.__forEachComponent(updateIter);
+    /*
+    Creates the workers of the physics regions: one per region, but a core is left for the main world. The workers are only replaced when regions
+    were added and more cores can be used; the previous step has completed by then, so no worker is running
+     */
+    private void ensurePhysicsRegionWorkers2d() {
+        int workers = Math.max(1, Math.min(physicsRegions2d.size, Runtime.getRuntime().availableProcessors() - 1));
+        if (physicsRegionExecutor2d != null && workers <= physicsRegionWorkers2d)
+            return;
+
+        if (physicsRegionExecutor2d != null)
+            physicsRegionExecutor2d.dispose();
+
+        physicsRegionExecutor2d = new AsyncExecutor(workers, "MinGdxPhysicsRegion");
+        physicsRegionWorkers2d = workers;
+    }
+
+    /* Waits for every physics region to finish stepping */
+    private void awaitPhysicsRegions2d() {
+        try {
+            for (AsyncResult<Void> result : physicsRegionResults2d)
+                result.get();
+        } finally {
+            physicsRegionResults2d.clear();
+        }
+    }
+
+    /* Merges the contacts recorded by the physics regions into the contact events of this step */
+    private void replayPhysicsRegionContacts2d() {
+        for (PhysicsRegion2d region : physicsRegions2d) {
+            for (int i = 0, n = region.__getContactCount(); i < n; i++)
+                onContact(null, region.__getContactFixtureA(i), region.__getContactFixtureB(i), region.__isContactBegin(i));
+
+            region.__clearContacts();
+        }
+    }
+
+    private void storePreviousPhysicsStates() {
+        float[] states = physicsStates2d;
+        for (int i = 0, n = physicsComponents2d.size; i < n; i++) {
+            int offset = i * PHYSICS_STATE_STRIDE;
+            if (states[offset + 6] == STATE_UNINITIALIZED)
+                continue;
+
+            states[offset]     = states[offset + 3];
+            states[offset + 1] = states[offset + 4];
+            states[offset + 2] = states[offset + 5];
+        }
+    }
+
+    /*
+    The physics sync stage. Reads the states of the bodies that can move after a step and moves their game objects so fixedUpdate() sees the new state.
+    Static and sleeping bodies are skipped and so are bodies that did not move during the step.
+     */
+    private void storeCurrentPhysicsStates() {
+        float[] states = physicsStates2d;
+        for (int i = 0, n = physicsComponents2d.size; i < n; i++) {
+            // The cached body type skips static bodies without native calls
+            Physics2d physics2d = physicsComponents2d.get(i);
+            if (physics2d.getBodyType() == BodyDef.BodyType.StaticBody)
+                continue;
+
+            Body body = physics2d.getBody();
+            if (body == null)
+                continue;
+
+            int offset = i * PHYSICS_STATE_STRIDE;
+            boolean uninitialized = states[offset + 6] == STATE_UNINITIALIZED;
+            if (!uninitialized && !body.isAwake())
+                continue;
+
+            Vector2 position = body.getPosition();
+            float angle = body.getAngle();
+
+            if (uninitialized) {
+                states[offset]     = position.x;
+                states[offset + 1] = position.y;
+                states[offset + 2] = angle;
+                states[offset + 6] = STATE_INTERPOLATING;
+            }
+            else if (states[offset] == position.x && states[offset + 1] == position.y && states[offset + 2] == angle)
+                continue;
+
+            states[offset + 3] = position.x;
+            states[offset + 4] = position.y;
+            states[offset + 5] = angle;
+            physics2d.__setRenderState(position.x, position.y, angle);
         }
     }
 
-    private void interpolateTransforms(Array<GameObject> gameObjects, float alpha) {
+    /*
+    Blends the previous and current states of the awake bodies into their transforms. A body that fell asleep gets its final state once and is then skipped.
+     */
+    private void interpolatePhysicsStates(float alpha) {
+        float[] states = physicsStates2d;
+        float inverseAlpha = 1f - alpha;
+
+        for (int i = 0, n = physicsComponents2d.size; i < n; i++) {
+            int offset = i * PHYSICS_STATE_STRIDE;
+            float flag = states[offset + 6];
+            if (flag == STATE_UNINITIALIZED)
+                continue;
+
+            Physics2d physics2d = physicsComponents2d.get(i);
+            Body body = physics2d.getBody();
+            if (body == null || !body.isActive())
+                continue;
+
+            if (!body.isAwake()) {
+                if (flag == STATE_SETTLED)
+                    continue;
+
+                physics2d.__setRenderState(states[offset + 3], states[offset + 4], states[offset + 5]);
+                states[offset + 6] = STATE_SETTLED;
+                continue;
+            }
+
+            states[offset + 6] = STATE_INTERPOLATING;
+            physics2d.__setRenderState(
+                    states[offset + 3] * alpha + states[offset] * inverseAlpha,
+                    states[offset + 4] * alpha + states[offset + 1] * inverseAlpha,
+                    states[offset + 5] * alpha + states[offset + 2] * inverseAlpha);
+        }
+    }
+
+    private void updateComponents(Array<GameObject> gameObjects, final float deltaTime) {
+        this.deltaTime = deltaTime;
         for (GameObject go : gameObjects) {
-            Physics2d physics2d = go.getComponent(Physics2d.class);
-            if (physics2d != null)
-                physics2d.__interpolate(alpha);
+            go.__forEachComponent(updateIter);
         }
     }
 
@@ -845,6 +1855,11 @@ public class Scene implements ContactListener {
     public void __resume() {
         isActive = true;
 
+        if (onDemandRendering) {
+            Gdx.graphics.setContinuousRendering(false);
+            Gdx.graphics.requestRendering();
+        }
+
         Array<GameObject> gameObjects = getGameObjects();
 
         for (GameObject go : gameObjects) {
@@ -859,6 +1874,9 @@ public class Scene implements ContactListener {
     public void __pause() {
         isActive = false;
 
+        if (onDemandRendering)
+            Gdx.graphics.setContinuousRendering(true);
+
         Array<GameObject> gameObjects = getGameObjects();
 
         for (GameObject go : gameObjects) {
@@ -876,11 +1894,82 @@ public class Scene implements ContactListener {
 
         inputManager.__update();
 
+        // The threaded simulation is started when this scene is rendered
+        if (threadedSimulation)
+            simulationPending = true;
+        else
+            simulate(deltaTime);
+
+        actAnimatingActors(deltaTime);
+        canvas.act(deltaTime);
+
+        // Keep rendering while something is still changing
+        if (onDemandRendering && (physicsActive || Gdx.input.isTouched() ||
+                hasActions(canvas.getRoot()) || animatingActors.size > 0))
+            Gdx.graphics.requestRendering();
+    }
+
+    /* Acts the actors that have actions. Actors whose actions completed are marked idle and are no longer acted */
+    private void actAnimatingActors(float deltaTime) {
+        // Actions may add actions to other actors, so the size is checked on every iteration
+        int i = 0;
+        while (i < animatingActors.size) {
+            ActorTransform actorTransform = animatingActors.get(i);
+            actorTransform.actor.act(deltaTime);
+
+            if (actorTransform.actor.hasActions()) {
+                i++;
+                continue;
+            }
+
+            animatingActors.removeIndex(i);
+            actorTransform.__setAnimating(false);
+        }
+    }
+
+    /* Adds the actor of an actor transform to the animation canvas and acts it if it already has actions */
+    private void addToAnimationCanvas(ActorTransform actorTransform) {
+        animationCanvas.addActor(actorTransform.actor);
+
+        if (actorTransform.actor.hasActions())
+            __startAnimating(actorTransform);
+    }
+
+    private void removeFromAnimationCanvas(ActorTransform actorTransform) {
+        actorTransform.actor.remove();
+
+        if (animatingActors.removeValue(actorTransform, true))
+            actorTransform.__setAnimating(false);
+    }
+
+    /**
+     * Starts acting the actor of an actor transform until its actions complete.
+     * This method is called internally by the system. Do not call it directly!
+     * @param actorTransform the actor transform
+     */
+    public void __startAnimating(ActorTransform actorTransform) {
+        if (actorTransform.isAnimating())
+            return;
+
+        actorTransform.__setAnimating(true);
+        animatingActors.add(actorTransform);
+    }
+
+    /* Runs a single tick of the simulation */
+    private void simulate(float deltaTime) {
         Array<GameObject> gameObjects = getGameObjects();
 
         updateComponents(gameObjects, deltaTime);
 
-        if (simulatePhysics) {
+        physicsActive = simulatePhysics;
+        if (physicsActive && onDemandRendering) {
+            // Suspend physics while nothing can move
+            physicsActive = hasMovingPhysicsBodies2d();
+            if (!physicsActive)
+                currentTime = TimeUtils.millis() / 1000.0;
+        }
+
+        if (physicsActive) {
             stepPhysicsWorld2d();
         }
 
@@ -888,24 +1977,100 @@ public class Scene implements ContactListener {
             go.__forEachComponent(lateUpdateIter);
         }
 
-        animationCanvas.act(deltaTime);
-        canvas.act(deltaTime);
-
         // destroy physics bodies scheduled for removal
         destroyPhysicsBodies();
     }
 
+    /*
+    The sync point of the threaded simulation. The simulation thread is idle here so the render state can be captured safely.
+     */
+    private void syncRenderState() {
+        Camera camera = mainCamera.getCamera();
+        camera.update();
+        renderProjection.set(camera.combined);
+
+        if (camera instanceof OrthographicCamera) {
+            OrthographicCamera orthographicCamera = (OrthographicCamera)camera;
+            float width = orthographicCamera.viewportWidth * orthographicCamera.zoom;
+            float height = orthographicCamera.viewportHeight * orthographicCamera.zoom;
+
+            // Account for the rotation of the camera
+            float w = width * Math.abs(camera.up.y) + height * Math.abs(camera.up.x);
+            float h = height * Math.abs(camera.up.y) + width * Math.abs(camera.up.x);
+            renderViewBounds.set(camera.position.x - w / 2, camera.position.y - h / 2, w, h);
+        }
+
+        renderList.clear();
+        renderListLayers.clear();
+        renderListLayerStarts.clear();
+        renderingCapturedState = true;
+
+        for (Layer layer : layers) {
+            renderListLayers.add(layer);
+            renderListLayerStarts.add(renderList.size);
+
+            Array<GameObject> gameObjects = layer.getGameObjects();
+            for (int i = 0; i < gameObjects.size; i++)
+                gameObjects.get(i).__forEachComponent(syncRenderStateIter);
+        }
+    }
+
+    /**
+     * Waits for the threaded simulation to complete the current tick. It returns immediately if the simulation is not running.
+     * Subclasses that override {@link #renderWorld()} must call this before rendering anything that reads the live state of the scene (such as debug drawings).
+     */
+    protected void awaitSimulation() {
+        // The live state can be read once the simulation is idle
+        renderingCapturedState = false;
+
+        if (simulationResult == null)
+            return;
+
+        try {
+            simulationResult.get();
+        } finally {
+            simulationResult = null;
+        }
+    }
+
     protected void destroyPhysicsBodies() {
+        poolReleasedPhysicsBodies();
+
         for (Body body : garbagePhysicsBodies2d) {
             if (body != null) {
                 try {
-                    physicsWorld2d.destroyBody(body);
+                    body.getWorld().destroyBody(body);
                 } catch (Exception e) {
                     Gdx.app.error(getClass().getSimpleName(), "Failed to destroy physics body: " + e.getMessage());
                 }
             }
         }
         garbagePhysicsBodies2d.clear();
+        garbagePhysicsBodySet2d.clear();
+    }
+
+    private void poolReleasedPhysicsBodies() {
+        for (int i = 0; i < releasedPhysicsBodies2d.size; i++) {
+            Body body = releasedPhysicsBodies2d.get(i);
+            String key = releasedPhysicsBodyKeys2d.get(i);
+
+            Array<Body> bodies = physicsBodyPool2d.get(key);
+            if (bodies == null) {
+                bodies = new Array<>();
+                physicsBodyPool2d.put(key, bodies);
+            }
+
+            if (bodies.size >= physicsBodyPoolCapacity2d) {
+                destroyPhysicsBody2d(body);
+                continue;
+            }
+
+            body.setActive(false);
+            bodies.add(body);
+        }
+
+        releasedPhysicsBodies2d.clear();
+        releasedPhysicsBodyKeys2d.clear();
     }
 
     /**
@@ -913,8 +2078,89 @@ public class Scene implements ContactListener {
      * <strong>DO NOT CALL THIS METHOD!</strong>
      */
     public void __render() {
-        Array<GameObject> gameObjects = getGameObjects();
+        if (renderStats != null)
+            beginRenderStats();
+
+        // The simulation thread is idle here so the layers can be reordered safely
+        for (Layer layer : layers)
+            layer.__sort();
+
+        if (threadedSimulation) {
+            syncRenderState();
+
+            if (simulationPending) {
+                simulationPending = false;
+                simulationResult = simulationExecutor.submit(simulationTask);
+            }
+        }
+
+        boolean postProcessing = postProcessor != null && postProcessor.hasEnabledEffects();
+        if (postProcessing)
+            postProcessor.__begin();
+
+        if (dynamicResolution != null) {
+            Viewport viewport = mainCamera.getViewport();
+
+            dynamicResolution.__begin(viewport);
+            renderWorld();
+            dynamicResolution.__end(viewport, mainCamera instanceof GameCamera2d ?
+                    ((GameCamera2d)mainCamera).getBackgroundColor() : Color.BLACK);
+        }
+        else
+            renderWorld();
 
+        awaitSimulation();
+
+        if (postProcessing)
+            postProcessor.__end();
+
+        boolean renderedPasses = renderCameraPasses();
+
+        // The UI canvas is rendered at the native resolution and without post processing
+        if (postProcessing || dynamicResolution != null || renderedPasses)
+            MinGdx.instance().frameBuffers.applyViewport(canvas.getViewport());
+
+        if (renderStats != null) {
+            long startTime = TimeUtils.nanoTime();
+            canvas.draw();
+            renderStats.__canvasDrawn(TimeUtils.nanoTime() - startTime);
+
+            endRenderStats();
+        }
+        else
+            canvas.draw();
+    }
+
+    /* Starts collecting the stats of a frame. The sprite batch may be shared, so it reports to the stats only while this scene renders */
+    private void beginRenderStats() {
+        renderStats.__beginFrame();
+
+        if (mainCamera instanceof GameCamera2d) {
+            SpriteBatch batch = ((GameCamera2d)mainCamera).getSpriteBatch();
+            if (batch instanceof ProfilingSpriteBatch)
+                ((ProfilingSpriteBatch)batch).setRenderStats(renderStats);
+        }
+    }
+
+    private void endRenderStats() {
+        if (mainCamera instanceof GameCamera2d) {
+            SpriteBatch batch = ((GameCamera2d)mainCamera).getSpriteBatch();
+            if (batch instanceof ProfilingSpriteBatch)
+                ((ProfilingSpriteBatch)batch).setRenderStats(null);
+        }
+
+        renderStats.__endFrame();
+    }
+
+    /**
+     * Renders the world (every thing except the UI canvas) using the main camera.
+     * Subclasses can override this method to render extra world content. When dynamic resolution is enabled, everything rendered here is drawn at the reduced
+     * resolution.
+     * <p>
+     * When the simulation is threaded, it is running while this method executes. Use {@link #getRenderProjection()} and {@link #renderGameObjects()}
+     * and call {@link #awaitSimulation()} before rendering anything else that reads the live state of the scene, then {@link #renderWorldDebug()}.
+     */
+    protected void renderWorld() {
         if (mainCamera instanceof GameCamera2d) {
             GameCamera2d gc2d = (GameCamera2d)mainCamera;
             SpriteBatch batch = gc2d.getSpriteBatch();
@@ -924,45 +2170,239 @@ public class Scene implements ContactListener {
             Gdx.gl.glClearColor(bg.r, bg.g, bg.b, bg.a);
             Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
-            gc2d.getCamera().update();
-            batch.setProjectionMatrix(gc2d.getCamera().combined);
+            batch.setProjectionMatrix(getRenderProjection());
             batch.begin();
-            for (GameObject go : gameObjects) {
-                go.__forEachComponent(renderIter);
-            }
+            renderGameObjects();
             batch.end();
         }
 
-        if (renderPhysicsDebugLines)
+        awaitSimulation();
+        renderWorldDebug();
+    }
+
+    /**
+     * Renders the debug lines of the physics worlds (the main world and every physics region) and the debug drawings of the components, if they are enabled.
+     * Subclasses that override {@link #renderWorld()} must call this after {@link #awaitSimulation()}.
+     */
+    protected void renderWorldDebug() {
+        if (renderPhysicsDebugLines) {
             physicsDebugRenderer2d.render(physicsWorld2d, mainCamera.getCamera().combined);
+            for (PhysicsRegion2d region : physicsRegions2d)
+                physicsDebugRenderer2d.render(region.getWorld(), mainCamera.getCamera().combined);
+
+            if (renderStats != null)
+                renderStats.__shapeRendererPass();
+        }
 
         // Render debug drawings
-        if (renderCustomDebugLines) {
-            shapeRenderer.setProjectionMatrix(mainCamera.getCamera().combined);
+        if (renderCustomDebugLines)
+            renderDebugDrawings();
+    }
 
-            // Line
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-            for (GameObject go : gameObjects) {
-                go.__forEachComponent(debugLineIter);
-            }
-            shapeRenderer.end();
+    /**
+     * Updates the main camera and returns the projection used for rendering the world.
+     * When the simulation is threaded, the projection captured at the sync point is returned instead; the camera is owned by the simulation thread.
+     * @return the projection used for rendering the world
+     */
+    protected Matrix4 getRenderProjection() {
+        if (!renderingCapturedState) {
+            Camera camera = mainCamera.getCamera();
+            camera.update();
+            renderProjection.set(camera.combined);
+        }
 
-            // Filled
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-            for (GameObject go : gameObjects) {
-                go.__forEachComponent(debugFilledIter);
-            }
-            shapeRenderer.end();
+        return renderProjection;
+    }
 
-            // Point
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Point);
-            for (GameObject go : gameObjects) {
-                go.__forEachComponent(debugPointIter);
+    /**
+     * Renders the game objects of this scene layer by layer. The sprite batch of the main camera must have begun.
+     * When the simulation is threaded, the components captured at the sync point are rendered instead.
+     */
+    protected void renderGameObjects() {
+        if (renderingCapturedState)
+            renderCapturedComponents();
+        else
+            renderLayers();
+
+        if (renderStats != null) {
+            renderStats.__setLayer(null);
+            renderStats.__setComponent(null);
+        }
+    }
+
+    private void renderCapturedComponents() {
+        int layerIndex = 0;
+
+        for (int i = 0; i < renderList.size; i++) {
+            // Layers without components are skipped
+            while (renderStats != null && layerIndex < renderListLayerStarts.size && renderListLayerStarts.get(layerIndex) <= i)
+                renderStats.__setLayer(renderListLayers.get(layerIndex++));
+
+            renderComponent(renderList.get(i));
+        }
+    }
+
+    private void renderComponent(Component component) {
+        if (renderStats != null)
+            renderStats.__setComponent(component);
+
+        component.render(mainCamera);
+    }
+
+    private void renderLayers() {
+        for (Layer layer : layers) {
+            if (renderStats != null)
+                renderStats.__setLayer(layer);
+
+            Array<GameObject> gameObjects = layer.getGameObjects();
+            for (int i = 0; i < gameObjects.size; i++)
+                gameObjects.get(i).__forEachComponent(renderIter);
+        }
+    }
+
+    /* Renders the enabled camera passes. Returns true if at least one pass was rendered */
+    private boolean renderCameraPasses() {
+        boolean rendered = false;
+
+        for (int i = 0; i < renderPasses.size; i++) {
+            CameraRenderPass renderPass = renderPasses.get(i);
+            if (renderPass.isEnabled() && renderPass.getGameCamera() instanceof GameCamera2d) {
+                currentRenderPass = renderPass;
+                renderCameraPass(renderPass);
+                rendered = true;
             }
-            shapeRenderer.end();
         }
 
-        canvas.draw();
+        currentRenderPass = null;
+        return rendered;
+    }
+
+    /**
+     * Renders a camera pass. The pass must use a {@link GameCamera2d}.
+     * The components of the game objects in the layers of the pass are rendered with the camera of the pass. Components render the same way they do for
+     * the main camera; sprites reuse their cached world vertices and are culled against the camera of the pass.
+     * @param renderPass the camera pass
+     */
+    protected void renderCameraPass(CameraRenderPass renderPass) {
+        GameCamera2d gc2d = (GameCamera2d)renderPass.getGameCamera();
+        Viewport viewport = gc2d.getViewport();
+        FrameBuffer target = renderPass.getTarget();
+        FrameBufferPool frameBuffers = MinGdx.instance().frameBuffers;
+
+        if (target != null)
+            frameBuffers.begin(target);
+
+        renderPass.__fitViewport(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        frameBuffers.applyViewport(viewport);
+
+        if (renderPass.isClear()) {
+            // Clear only the area of the pass
+            Color bg = gc2d.getBackgroundColor();
+            Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+            frameBuffers.glScissor(viewport.getScreenX(), viewport.getScreenY(), viewport.getScreenWidth(), viewport.getScreenHeight());
+            Gdx.gl.glClearColor(bg.r, bg.g, bg.b, bg.a);
+            Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+            Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+        }
+
+        gc2d.getCamera().update();
+        renderPassUnderlay(renderPass);
+
+        SpriteBatch batch = gc2d.getSpriteBatch();
+        batch.setProjectionMatrix(gc2d.getCamera().combined);
+        batch.begin();
+
+        for (Layer layer : layers) {
+            if (!renderPass.includesLayer(layer))
+                continue;
+
+            if (renderStats != null)
+                renderStats.__setLayer(layer);
+
+            Array<GameObject> gameObjects = layer.getGameObjects();
+            for (int i = 0; i < gameObjects.size; i++)
+                gameObjects.get(i).__forEachComponent(renderPassIter);
+        }
+
+        batch.end();
+
+        if (renderStats != null) {
+            renderStats.__setLayer(null);
+            renderStats.__setComponent(null);
+        }
+
+        if (target != null)
+            frameBuffers.end();
+    }
+
+    /**
+     * Renders world content that should appear below the game objects of a camera pass (such as a tiled map). It does nothing by default.
+     * @param renderPass the camera pass
+     */
+    protected void renderPassUnderlay(CameraRenderPass renderPass) {}
+
+    /**
+     * Renders the custom debug drawings of the game objects in this scene.
+     * Debug renderers that cannot be seen by the main camera are culled and every shape type is drawn in a single
+     * {@link ShapeRenderer#begin(ShapeRenderer.ShapeType)}/{@link ShapeRenderer#end()} pass. Shape types with nothing to draw are skipped.
+     */
+    protected void renderDebugDrawings() {
+        Camera camera = mainCamera.getCamera();
+        shapeRenderer.setProjectionMatrix(camera.combined);
+
+        debugLineBucket.clear();
+        debugFilledBucket.clear();
+        debugPointBucket.clear();
+
+        for (DebugRendererBase renderer : debugRenderers) {
+            if (!renderer.isEnabled())
+                continue;
+
+            if (renderer.isCull() && !renderer.getGameObject().transform.isInCameraFrustum(camera))
+                continue;
+
+            ShapeRenderer.ShapeType shapeType = renderer.getShapeType();
+            if (shapeType == ShapeRenderer.ShapeType.Line)
+                debugLineBucket.add(renderer);
+            else if (shapeType == ShapeRenderer.ShapeType.Filled)
+                debugFilledBucket.add(renderer);
+            else if (shapeType == ShapeRenderer.ShapeType.Point)
+                debugPointBucket.add(renderer);
+        }
+
+        renderDebugBucket(ShapeRenderer.ShapeType.Line, debugLineBucket, debugLineComponents, debugLineIter);
+        renderDebugBucket(ShapeRenderer.ShapeType.Filled, debugFilledBucket, debugFilledComponents, debugFilledIter);
+        renderDebugBucket(ShapeRenderer.ShapeType.Point, debugPointBucket, debugPointComponents, debugPointIter);
+    }
+
+    /* Debug renderers drawn through their debug drawing methods are still culled */
+    private boolean isDebugDrawingCulled(Component component) {
+        if (!(component instanceof DebugRendererBase))
+            return false;
+
+        DebugRendererBase renderer = (DebugRendererBase)component;
+        return renderer.isCull() && !renderer.getGameObject().transform.isInCameraFrustum(mainCamera.getCamera());
+    }
+
+    private void renderDebugBucket(ShapeRenderer.ShapeType shapeType, Array<DebugRendererBase> renderers,
+                                   Array<Component> components, GameObject.__ComponentIterationListener iter) {
+        if (renderers.isEmpty() && components.isEmpty())
+            return;
+
+        shapeRenderer.begin(shapeType);
+
+        for (DebugRendererBase renderer : renderers) {
+            shapeRenderer.setColor(renderer.getColor());
+            renderer.draw(shapeRenderer, mainCamera);
+        }
+
+        for (Component component : components)
+            iter.onComponent(component);
+
+        shapeRenderer.end();
+
+        if (renderStats != null)
+            renderStats.__shapeRendererPass();
     }
 
     /**
@@ -970,6 +2410,8 @@ public class Scene implements ContactListener {
      * <strong>DO NOT CALL THIS METHOD!</strong>
      */
     public void __destroy() {
+        setThreadedSimulation(false);
+
         Array<GameObject> gameObjects = getGameObjects();
 
         for (GameObject go : gameObjects) {
@@ -977,8 +2419,31 @@ public class Scene implements ContactListener {
         }
 
         mainCamera.__dispose();
+        physicsBodyPool2d.clear();
+        releasedPhysicsBodies2d.clear();
+        releasedPhysicsBodyKeys2d.clear();
+
         physicsWorld2d.dispose();
+        for (PhysicsRegion2d region : physicsRegions2d)
+            region.dispose();
+        physicsRegions2d.clear();
+
+        if (physicsRegionExecutor2d != null) {
+            physicsRegionExecutor2d.dispose();
+            physicsRegionExecutor2d = null;
+            physicsRegionWorkers2d = 0;
+        }
+
         canvas.dispose();
+
+        if (dynamicResolution != null)
+            dynamicResolution.dispose();
+
+        if (postProcessor != null)
+            postProcessor.dispose();
+
+        // The assets claimed by this scene can be evicted now
+        MinGdx.instance().assets.releaseAssets(this);
     }
 
     /**
@@ -1166,73 +2631,132 @@ public class Scene implements ContactListener {
     public void preSolve(Contact contact, Manifold manifold) {}
 
     @Override
-    public void beginContact(Contact contact) {
-        Body bodyA = contact.getFixtureA().getBody();
-        Body bodyB = contact.getFixtureB().getBody();
+    public void beginContact(Contact contact)
+    { onContact(contact, true); }
 
+    @Override
+    public void endContact(Contact contact)
+    { onContact(contact, false); }
+
+    /* Queues a contact if the world is stepping; contacts reported outside a step (such as when a body is destroyed) are dispatched immediately */
+    private void onContact(Contact contact, boolean begin)
+    { onContact(contact, contact.getFixtureA(), contact.getFixtureB(), begin); }
+
+    private void onContact(Contact contact, Fixture fixtureA, Fixture fixtureB, boolean begin) {
         GameObject goA = null;
         GameObject goB = null;
 
-        if (bodyA.getUserData() instanceof GameObject)
-            goA = (GameObject)bodyA.getUserData();
+        if (fixtureA.getBody().getUserData() instanceof GameObject)
+            goA = (GameObject)fixtureA.getBody().getUserData();
 
-        if (bodyB.getUserData() instanceof GameObject)
-            goB = (GameObject)bodyB.getUserData();
+        if (fixtureB.getBody().getUserData() instanceof GameObject)
+            goB = (GameObject)fixtureB.getBody().getUserData();
 
-        if (goA == null && goB == null)
+        // Nothing to do if neither game object has components that handle collisions
+        if ((goA == null || !goA.hasCollisionListeners()) && (goB == null || !goB.hasCollisionListeners()))
             return;
 
-        collisionA = collisionPool.obtain(contact, goB, contact.getFixtureA(), contact.getFixtureB());
-        collisionB = collisionPool.obtain(contact, goA, contact.getFixtureB(), contact.getFixtureA());
+        if (steppingPhysics2d && queueContactEvents2d)
+            queueContactEvent2d(begin, fixtureA, fixtureB, goA, goB);
+        else
+            dispatchContact2d(contact, begin, fixtureA, fixtureB, goA, goB, fixtureA.isSensor(), fixtureB.isSensor());
+    }
+
+    /*
+    Records a contact event. An event identical to one already recorded in this step is dropped. A contact that ended and began again in the same step
+    cancels out since the fixtures are still touching; a contact that began and ended is kept so the handlers see the brief touch.
+     */
+    private void queueContactEvent2d(boolean begin, Fixture fixtureA, Fixture fixtureB, GameObject goA, GameObject goB) {
+        long key = contactPairKey(fixtureA, fixtureB);
+        ContactEvent2d previous = contactEventsByPair.get(key);
 
-        isSensorA = contact.getFixtureA().isSensor();
-        isSensorB = contact.getFixtureB().isSensor();
+        if (previous != null && previous.isPair(fixtureA, fixtureB)) {
+            if (previous.begin == begin)
+                return;
 
-        if (goA != null) {
-            goA.__forEachComponent(iterAEnter);
+            if (begin) {
+                previous.cancelled = true;
+                contactEventsByPair.remove(key);
+                return;
+            }
         }
 
-        if (goB != null) {
-            goB.__forEachComponent(iterBEnter);
+        ContactEvent2d event = contactEventPool.obtain(begin, fixtureA, fixtureB, goA, goB, fixtureA.isSensor(), fixtureB.isSensor());
+        contactEvents2d.add(event);
+        contactEventsByPair.put(key, event);
+    }
+
+    /* A key that is the same for both orders of a pair of fixtures. Collisions are possible; events check the fixtures before coalescing */
+    private static long contactPairKey(Fixture fixtureA, Fixture fixtureB) {
+        int a = System.identityHashCode(fixtureA);
+        int b = System.identityHashCode(fixtureB);
+        if (a > b) {
+            int tmp = a;
+            a = b;
+            b = tmp;
         }
 
-        collisionPool.free(collisionA);
-        collisionPool.free(collisionB);
+        return ((long)a << 32) | (b & 0xffffffffL);
     }
 
-    @Override
-    public void endContact(Contact contact) {
-        Body bodyA = contact.getFixtureA().getBody();
-        Body bodyB = contact.getFixtureB().getBody();
+    /* Dispatches the contact events recorded during the last step. Game objects removed and fixtures destroyed by earlier handlers are skipped */
+    private void dispatchContactEvents2d() {
+        if (contactEvents2d.size == 0)
+            return;
 
-        GameObject goA = null;
-        GameObject goB = null;
+        contactEventsByPair.clear();
+        dispatchingContactEvents2d = true;
 
-        if (bodyA.getUserData() instanceof GameObject)
-            goA = (GameObject)bodyA.getUserData();
+        for (int i = 0; i < contactEvents2d.size; i++) {
+            ContactEvent2d event = contactEvents2d.get(i);
+            if (event.cancelled)
+                continue;
 
-        if (bodyB.getUserData() instanceof GameObject)
-            goB = (GameObject)bodyB.getUserData();
+            if (destroyedFixtures2d.size > 0
+                    && (destroyedFixtures2d.contains(event.fixtureA) || destroyedFixtures2d.contains(event.fixtureB)))
+                continue;
 
-        if (goA == null && goB == null)
-            return;
+            GameObject goA = event.gameObjectA != null && event.gameObjectA.getHostScene() == this ? event.gameObjectA : null;
+            GameObject goB = event.gameObjectB != null && event.gameObjectB.getHostScene() == this ? event.gameObjectB : null;
+            if (goA == null && goB == null)
+                continue;
+
+            dispatchContact2d(null, event.begin, event.fixtureA, event.fixtureB, goA, goB, event.sensorA, event.sensorB);
+        }
 
-        collisionA = collisionPool.obtain(contact, goB, contact.getFixtureA(), contact.getFixtureB());
-        collisionB = collisionPool.obtain(contact, goA, contact.getFixtureB(), contact.getFixtureA());
+        dispatchingContactEvents2d = false;
+        destroyedFixtures2d.clear();
+        contactEventPool.freeAll(contactEvents2d);
+        contactEvents2d.clear();
+    }
 
-        isSensorA = contact.getFixtureA().isSensor();
-        isSensorB = contact.getFixtureB().isSensor();
+    private void dispatchContact2d(Contact contact, boolean begin, Fixture fixtureA, Fixture fixtureB, GameObject goA, GameObject goB,
+                                   boolean sensorA, boolean sensorB) {
+        // Handlers can destroy bodies which dispatches contacts again; restore the outer state when done
+        Collision2d outerCollisionA = collisionA, outerCollisionB = collisionB;
+        boolean outerSensorA = isSensorA, outerSensorB = isSensorB;
+
+        collisionA = collisionPool.obtain(contact, goB, fixtureA, fixtureB);
+        collisionB = collisionPool.obtain(contact, goA, fixtureB, fixtureA);
+
+        isSensorA = sensorA;
+        isSensorB = sensorB;
 
         if (goA != null) {
-            goA.__forEachComponent(iterAExit);
+            goA.__forEachCollisionListener(begin ? iterAEnter : iterAExit);
         }
 
         if (goB != null) {
-            goB.__forEachComponent(iterBExit);
+            goB.__forEachCollisionListener(begin ? iterBEnter : iterBExit);
         }
 
         collisionPool.free(collisionA);
         collisionPool.free(collisionB);
+
+        collisionA = outerCollisionA;
+        collisionB = outerCollisionB;
+        isSensorA = outerSensorA;
+        isSensorB = outerSensorB;
     }
 
     @Override
@@ -2,10 +2,14 @@ package com.isoterik.mgdx;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.ai.GdxAI;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Pixmap.Format;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
+import com.isoterik.mgdx.graphics.FrameBufferPool;
 import com.isoterik.mgdx.m2d.scenes.transition.ISceneTransition;
 
 /**
@@ -25,6 +29,10 @@ public final class SceneManager {
     private float elapsedTime;
     private ISceneTransition sceneTransition;
 
+    private float transitionResolutionScale = 1f;
+    private boolean renderNextSceneLive = true;
+    private boolean currSnapshotTaken, nextSnapshotTaken;
+
     private Array<Scene> sceneStack
             = new Array<>();
 
@@ -53,6 +61,38 @@ public final class SceneManager {
     public void setCurrentScene(Scene scene)
     { setCurrentScene(scene, null); }
 
+    /**
+     * Sets the resolution (as a fraction of the screen resolution) the scenes are rendered at during transitions. Lower resolutions make transitions
+     * cheaper on weak GPUs. Defaults to 1 (the screen resolution)
+     * @param transitionResolutionScale the resolution scale (0 - 1)
+     */
+    public void setTransitionResolutionScale(float transitionResolutionScale) {
+        this.transitionResolutionScale = MathUtils.clamp(transitionResolutionScale, .1f, 1f);
+        releaseTransitionBuffers();
+    }
+
+    /**
+     *
+     * @return the resolution (as a fraction of the screen resolution) the scenes are rendered at during transitions
+     */
+    public float getTransitionResolutionScale()
+    { return transitionResolutionScale; }
+
+    /**
+     * The outgoing scene is paused during transitions so it is captured only once. By default, the incoming scene is rendered every frame of a transition.
+     * Disable this to capture the incoming scene only once as well (a static snapshot) which makes transitions nearly free.
+     * @param renderNextSceneLive whether the incoming scene should be rendered every frame of a transition
+     */
+    public void setRenderNextSceneLive(boolean renderNextSceneLive)
+    { this.renderNextSceneLive = renderNextSceneLive; }
+
+    /**
+     *
+     * @return whether the incoming scene is rendered every frame of a transition
+     */
+    public boolean isRenderNextSceneLive()
+    { return renderNextSceneLive; }
+
     /**
      * Make the given the scene the current scene displayed. The transition is animated if a non-null {@link ISceneTransition} is given.
      * @param scene the scene to transition to.
@@ -77,25 +117,54 @@ public final class SceneManager {
         this.sceneTransition = sceneTransition;
         elapsedTime = 0;
 
+        // The scenes are captured again for the new transition
+        releaseTransitionBuffers();
+
         prevScene = currScene;
 
         if (scene.isStackable())
             pushScene(scene);
     }
 
-    private void initVars() {
-        int w = Gdx.graphics.getWidth();
-        int h = Gdx.graphics.getHeight();
+    private void initVars()
+    { batch = MinGdx.instance().spriteBatches.obtain(); }
+
+    /* Clears what the cameras and renderers left on the shared batch: the projection is set to the size of the captured scenes */
+    private void resetTransitionBatch() {
+        batch.getProjectionMatrix().setToOrtho2D(0, 0, currFbo.getWidth(), currFbo.getHeight());
+        batch.getTransformMatrix().idt();
+        batch.setColor(Color.WHITE);
+        batch.setShader(null);
+        batch.enableBlending();
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    /* Borrows the transition frame buffers from the pool. They are returned as soon as the transition completes */
+    private void obtainTransitionBuffers() {
+        if (currFbo != null)
+            return;
+
+        FrameBufferPool frameBuffers = MinGdx.instance().frameBuffers;
+        int w = (int)(Gdx.graphics.getBackBufferWidth() * transitionResolutionScale);
+        int h = (int)(Gdx.graphics.getBackBufferHeight() * transitionResolutionScale);
 
-        if(currFbo != null) {
-            currFbo.dispose();
-            nextFbo.dispose();
-            batch.dispose();
+        currFbo = frameBuffers.obtain(Format.RGB888, w, h, false);
+        nextFbo = frameBuffers.obtain(Format.RGB888, w, h, false);
+    }
+
+    /* Returns the transition frame buffers to the pool. The scenes will be captured again if a transition is still running */
+    private void releaseTransitionBuffers() {
+        if (currFbo != null) {
+            FrameBufferPool frameBuffers = MinGdx.instance().frameBuffers;
+            frameBuffers.free(currFbo);
+            frameBuffers.free(nextFbo);
+
+            currFbo = null;
+            nextFbo = null;
         }
 
-        currFbo = new FrameBuffer(Format.RGB888, w, h, false);
-        nextFbo = new FrameBuffer(Format.RGB888, w, h, false);
-        batch = new SpriteBatch();
+        currSnapshotTaken = false;
+        nextSnapshotTaken = false;
     }
 
     /**
@@ -149,20 +218,42 @@ public final class SceneManager {
                 currScene = nextScene;
                 nextScene = null;
                 sceneTransition = null;
+
+                releaseTransitionBuffers();
             }
             else {
-                // render screens to FBOs
-                currFbo.begin();
-                if (currScene != null) {
-                    currScene.__render();
+                // transitions are animated every frame even if the scenes are rendered on demand
+                Gdx.graphics.requestRendering();
+
+                obtainTransitionBuffers();
+                FrameBufferPool frameBuffers = MinGdx.instance().frameBuffers;
+
+                // the outgoing scene is paused so it is captured only once
+                if (!currSnapshotTaken) {
+                    frameBuffers.begin(currFbo);
+                    if (currScene != null) {
+                        currScene.__render();
+                    }
+                    else {
+                        Gdx.gl.glClearColor(0, 0, 0, 1);
+                        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+                    }
+                    frameBuffers.end();
+
+                    currSnapshotTaken = true;
                 }
 
-                currFbo.end();
-                nextFbo.begin();
-                nextScene.__render();
-                nextFbo.end();
+                if (renderNextSceneLive || !nextSnapshotTaken) {
+                    frameBuffers.begin(nextFbo);
+                    nextScene.__render();
+                    frameBuffers.end();
+
+                    nextSnapshotTaken = true;
+                }
 
                 // render transition effect to screen
+                // the batch is shared with the cameras and renderers, so its state is reset before every transition render
+                resetTransitionBatch();
                 float alpha = elapsedTime / duration;
                 sceneTransition.render(batch,   currFbo.getColorBufferTexture(), nextFbo.getColorBufferTexture(),   alpha);
             }
@@ -187,6 +278,12 @@ public final class SceneManager {
     public void __resize(int width, int height) {
         if (currScene != null)
             currScene.__resize(width, height);
+
+        // the transition frame buffers are reallocated (from the pool) at the new size and the scenes are captured again
+        releaseTransitionBuffers();
+
+        // the pooled targets of the old size are no longer needed
+        MinGdx.instance().frameBuffers.disposeUnused();
     }
 
     /**
@@ -222,11 +319,10 @@ public final class SceneManager {
         sceneStack.clear();
 
         if (init) {
-            currFbo.dispose();
+            releaseTransitionBuffers();
             currScene = null;
-            nextFbo.dispose();
             nextScene = null;
-            batch.dispose();
+            MinGdx.instance().spriteBatches.free(batch);
             init = false;
         }
     }
@@ -245,6 +341,13 @@ public final class SceneManager {
     public Scene getCurrentScene()
     { return currScene; }
 
+    /**
+     *
+     * @return the scene being transitioned to. null if there is no ongoing transition
+     */
+    public Scene getNextScene()
+    { return nextScene; }
+
     /**
      * Reverts to the previous scene.
      * <strong>Note:</strong> Only {@link Scene#setStackable(boolean) stackable} scenes can be reverted to.
@@ -0,0 +1,232 @@
+package com.isoterik.mgdx.graphics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.HdpiUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+/**
+ * A pool of {@link FrameBuffer}s used as offscreen render targets. Allocating frame buffers is expensive and they use a lot of GPU memory; borrowing
+ * them from this pool lets post-processing effects, scene transitions and other offscreen passes reuse the same targets every frame.
+ * <p>
+ * {@link #obtain(Pixmap.Format, int, int, boolean) Obtained} frame buffers are exclusively owned by the borrower until they are {@link #free(FrameBuffer) freed}.
+ * There is an entry for every format, size and depth requested; a miss adds a new entry so passes that use different sizes every frame (such as a
+ * quarter size bloom and a half size blur) keep their own targets. Entries of sizes that are no longer used are only released by
+ * {@link #disposeUnused()}, which the {@link com.isoterik.mgdx.SceneManager} calls when the screen is resized.
+ * <p>
+ * The pool also keeps a stack of bound render targets. {@link FrameBuffer#end()} always binds the screen, which breaks nested offscreen rendering
+ * (for example, a scene that renders into a frame buffer while the {@link com.isoterik.mgdx.SceneManager} renders it into a transition frame buffer).
+ * Use {@link #begin(FrameBuffer)} and {@link #end()} instead to restore the previously bound target.
+ *
+ * @author isoteriksoftware
+ */
+public final class FrameBufferPool {
+    private final Array<Entry> entries = new Array<>();
+    private final Array<FrameBuffer> boundFrameBuffers = new Array<>();
+
+    private static FrameBufferPool instance;
+
+    /**
+     * Initializes the pool.
+     * <strong>DO NOT CALL THIS METHOD!</strong>
+     */
+    public static void __init()
+    { instance = new FrameBufferPool(); }
+
+    /**
+     *
+     * @return the shared instance or null if minGDX is not initialized yet
+     */
+    public static FrameBufferPool instance()
+    { return instance; }
+
+    private FrameBufferPool() {}
+
+    /**
+     * Obtains a frame buffer with the given format and size. The color texture of the frame buffer uses linear filtering.
+     * @param format the format of the color buffer
+     * @param width the width in pixels
+     * @param height the height in pixels
+     * @param hasDepth whether the frame buffer should have a depth buffer attached
+     * @return the frame buffer
+     */
+    public FrameBuffer obtain(Pixmap.Format format, int width, int height, boolean hasDepth) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+
+        for (Entry entry : entries) {
+            if (entry.inUse || entry.format != format || entry.hasDepth != hasDepth)
+                continue;
+
+            if (entry.frameBuffer.getWidth() == width && entry.frameBuffer.getHeight() == height) {
+                entry.inUse = true;
+                return entry.frameBuffer;
+            }
+        }
+
+        Entry entry = new Entry(newFrameBuffer(format, width, height, hasDepth), format, hasDepth);
+        entry.inUse = true;
+        entries.add(entry);
+
+        return entry.frameBuffer;
+    }
+
+    /**
+     * Obtains an RGBA8888 frame buffer without a depth buffer.
+     * @param width the width in pixels
+     * @param height the height in pixels
+     * @return the frame buffer
+     */
+    public FrameBuffer obtain(int width, int height)
+    { return obtain(Pixmap.Format.RGBA8888, width, height, false); }
+
+    private static FrameBuffer newFrameBuffer(Pixmap.Format format, int width, int height, boolean hasDepth) {
+        FrameBuffer frameBuffer = new FrameBuffer(format, width, height, hasDepth);
+        frameBuffer.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        return frameBuffer;
+    }
+
+    /**
+     * Returns a frame buffer obtained from this pool. The frame buffer must not be used by the caller after this call.
+     * @param frameBuffer the frame buffer to return
+     * @return true if the frame buffer belongs to this pool. false otherwise
+     */
+    public boolean free(FrameBuffer frameBuffer) {
+        for (Entry entry : entries) {
+            if (entry.frameBuffer == frameBuffer) {
+                entry.inUse = false;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Binds a frame buffer as the current render target and sets the GL viewport to cover it. The previously bound target is restored by {@link #end()}.
+     * The frame buffer does not have to belong to this pool.
+     * @param frameBuffer the frame buffer to render into
+     */
+    public void begin(FrameBuffer frameBuffer) {
+        boundFrameBuffers.add(frameBuffer);
+
+        frameBuffer.bind();
+        Gdx.gl.glViewport(0, 0, frameBuffer.getWidth(), frameBuffer.getHeight());
+    }
+
+    /**
+     * Stops rendering into the frame buffer bound by the last call to {@link #begin(FrameBuffer)} and restores the previous render target.
+     * The GL viewport is set to cover the restored target.
+     * @throws IllegalStateException if no frame buffer is bound
+     */
+    public void end() throws IllegalStateException {
+        if (boundFrameBuffers.isEmpty())
+            throw new IllegalStateException("FrameBufferPool.begin() must be called before end()");
+
+        boundFrameBuffers.pop();
+
+        if (boundFrameBuffers.isEmpty()) {
+            FrameBuffer.unbind();
+            Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+        }
+        else {
+            FrameBuffer previous = boundFrameBuffers.peek();
+            previous.bind();
+            Gdx.gl.glViewport(0, 0, previous.getWidth(), previous.getHeight());
+        }
+    }
+
+    /**
+     *
+     * @return the width (in pixels) of the current render target
+     */
+    public int getTargetWidth() {
+        return boundFrameBuffers.isEmpty() ? Gdx.graphics.getBackBufferWidth()
+                : boundFrameBuffers.peek().getWidth();
+    }
+
+    /**
+     *
+     * @return the height (in pixels) of the current render target
+     */
+    public int getTargetHeight() {
+        return boundFrameBuffers.isEmpty() ? Gdx.graphics.getBackBufferHeight()
+                : boundFrameBuffers.peek().getHeight();
+    }
+
+    /**
+     * Applies a viewport and maps its screen area into the current render target. The screen area is scaled by the size of the target relative to the
+     * back buffer, so a viewport lands in the same place of a target that is smaller than the screen (such as a scaled transition snapshot).
+     * @param viewport the viewport
+     */
+    public void applyViewport(Viewport viewport) {
+        viewport.apply();
+
+        float scaleX = getTargetWidth() / (float)Gdx.graphics.getBackBufferWidth();
+        float scaleY = getTargetHeight() / (float)Gdx.graphics.getBackBufferHeight();
+        if (scaleX == 1 && scaleY == 1)
+            return;
+
+        Gdx.gl.glViewport((int)(HdpiUtils.toBackBufferX(viewport.getScreenX()) * scaleX),
+                (int)(HdpiUtils.toBackBufferY(viewport.getScreenY()) * scaleY),
+                Math.max(1, (int)(HdpiUtils.toBackBufferX(viewport.getScreenWidth()) * scaleX)),
+                Math.max(1, (int)(HdpiUtils.toBackBufferY(viewport.getScreenHeight()) * scaleY)));
+    }
+
+    /**
+     * Sets the scissor area from logical screen coordinates, mapped into the current render target the same way as {@link #applyViewport(Viewport)}.
+     * @param x the x coordinate of the area
+     * @param y the y coordinate of the area
+     * @param width the width of the area
+     * @param height the height of the area
+     */
+    public void glScissor(int x, int y, int width, int height) {
+        float scaleX = getTargetWidth() / (float)Gdx.graphics.getBackBufferWidth();
+        float scaleY = getTargetHeight() / (float)Gdx.graphics.getBackBufferHeight();
+
+        Gdx.gl.glScissor((int)(HdpiUtils.toBackBufferX(x) * scaleX), (int)(HdpiUtils.toBackBufferY(y) * scaleY),
+                (int)(HdpiUtils.toBackBufferX(width) * scaleX), (int)(HdpiUtils.toBackBufferY(height) * scaleY));
+    }
+
+    /**
+     * Disposes every frame buffer that is not in use. Call this when the sizes of the render targets change (for example, after a resize) to release
+     * the targets of the old sizes.
+     */
+    public void disposeUnused() {
+        for (int i = entries.size - 1; i >= 0; i--) {
+            Entry entry = entries.get(i);
+            if (!entry.inUse) {
+                entry.frameBuffer.dispose();
+                entries.removeIndex(i);
+            }
+        }
+    }
+
+    /**
+     * Disposes every frame buffer of this pool.
+     * <strong>DO NOT CALL THIS METHOD!</strong>
+     */
+    public void __dispose() {
+        for (Entry entry : entries)
+            entry.frameBuffer.dispose();
+
+        entries.clear();
+        boundFrameBuffers.clear();
+    }
+
+    private static class Entry {
+        final FrameBuffer frameBuffer;
+        final Pixmap.Format format;
+        final boolean hasDepth;
+        boolean inUse;
+
+        Entry(FrameBuffer frameBuffer, Pixmap.Format format, boolean hasDepth) {
+            this.frameBuffer = frameBuffer;
+            this.format = format;
+            this.hasDepth = hasDepth;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.isoterik.mgdx.graphics;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * A {@link SpriteBatch} that reports why it flushes to a {@link RenderStats} instance. When no stats instance is set it behaves exactly
+ * like a {@link SpriteBatch}. The batches handed out by {@link SpriteBatchPool} are instances of this class.
+ *
+ * @author isoteriksoftware
+ */
+public class ProfilingSpriteBatch extends SpriteBatch {
+    private RenderStats renderStats;
+    private RenderStats.FlushCause flushCause;
+
+    /**
+     * Creates a new instance given a size and a shader.
+     * @param size the maximum number of sprites in a single batch (max 8191)
+     * @param shader the shader to use or null for the default shader
+     */
+    public ProfilingSpriteBatch(int size, ShaderProgram shader)
+    { super(size, shader); }
+
+    /**
+     * Creates a new instance given a size.
+     * @param size the maximum number of sprites in a single batch (max 8191)
+     */
+    public ProfilingSpriteBatch(int size)
+    { super(size); }
+
+    /**
+     * Creates a new instance that can hold 1000 sprites.
+     */
+    public ProfilingSpriteBatch()
+    { super(); }
+
+    /**
+     * Sets the stats flushes are reported to.
+     * @param renderStats the stats or null to stop reporting
+     */
+    public void setRenderStats(RenderStats renderStats)
+    { this.renderStats = renderStats; }
+
+    /**
+     *
+     * @return the stats flushes are reported to or null if none
+     */
+    public RenderStats getRenderStats()
+    { return renderStats; }
+
+    /* Flushes while remembering why */
+    private void flush(RenderStats.FlushCause cause) {
+        flushCause = cause;
+        flush();
+        flushCause = null;
+    }
+
+    @Override
+    public void flush() {
+        if (renderStats == null) {
+            super.flush();
+            return;
+        }
+
+        int renderCalls = totalRenderCalls;
+        super.flush();
+
+        // Flushing an empty batch is a no-op
+        if (totalRenderCalls != renderCalls)
+            renderStats.__flushed(flushCause != null ? flushCause : RenderStats.FlushCause.FULL_BUFFER);
+    }
+
+    @Override
+    protected void switchTexture(Texture texture) {
+        flushCause = RenderStats.FlushCause.TEXTURE_CHANGE;
+        super.switchTexture(texture);
+        flushCause = null;
+    }
+
+    @Override
+    public void setShader(ShaderProgram shader) {
+        flushCause = RenderStats.FlushCause.SHADER_CHANGE;
+        super.setShader(shader);
+        flushCause = null;
+    }
+
+    @Override
+    public void end() {
+        if (isDrawing())
+            flush(RenderStats.FlushCause.END);
+        super.end();
+    }
+
+    @Override
+    public void setBlendFunctionSeparate(int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) {
+        flushCause = RenderStats.FlushCause.STATE_CHANGE;
+        super.setBlendFunctionSeparate(srcFuncColor, dstFuncColor, srcFuncAlpha, dstFuncAlpha);
+        flushCause = null;
+    }
+
+    @Override
+    public void enableBlending() {
+        flushCause = RenderStats.FlushCause.STATE_CHANGE;
+        super.enableBlending();
+        flushCause = null;
+    }
+
+    @Override
+    public void disableBlending() {
+        flushCause = RenderStats.FlushCause.STATE_CHANGE;
+        super.disableBlending();
+        flushCause = null;
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        flushCause = RenderStats.FlushCause.STATE_CHANGE;
+        super.setProjectionMatrix(projection);
+        flushCause = null;
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        flushCause = RenderStats.FlushCause.STATE_CHANGE;
+        super.setTransformMatrix(transform);
+        flushCause = null;
+    }
+}
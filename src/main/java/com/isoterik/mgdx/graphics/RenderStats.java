@@ -0,0 +1,387 @@
+package com.isoterik.mgdx.graphics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.isoterik.mgdx.Component;
+import com.isoterik.mgdx.Layer;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RenderStats collects statistics about a single rendered frame of a {@link com.isoterik.mgdx.Scene}. It is useful for finding what breaks sprite batching.
+ * <p>
+ * The stats reports:
+ * <ul>
+ *     <li>sprites drawn and culled (in total and for every {@link Layer})</li>
+ *     <li>sprite batch flushes and their causes. Flushes are also attributed to the component class that was rendering when the flush happened</li>
+ *     <li>{@link com.badlogic.gdx.graphics.glutils.ShapeRenderer} passes used for debug drawings</li>
+ *     <li>the time spent drawing the UI canvas</li>
+ *     <li>draw calls, texture bindings, shader switches and vertices when a {@link GLProfiler} is set</li>
+ * </ul>
+ * Flush causes are only available when the scene renders with a {@link ProfilingSpriteBatch} (the batches provided by {@link SpriteBatchPool} are).
+ * The stats of every frame can be appended to a CSV file using {@link #setCsvLog(FileHandle)}.
+ * <p>
+ * The values are reset when a new frame starts; read them after the scene is rendered.
+ *
+ * @author isoteriksoftware
+ */
+public class RenderStats implements Disposable {
+    /**
+     * The reasons a sprite batch flushes.
+     */
+    public enum FlushCause {
+        /** A sprite with a different texture was drawn */
+        TEXTURE_CHANGE,
+        /** The shader was changed */
+        SHADER_CHANGE,
+        /** The blending or the matrices were changed */
+        STATE_CHANGE,
+        /** The batch was full (or was flushed explicitly) */
+        FULL_BUFFER,
+        /** The batch ended */
+        END
+    }
+
+    private static final FlushCause[] FLUSH_CAUSES = FlushCause.values();
+
+    private long frame;
+
+    private int spritesDrawn, spritesCulled;
+    private final ObjectIntMap<Layer> drawnPerLayer = new ObjectIntMap<>();
+    private final ObjectIntMap<Layer> culledPerLayer = new ObjectIntMap<>();
+    private final Array<Layer> layers = new Array<>();
+
+    private int flushes;
+    private final int[] flushesPerCause = new int[FLUSH_CAUSES.length];
+    private final ObjectIntMap<Class<?>> flushesPerComponent = new ObjectIntMap<>();
+
+    private int shapeRendererPasses;
+    private long canvasDrawTime;
+
+    private int drawCalls, textureBindings, shaderSwitches;
+    private float vertexCount;
+
+    private Layer currentLayer;
+    private Class<?> currentComponentClass;
+
+    private GLProfiler profiler;
+    private Writer csvWriter;
+
+    /**
+     * Sets a {@link GLProfiler} to read GL level statistics from. The profiler is enabled and reset every frame.
+     * @param profiler the profiler or null
+     */
+    public void setProfiler(GLProfiler profiler) {
+        this.profiler = profiler;
+        if (profiler != null)
+            profiler.enable();
+    }
+
+    /**
+     *
+     * @return the {@link GLProfiler} used or null if none
+     */
+    public GLProfiler getProfiler()
+    { return profiler; }
+
+    /**
+     * Appends the stats of every frame to a CSV file. A header is written first.
+     * The previous log, if any, is closed.
+     * @param file the CSV file or null to stop logging
+     * @throws GdxRuntimeException if the file cannot be written to
+     */
+    public void setCsvLog(FileHandle file) throws GdxRuntimeException {
+        closeCsvLog();
+        if (file == null)
+            return;
+
+        csvWriter = file.writer(true);
+        try {
+            csvWriter.write("frame,spritesDrawn,spritesCulled,flushes,textureFlushes,shaderFlushes,stateFlushes," +
+                    "fullBufferFlushes,endFlushes,shapeRendererPasses,canvasDrawMillis,drawCalls,textureBindings,shaderSwitches,vertices,layers\n");
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Failed to write render stats log: " + file, e);
+        }
+    }
+
+    /**
+     * Closes the CSV log, if any.
+     */
+    public void closeCsvLog() {
+        StreamUtils.closeQuietly(csvWriter);
+        csvWriter = null;
+    }
+
+    /**
+     *
+     * @return the number of the current frame
+     */
+    public long getFrame()
+    { return frame; }
+
+    /**
+     *
+     * @return the number of sprites drawn
+     */
+    public int getSpritesDrawn()
+    { return spritesDrawn; }
+
+    /**
+     *
+     * @return the number of sprites culled
+     */
+    public int getSpritesCulled()
+    { return spritesCulled; }
+
+    /**
+     * @param layer the layer
+     * @return the number of sprites drawn in the given layer
+     */
+    public int getSpritesDrawn(Layer layer)
+    { return drawnPerLayer.get(layer, 0); }
+
+    /**
+     * @param layer the layer
+     * @return the number of sprites culled in the given layer
+     */
+    public int getSpritesCulled(Layer layer)
+    { return culledPerLayer.get(layer, 0); }
+
+    /**
+     *
+     * @return the number of sprite batch flushes (draw calls issued by the sprite batch)
+     */
+    public int getFlushes()
+    { return flushes; }
+
+    /**
+     * @param cause the flush cause
+     * @return the number of sprite batch flushes with the given cause
+     */
+    public int getFlushes(FlushCause cause)
+    { return flushesPerCause[cause.ordinal()]; }
+
+    /**
+     * Flushes (except the ones caused by ending the batch) are attributed to the component class that was rendering when the flush happened.
+     * A class with many flushes is usually breaking the batch.
+     * @param componentClass the component class
+     * @return the number of flushes caused by the given component class
+     */
+    public int getFlushes(Class<? extends Component> componentClass)
+    { return flushesPerComponent.get(componentClass, 0); }
+
+    /**
+     *
+     * @return the flushes attributed to every component class
+     */
+    public ObjectIntMap<Class<?>> getFlushesPerComponent()
+    { return flushesPerComponent; }
+
+    /**
+     *
+     * @return the number of {@link com.badlogic.gdx.graphics.glutils.ShapeRenderer} passes
+     */
+    public int getShapeRendererPasses()
+    { return shapeRendererPasses; }
+
+    /**
+     *
+     * @return the time (in nanoseconds) spent drawing the UI canvas
+     */
+    public long getCanvasDrawTime()
+    { return canvasDrawTime; }
+
+    /**
+     *
+     * @return the number of GL draw calls. Available only when a {@link GLProfiler} is set
+     */
+    public int getDrawCalls()
+    { return drawCalls; }
+
+    /**
+     *
+     * @return the number of texture bindings. Available only when a {@link GLProfiler} is set
+     */
+    public int getTextureBindings()
+    { return textureBindings; }
+
+    /**
+     *
+     * @return the number of shader switches. Available only when a {@link GLProfiler} is set
+     */
+    public int getShaderSwitches()
+    { return shaderSwitches; }
+
+    /**
+     *
+     * @return the number of vertices rendered. Available only when a {@link GLProfiler} is set
+     */
+    public float getVertexCount()
+    { return vertexCount; }
+
+    /**
+     * Starts a new frame. All the values are reset.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __beginFrame() {
+        frame++;
+
+        spritesDrawn = spritesCulled = 0;
+        drawnPerLayer.clear();
+        culledPerLayer.clear();
+        layers.clear();
+
+        flushes = 0;
+        for (int i = 0; i < flushesPerCause.length; i++)
+            flushesPerCause[i] = 0;
+        flushesPerComponent.clear();
+
+        shapeRendererPasses = 0;
+        canvasDrawTime = 0;
+
+        currentLayer = null;
+        currentComponentClass = null;
+
+        if (profiler != null)
+            profiler.reset();
+    }
+
+    /**
+     * Ends the current frame. The stats are written to the CSV log, if any.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __endFrame() {
+        if (profiler != null) {
+            drawCalls = profiler.getDrawCalls();
+            textureBindings = profiler.getTextureBindings();
+            shaderSwitches = profiler.getShaderSwitches();
+            vertexCount = profiler.getVertexCount().total;
+        }
+
+        currentLayer = null;
+        currentComponentClass = null;
+
+        if (csvWriter != null)
+            writeCsvRow();
+    }
+
+    private void writeCsvRow() {
+        StringBuilder row = new StringBuilder();
+        row.append(frame).append(',')
+                .append(spritesDrawn).append(',')
+                .append(spritesCulled).append(',')
+                .append(flushes);
+
+        for (FlushCause cause : FLUSH_CAUSES)
+            row.append(',').append(flushesPerCause[cause.ordinal()]);
+
+        row.append(',').append(shapeRendererPasses)
+                .append(',').append(canvasDrawTime / 1000000f)
+                .append(',').append(drawCalls)
+                .append(',').append(textureBindings)
+                .append(',').append(shaderSwitches)
+                .append(',').append(vertexCount)
+                .append(',');
+
+        // Layers are written as name=drawn/culled separated by semicolons
+        for (int i = 0; i < layers.size; i++) {
+            Layer layer = layers.get(i);
+            if (i > 0)
+                row.append(';');
+
+            row.append(layer.getName()).append('=')
+                    .append(drawnPerLayer.get(layer, 0)).append('/')
+                    .append(culledPerLayer.get(layer, 0));
+        }
+        row.append('\n');
+
+        try {
+            csvWriter.write(row.toString());
+        } catch (IOException e) {
+            Gdx.app.error(getClass().getSimpleName(), "Failed to write render stats log: " + e.getMessage());
+            closeCsvLog();
+        }
+    }
+
+    /**
+     * Sets the layer being rendered.
+     * This method is called internally by the system. Do not call it directly!
+     * @param layer the layer
+     */
+    public void __setLayer(Layer layer) {
+        currentLayer = layer;
+        if (layer != null && !layers.contains(layer, true))
+            layers.add(layer);
+    }
+
+    /**
+     * Sets the component being rendered.
+     * This method is called internally by the system. Do not call it directly!
+     * @param component the component
+     */
+    public void __setComponent(Component component)
+    { currentComponentClass = component != null ? component.getClass() : null; }
+
+    /**
+     * Records a drawn sprite.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __spriteDrawn() {
+        spritesDrawn++;
+        if (currentLayer != null)
+            drawnPerLayer.getAndIncrement(currentLayer, 0, 1);
+    }
+
+    /**
+     * Records a culled sprite.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __spriteCulled() {
+        spritesCulled++;
+        if (currentLayer != null)
+            culledPerLayer.getAndIncrement(currentLayer, 0, 1);
+    }
+
+    /**
+     * Records a sprite batch flush.
+     * This method is called internally by the system. Do not call it directly!
+     * @param cause the cause of the flush
+     */
+    public void __flushed(FlushCause cause) {
+        flushes++;
+        flushesPerCause[cause.ordinal()]++;
+
+        if (cause != FlushCause.END && currentComponentClass != null)
+            flushesPerComponent.getAndIncrement(currentComponentClass, 0, 1);
+    }
+
+    /**
+     * Records a {@link com.badlogic.gdx.graphics.glutils.ShapeRenderer} pass.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __shapeRendererPass()
+    { shapeRendererPasses++; }
+
+    /**
+     * Records the time spent drawing the UI canvas.
+     * This method is called internally by the system. Do not call it directly!
+     * @param nanos the time in nanoseconds
+     */
+    public void __canvasDrawn(long nanos)
+    { canvasDrawTime += nanos; }
+
+    @Override
+    public void dispose() {
+        closeCsvLog();
+
+        if (profiler != null)
+            profiler.disable();
+    }
+}
@@ -0,0 +1,153 @@
+package com.isoterik.mgdx.graphics;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+import com.isoterik.mgdx.MinGdx;
+
+/**
+ * A pool of shared {@link SpriteBatch}es. Every {@link SpriteBatch} allocates its own vertex buffer, mesh and (by default) shader; sharing them across
+ * cameras and scenes saves GPU memory and start-up time.
+ * <p>
+ * Batches are keyed by their size and shader. Borrowers {@link #obtain(int, ShaderProgram) obtain} a batch and {@link #free(SpriteBatch) free} it
+ * once they no longer need it. A batch is shared by every borrower that requested the same size and shader; this is safe because scenes never
+ * render at the same time (each scene sets the projection matrix before drawing). Batches that are no longer borrowed are kept for reuse until
+ * {@link #disposeUnused()} is called or the game is disposed.
+ * <p>
+ * The batches are instances of {@link ProfilingSpriteBatch} so scenes can report why they flush (see {@link RenderStats}).
+ *
+ * @author isoteriksoftware
+ */
+public final class SpriteBatchPool {
+    /** The maximum number of sprites a {@link SpriteBatch} can hold. */
+    public static final int MAX_SIZE = 8191;
+
+    private final Array<Entry> entries = new Array<>();
+
+    private static SpriteBatchPool instance;
+
+    /**
+     * Initializes the pool.
+     * <strong>DO NOT CALL THIS METHOD!</strong>
+     */
+    public static void __init()
+    { instance = new SpriteBatchPool(); }
+
+    /**
+     *
+     * @return the shared instance or null if minGDX is not initialized yet
+     */
+    public static SpriteBatchPool instance()
+    { return instance; }
+
+    private SpriteBatchPool() {}
+
+    /**
+     * Obtains a shared batch with the given size and shader. A new batch is created only if none exists for the given size and shader.
+     * @param size the maximum number of sprites in a single batch (max 8191)
+     * @param shader the shader to use or null for the default shader
+     * @return the shared batch
+     * @throws IllegalArgumentException if the size is greater than {@link #MAX_SIZE}
+     */
+    public SpriteBatch obtain(int size, ShaderProgram shader) throws IllegalArgumentException {
+        if (size > MAX_SIZE)
+            throw new IllegalArgumentException("A SpriteBatch cannot hold more than " + MAX_SIZE + " sprites: " + size);
+
+        for (Entry entry : entries) {
+            if (entry.size == size && entry.shader == shader) {
+                entry.references++;
+                return entry.batch;
+            }
+        }
+
+        Entry entry = new Entry(new ProfilingSpriteBatch(size, shader), size, shader);
+        entry.references++;
+        entries.add(entry);
+
+        return entry.batch;
+    }
+
+    /**
+     * Obtains a shared batch with the given size and the default shader.
+     * @param size the maximum number of sprites in a single batch (max 8191)
+     * @return the shared batch
+     * @throws IllegalArgumentException if the size is greater than {@link #MAX_SIZE}
+     */
+    public SpriteBatch obtain(int size) throws IllegalArgumentException
+    { return obtain(size, null); }
+
+    /**
+     * Obtains a shared batch with the default size ({@link MinGdx.DefaultSettings#SPRITE_BATCH_SIZE}) and the default shader.
+     * @return the shared batch
+     */
+    public SpriteBatch obtain()
+    { return obtain(MinGdx.instance().defaultSettings.SPRITE_BATCH_SIZE); }
+
+    /**
+     * Returns a batch obtained from this pool. The batch must not be used by the caller after this call.
+     * @param batch the batch to return
+     * @return true if the batch belongs to this pool. false otherwise
+     */
+    public boolean free(SpriteBatch batch) {
+        for (Entry entry : entries) {
+            if (entry.batch == batch) {
+                if (entry.references > 0)
+                    entry.references--;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if a batch belongs to this pool.
+     * @param batch the batch to check
+     * @return true if the batch was created by this pool. false otherwise
+     */
+    public boolean owns(SpriteBatch batch) {
+        for (Entry entry : entries) {
+            if (entry.batch == batch)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Disposes every batch that is no longer borrowed.
+     */
+    public void disposeUnused() {
+        for (int i = entries.size - 1; i >= 0; i--) {
+            Entry entry = entries.get(i);
+            if (entry.references == 0) {
+                entry.batch.dispose();
+                entries.removeIndex(i);
+            }
+        }
+    }
+
+    /**
+     * Disposes every batch of this pool.
+     * <strong>DO NOT CALL THIS METHOD!</strong>
+     */
+    public void __dispose() {
+        for (Entry entry : entries)
+            entry.batch.dispose();
+
+        entries.clear();
+    }
+
+    private static class Entry {
+        final SpriteBatch batch;
+        final int size;
+        final ShaderProgram shader;
+        int references;
+
+        Entry(SpriteBatch batch, int size, ShaderProgram shader) {
+            this.batch = batch;
+            this.size = size;
+            this.shader = shader;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.isoterik.mgdx.graphics.postprocessing;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+/**
+ * Makes bright areas glow. The bright areas are extracted and blurred at a reduced resolution (quarter resolution by default) and then added to the source.
+ *
+ * @author isoteriksoftware
+ */
+public class BloomEffect extends PostProcessingEffect {
+    private static final String THRESHOLD_SHADER = FRAGMENT_HEADER +
+            "uniform float u_threshold;\n" +
+            "void main() {\n" +
+            "    vec4 color = texture2D(u_texture, v_texCoords);\n" +
+            "    float luminance = dot(color.rgb, vec3(0.2126, 0.7152, 0.0722));\n" +
+            "    float factor = max(luminance - u_threshold, 0.0) / max(1.0 - u_threshold, 0.0001);\n" +
+            "    gl_FragColor = vec4(color.rgb * factor, 1.0);\n" +
+            "}\n";
+
+    private static final String COMBINE_SHADER = FRAGMENT_HEADER +
+            "uniform sampler2D u_bloom;\n" +
+            "uniform float u_intensity;\n" +
+            "void main() {\n" +
+            "    vec4 color = texture2D(u_texture, v_texCoords);\n" +
+            "    gl_FragColor = vec4(color.rgb + texture2D(u_bloom, v_texCoords).rgb * u_intensity, color.a);\n" +
+            "}\n";
+
+    private final ShaderProgram thresholdShader;
+    private final ShaderProgram combineShader;
+    private final BlurEffect blur;
+
+    private float threshold;
+    private float intensity;
+
+    /**
+     * Creates a new instance.
+     * @param threshold the luminance (0 - 1) above which areas glow
+     * @param intensity the intensity of the glow
+     */
+    public BloomEffect(float threshold, float intensity) {
+        thresholdShader = createShader(THRESHOLD_SHADER);
+        combineShader = createShader(COMBINE_SHADER);
+        blur = new BlurEffect(.25f, 2);
+
+        this.threshold = threshold;
+        this.intensity = intensity;
+    }
+
+    /**
+     * Creates a new instance with a threshold of 0.7 and an intensity of 1.
+     */
+    public BloomEffect()
+    { this(.7f, 1f); }
+
+    /**
+     * Sets the luminance (0 - 1) above which areas glow.
+     * @param threshold the threshold
+     */
+    public void setThreshold(float threshold)
+    { this.threshold = threshold; }
+
+    /**
+     *
+     * @return the luminance above which areas glow
+     */
+    public float getThreshold()
+    { return threshold; }
+
+    /**
+     * Sets the intensity of the glow.
+     * @param intensity the intensity
+     */
+    public void setIntensity(float intensity)
+    { this.intensity = intensity; }
+
+    /**
+     *
+     * @return the intensity of the glow
+     */
+    public float getIntensity()
+    { return intensity; }
+
+    /**
+     * The blur used for spreading the glow. Use it to change the resolution and the number of passes of the glow.
+     * @return the blur used for spreading the glow
+     */
+    public BlurEffect getBlur()
+    { return blur; }
+
+    @Override
+    public void apply(PostProcessor postProcessor, Texture source, FrameBuffer destination) {
+        FrameBuffer ping = postProcessor.obtainFrameBuffer(blur.getResolutionScale());
+        FrameBuffer pong = postProcessor.obtainFrameBuffer(blur.getResolutionScale());
+
+        // Extract the bright areas at the reduced resolution
+        postProcessor.beginPass(thresholdShader, ping);
+        thresholdShader.setUniformf("u_threshold", threshold);
+        postProcessor.endPass(source);
+
+        blur.blur(postProcessor, ping, pong);
+
+        // Add the glow to the source
+        ping.getColorBufferTexture().bind(1);
+        Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0);
+
+        postProcessor.beginPass(combineShader, destination);
+        combineShader.setUniformi("u_bloom", 1);
+        combineShader.setUniformf("u_intensity", intensity);
+        postProcessor.endPass(source);
+
+        postProcessor.freeFrameBuffer(ping);
+        postProcessor.freeFrameBuffer(pong);
+    }
+
+    @Override
+    public void dispose() {
+        thresholdShader.dispose();
+        combineShader.dispose();
+        blur.dispose();
+    }
+}
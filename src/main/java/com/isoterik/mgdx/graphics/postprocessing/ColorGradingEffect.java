@@ -0,0 +1,116 @@
+package com.isoterik.mgdx.graphics.postprocessing;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+/**
+ * Adjusts the brightness, contrast and saturation of the screen and tints it. It runs in a single pass.
+ *
+ * @author isoteriksoftware
+ */
+public class ColorGradingEffect extends PostProcessingEffect {
+    private static final String FRAGMENT_SHADER = FRAGMENT_HEADER +
+            "uniform float u_brightness;\n" +
+            "uniform float u_contrast;\n" +
+            "uniform float u_saturation;\n" +
+            "uniform vec3 u_tint;\n" +
+            "void main() {\n" +
+            "    vec4 color = texture2D(u_texture, v_texCoords);\n" +
+            "    vec3 rgb = color.rgb + u_brightness;\n" +
+            "    rgb = (rgb - 0.5) * u_contrast + 0.5;\n" +
+            "    float luminance = dot(rgb, vec3(0.2126, 0.7152, 0.0722));\n" +
+            "    rgb = mix(vec3(luminance), rgb, u_saturation) * u_tint;\n" +
+            "    gl_FragColor = vec4(clamp(rgb, 0.0, 1.0), color.a);\n" +
+            "}\n";
+
+    private final ShaderProgram shader;
+
+    private float brightness;
+    private float contrast;
+    private float saturation;
+    private final Color tint;
+
+    /**
+     * Creates a new instance that leaves the colors unchanged.
+     */
+    public ColorGradingEffect() {
+        shader = createShader(FRAGMENT_SHADER);
+
+        brightness = 0;
+        contrast = 1;
+        saturation = 1;
+        tint = new Color(Color.WHITE);
+    }
+
+    /**
+     * Sets the brightness. 0 leaves the brightness unchanged.
+     * @param brightness the brightness (-1 - 1)
+     */
+    public void setBrightness(float brightness)
+    { this.brightness = brightness; }
+
+    /**
+     *
+     * @return the brightness
+     */
+    public float getBrightness()
+    { return brightness; }
+
+    /**
+     * Sets the contrast. 1 leaves the contrast unchanged.
+     * @param contrast the contrast
+     */
+    public void setContrast(float contrast)
+    { this.contrast = contrast; }
+
+    /**
+     *
+     * @return the contrast
+     */
+    public float getContrast()
+    { return contrast; }
+
+    /**
+     * Sets the saturation. 0 produces grayscale colors and 1 leaves the saturation unchanged.
+     * @param saturation the saturation
+     */
+    public void setSaturation(float saturation)
+    { this.saturation = saturation; }
+
+    /**
+     *
+     * @return the saturation
+     */
+    public float getSaturation()
+    { return saturation; }
+
+    /**
+     * Sets the color the screen is multiplied with. White leaves the colors unchanged.
+     * @param tint the tint
+     */
+    public void setTint(Color tint)
+    { this.tint.set(tint); }
+
+    /**
+     *
+     * @return the color the screen is multiplied with
+     */
+    public Color getTint()
+    { return tint; }
+
+    @Override
+    public void apply(PostProcessor postProcessor, Texture source, FrameBuffer destination) {
+        postProcessor.beginPass(shader, destination);
+        shader.setUniformf("u_brightness", brightness);
+        shader.setUniformf("u_contrast", contrast);
+        shader.setUniformf("u_saturation", saturation);
+        shader.setUniformf("u_tint", tint.r, tint.g, tint.b);
+        postProcessor.endPass(source);
+    }
+
+    @Override
+    public void dispose()
+    { shader.dispose(); }
+}
@@ -0,0 +1,86 @@
+package com.isoterik.mgdx.graphics.postprocessing;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * The base class of every effect that can be added to a {@link PostProcessor}.
+ * <p>
+ * An effect reads a source texture and renders into a destination using one or more full screen passes
+ * ({@link PostProcessor#beginPass(ShaderProgram, FrameBuffer)}/{@link PostProcessor#endPass(Texture)}). Effects that need intermediate targets should
+ * borrow them with {@link PostProcessor#obtainFrameBuffer(float)} and free them before {@link #apply(PostProcessor, Texture, FrameBuffer)} returns;
+ * blur-type effects can borrow them at a reduced resolution.
+ *
+ * @author isoteriksoftware
+ */
+public abstract class PostProcessingEffect implements Disposable {
+    /** A vertex shader that is compatible with {@link com.badlogic.gdx.graphics.g2d.SpriteBatch}. It passes the texture coordinates as {@code v_texCoords}. */
+    protected static final String VERTEX_SHADER =
+            "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+            "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" +
+            "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+            "uniform mat4 u_projTrans;\n" +
+            "varying vec4 v_color;\n" +
+            "varying vec2 v_texCoords;\n" +
+            "void main() {\n" +
+            "    v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" +
+            "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+            "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+            "}\n";
+
+    /** The header every fragment shader of the built-in effects starts with. */
+    protected static final String FRAGMENT_HEADER =
+            "#ifdef GL_ES\n" +
+            "precision mediump float;\n" +
+            "#endif\n" +
+            "varying vec4 v_color;\n" +
+            "varying vec2 v_texCoords;\n" +
+            "uniform sampler2D u_texture;\n";
+
+    protected boolean enabled = true;
+
+    /**
+     * Enables/Disables this effect. Disabled effects are skipped; the post processor is skipped entirely when every effect is disabled.
+     * @param enabled whether this effect is enabled
+     */
+    public void setEnabled(boolean enabled)
+    { this.enabled = enabled; }
+
+    /**
+     *
+     * @return whether this effect is enabled
+     */
+    public boolean isEnabled()
+    { return enabled; }
+
+    /**
+     * Applies this effect.
+     * @param postProcessor the post processor running the effect
+     * @param source the texture to read from
+     * @param destination the frame buffer to render into or null to render to the screen
+     */
+    public abstract void apply(PostProcessor postProcessor, Texture source, FrameBuffer destination);
+
+    /**
+     * Compiles a shader given a fragment shader. {@link #VERTEX_SHADER} is used as the vertex shader.
+     * @param fragmentShader the source of the fragment shader
+     * @return the compiled shader
+     * @throws GdxRuntimeException if the shader fails to compile
+     */
+    protected static ShaderProgram createShader(String fragmentShader) throws GdxRuntimeException {
+        ShaderProgram shader = new ShaderProgram(VERTEX_SHADER, fragmentShader);
+        if (!shader.isCompiled()) {
+            String log = shader.getLog();
+            shader.dispose();
+            throw new GdxRuntimeException("Failed to compile post processing shader: " + log);
+        }
+
+        return shader;
+    }
+
+    @Override
+    public void dispose() {}
+}
@@ -0,0 +1,225 @@
+package com.isoterik.mgdx.graphics.postprocessing;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.isoterik.mgdx.MinGdx;
+import com.isoterik.mgdx.graphics.FrameBufferPool;
+
+/**
+ * A chain of {@link PostProcessingEffect}s applied to the world of a {@link com.isoterik.mgdx.Scene}. The UI canvas is not affected.
+ * <p>
+ * The world is rendered into a frame buffer and then every enabled effect is applied in the order they were added. Effects ping-pong between two
+ * frame buffers and the last effect renders straight to the screen (or whatever target the scene is being rendered into). Every frame buffer is
+ * borrowed from the shared {@link FrameBufferPool} and returned at the end of the frame, so effects share their targets and resizing the screen reuses
+ * the pooled targets.
+ * <p>
+ * When no effect is enabled, the post processor is skipped entirely and the world is rendered directly.
+ * <p>
+ * To use it, simply set an instance on a scene using {@link com.isoterik.mgdx.Scene#setPostProcessor(PostProcessor)}.
+ *
+ * @author isoteriksoftware
+ */
+public class PostProcessor implements Disposable {
+    private final Array<PostProcessingEffect> effects = new Array<>();
+    private final Array<PostProcessingEffect> enabledEffects = new Array<>();
+
+    private Pixmap.Format format;
+
+    private final SpriteBatch batch;
+
+    private FrameBuffer sceneBuffer;
+    private FrameBuffer passDestination;
+    private int width, height;
+
+    /**
+     * Creates a new instance. The frame buffers use the RGB888 format.
+     */
+    public PostProcessor() {
+        format = Pixmap.Format.RGB888;
+
+        batch = new SpriteBatch(1);
+        batch.getProjectionMatrix().setToOrtho2D(0, 0, 1, 1);
+        batch.disableBlending();
+    }
+
+    /**
+     * Adds an effect to the end of the chain.
+     * @param effect the effect to add
+     */
+    public void addEffect(PostProcessingEffect effect)
+    { effects.add(effect); }
+
+    /**
+     * Removes an effect from the chain. The effect is not disposed.
+     * @param effect the effect to remove
+     * @return true if the effect was removed. false otherwise
+     */
+    public boolean removeEffect(PostProcessingEffect effect)
+    { return effects.removeValue(effect, true); }
+
+    /**
+     *
+     * @return the effects of the chain
+     */
+    public Array<PostProcessingEffect> getEffects()
+    { return effects; }
+
+    /**
+     *
+     * @return whether at least one effect is enabled
+     */
+    public boolean hasEnabledEffects() {
+        for (PostProcessingEffect effect : effects) {
+            if (effect.isEnabled())
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Sets the format of the frame buffers. Use a format with alpha only if an effect needs it. Defaults to RGB888
+     * @param format the format of the frame buffers
+     */
+    public void setFormat(Pixmap.Format format)
+    { this.format = format; }
+
+    /**
+     *
+     * @return the format of the frame buffers
+     */
+    public Pixmap.Format getFormat()
+    { return format; }
+
+    /**
+     *
+     * @return the width (in pixels) of the frame being processed
+     */
+    public int getWidth()
+    { return width; }
+
+    /**
+     *
+     * @return the height (in pixels) of the frame being processed
+     */
+    public int getHeight()
+    { return height; }
+
+    /**
+     * Obtains a frame buffer from the shared pool at a fraction of the size of the frame being processed.
+     * It must be returned with {@link #freeFrameBuffer(FrameBuffer)} before the effect completes.
+     * @param scale the resolution scale (for example, 0.5 for half resolution and 0.25 for quarter resolution)
+     * @return the frame buffer
+     */
+    public FrameBuffer obtainFrameBuffer(float scale) {
+        return MinGdx.instance().frameBuffers.obtain(format, (int)(width * scale), (int)(height * scale),
+                false);
+    }
+
+    /**
+     * Returns a frame buffer obtained with {@link #obtainFrameBuffer(float)}.
+     * @param frameBuffer the frame buffer
+     */
+    public void freeFrameBuffer(FrameBuffer frameBuffer)
+    { MinGdx.instance().frameBuffers.free(frameBuffer); }
+
+    /**
+     * Starts a full screen pass. The shader is bound when this method returns so its uniforms can be set. Complete the pass with {@link #endPass(Texture)}.
+     * @param shader the shader of the pass or null to copy the texture as it is
+     * @param destination the frame buffer to render into or null to render to the current target
+     */
+    public void beginPass(ShaderProgram shader, FrameBuffer destination) {
+        passDestination = destination;
+
+        FrameBufferPool frameBuffers = MinGdx.instance().frameBuffers;
+        if (destination != null)
+            frameBuffers.begin(destination);
+        else
+            Gdx.gl.glViewport(0, 0, frameBuffers.getTargetWidth(), frameBuffers.getTargetHeight());
+
+        batch.setShader(shader);
+        batch.begin();
+    }
+
+    /**
+     * Draws a texture over the whole destination of the pass started with {@link #beginPass(ShaderProgram, FrameBuffer)} and completes the pass.
+     * @param source the texture to draw. It is bound to the texture unit 0
+     */
+    public void endPass(Texture source) {
+        // Frame buffer textures are upside down; draw them with flipped texture coordinates
+        batch.draw(source, 0, 0, 1, 1, 0, 0, 1, 1);
+        batch.end();
+
+        if (passDestination != null) {
+            MinGdx.instance().frameBuffers.end();
+            passDestination = null;
+        }
+    }
+
+    /**
+     * Starts rendering the world into an offscreen frame buffer that covers the current render target.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __begin() {
+        FrameBufferPool frameBuffers = MinGdx.instance().frameBuffers;
+        width = frameBuffers.getTargetWidth();
+        height = frameBuffers.getTargetHeight();
+
+        sceneBuffer = frameBuffers.obtain(format, width, height, false);
+        frameBuffers.begin(sceneBuffer);
+    }
+
+    /**
+     * Stops rendering the world and applies the enabled effects. The last effect renders to the previous render target.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __end() {
+        FrameBufferPool frameBuffers = MinGdx.instance().frameBuffers;
+        frameBuffers.end();
+
+        enabledEffects.clear();
+        for (PostProcessingEffect effect : effects) {
+            if (effect.isEnabled())
+                enabledEffects.add(effect);
+        }
+
+        FrameBuffer source = sceneBuffer;
+        FrameBuffer pingPong = enabledEffects.size > 1 ? frameBuffers.obtain(format, width, height, false) : null;
+
+        for (int i = 0; i < enabledEffects.size; i++) {
+            boolean last = i == enabledEffects.size - 1;
+            FrameBuffer destination = last ? null : (source == sceneBuffer ? pingPong : sceneBuffer);
+
+            enabledEffects.get(i).apply(this, source.getColorBufferTexture(), destination);
+            source = destination;
+        }
+
+        // Nothing was enabled; copy the world as it is
+        if (enabledEffects.isEmpty()) {
+            beginPass(null, null);
+            endPass(sceneBuffer.getColorBufferTexture());
+        }
+
+        if (pingPong != null)
+            frameBuffers.free(pingPong);
+        frameBuffers.free(sceneBuffer);
+        sceneBuffer = null;
+    }
+
+    /**
+     * Disposes this post processor and every effect of the chain.
+     */
+    @Override
+    public void dispose() {
+        for (PostProcessingEffect effect : effects)
+            effect.dispose();
+
+        batch.dispose();
+    }
+}
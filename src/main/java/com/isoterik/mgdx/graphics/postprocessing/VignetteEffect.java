@@ -0,0 +1,103 @@
+package com.isoterik.mgdx.graphics.postprocessing;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+/**
+ * Darkens the edges of the screen. It runs in a single pass.
+ *
+ * @author isoteriksoftware
+ */
+public class VignetteEffect extends PostProcessingEffect {
+    private static final String FRAGMENT_SHADER = FRAGMENT_HEADER +
+            "uniform float u_radius;\n" +
+            "uniform float u_softness;\n" +
+            "uniform float u_intensity;\n" +
+            "void main() {\n" +
+            "    vec4 color = texture2D(u_texture, v_texCoords);\n" +
+            "    float vignette = smoothstep(u_radius, u_radius - u_softness, distance(v_texCoords, vec2(0.5)));\n" +
+            "    gl_FragColor = vec4(mix(color.rgb, color.rgb * vignette, u_intensity), color.a);\n" +
+            "}\n";
+
+    private final ShaderProgram shader;
+
+    private float radius;
+    private float softness;
+    private float intensity;
+
+    /**
+     * Creates a new instance.
+     * @param radius the distance from the center of the screen (0 - 1) where the edges start darkening
+     * @param softness how gradually the edges darken
+     * @param intensity how dark the edges get (0 - 1)
+     */
+    public VignetteEffect(float radius, float softness, float intensity) {
+        shader = createShader(FRAGMENT_SHADER);
+
+        this.radius = radius;
+        this.softness = softness;
+        this.intensity = intensity;
+    }
+
+    /**
+     * Creates a new instance with a radius of 0.75, a softness of 0.45 and an intensity of 0.8.
+     */
+    public VignetteEffect()
+    { this(.75f, .45f, .8f); }
+
+    /**
+     * Sets the distance from the center of the screen (0 - 1) where the edges start darkening.
+     * @param radius the radius
+     */
+    public void setRadius(float radius)
+    { this.radius = radius; }
+
+    /**
+     *
+     * @return the distance from the center of the screen where the edges start darkening
+     */
+    public float getRadius()
+    { return radius; }
+
+    /**
+     * Sets how gradually the edges darken.
+     * @param softness the softness
+     */
+    public void setSoftness(float softness)
+    { this.softness = softness; }
+
+    /**
+     *
+     * @return how gradually the edges darken
+     */
+    public float getSoftness()
+    { return softness; }
+
+    /**
+     * Sets how dark the edges get.
+     * @param intensity the intensity (0 - 1)
+     */
+    public void setIntensity(float intensity)
+    { this.intensity = intensity; }
+
+    /**
+     *
+     * @return how dark the edges get
+     */
+    public float getIntensity()
+    { return intensity; }
+
+    @Override
+    public void apply(PostProcessor postProcessor, Texture source, FrameBuffer destination) {
+        postProcessor.beginPass(shader, destination);
+        shader.setUniformf("u_radius", radius);
+        shader.setUniformf("u_softness", softness);
+        shader.setUniformf("u_intensity", intensity);
+        postProcessor.endPass(source);
+    }
+
+    @Override
+    public void dispose()
+    { shader.dispose(); }
+}
@@ -9,7 +9,9 @@ import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -19,10 +21,27 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.isoterik.mgdx.MinGdx;
+import com.isoterik.mgdx.Scene;
+import com.isoterik.mgdx.SceneManager;
+
+import java.util.Comparator;
 
 /**
  * For loading and managing game assets. This class uses {@link AssetManager} internally for handling assets.
  * Assets can be loaded either synchronously or asynchronously.
+ * <p>
+ * The loader estimates the GPU memory used by loaded {@link Texture}s and {@link TextureAtlas}es (width x height x bytes per pixel of the format).
+ * When a budget is set with {@link #setGpuMemoryBudget(long)} and exceeded, textures and atlases that are not owned by any scene are unloaded, least
+ * recently used first. An evicted asset is loaded again (synchronously), with the parameters it was enqueued with, the next time it is retrieved from this loader.
+ * Textures and atlases retrieved from this loader are claimed automatically for the scene that uses them: a scene that was created but is not shown yet
+ * (its construction and setup load its assets), the scene being transitioned to, or the current scene when there is no transition. Assets are never
+ * claimed for the outgoing scene of a transition. Scenes can also claim assets with {@link #retainAsset(String, Scene)}. The claims are released when
+ * the scene is destroyed.
+ * <strong>Note:</strong> an evicted texture is disposed, so objects that still hold it must not be rendered. Retain the assets of every scene that can still be shown.
  *
  * @author isoteriksoftware
  */
@@ -34,6 +53,27 @@ public final class GameAssetsLoader {
 	
 	private static GameAssetsLoader instance;
 
+	/* Orders eviction candidates from the least recently used */
+	private static final Comparator<TrackedAsset> LEAST_RECENTLY_USED = new Comparator<TrackedAsset>() {
+		@Override
+		public int compare(TrackedAsset a, TrackedAsset b)
+		{ return Long.compare(a.lastUsedFrame, b.lastUsedFrame); }
+	};
+
+	/* The loaded textures and atlases. Assets claimed by scenes before they are loaded are tracked too */
+	private final ObjectMap<String, TrackedAsset> trackedAssets = new ObjectMap<>();
+	private final Array<TrackedAsset> evictionCandidates = new Array<>();
+	private final ObjectSet<String> atlasTextures = new ObjectSet<>();
+	private int trackedLoadedCount = -1;
+	private boolean assetsUnloaded;
+
+	/* The last scene created. It is credited with the assets retrieved until it is shown */
+	private Scene loadingScene;
+
+	private long gpuMemoryBudget;
+	private long gpuMemoryUsage;
+	private int evictedAssetsCount;
+
 	/**
 	 * Initialized the loader. DO NOT CALL THIS METHOD
 	 */
@@ -48,7 +88,15 @@ public final class GameAssetsLoader {
 	{ return instance; }
 	
     private GameAssetsLoader() {
-        assetManager = new AssetManager();
+        assetManager = new AssetManager() {
+            @Override
+            public synchronized void unload(String fileName) {
+                super.unload(fileName);
+
+                // Loading and unloading assets between two syncs can leave the number of loaded assets unchanged
+                assetsUnloaded = true;
+            }
+        };
         setLoader(TiledMap.class, new TmxMapLoader(new InternalFileHandleResolver()));
     }
 
@@ -192,7 +240,28 @@ public final class GameAssetsLoader {
 	 * @param <T> asset type
 	 */
 	public <T> void enqueueAsset (String path, Class<T> assetClass)
-    { assetManager.load(path, assetClass); }
+    { enqueueAsset(path, assetClass, null); }
+
+	/**
+	 * Enqueues an asset of the specified type with loader parameters. The parameters are used again when the asset is loaded after being evicted.
+	 * @param path path to asset
+	 * @param assetClass asset class
+	 * @param parameters the loader parameters. Can be null
+	 * @param <T> asset type
+	 */
+	public <T> void enqueueAsset (String path, Class<T> assetClass, AssetLoaderParameters<T> parameters) {
+		if (parameters != null && (assetClass == Texture.class || assetClass == TextureAtlas.class)) {
+			TrackedAsset asset = trackedAssets.get(path);
+			if (asset == null) {
+				asset = new TrackedAsset(path);
+				trackedAssets.put(path, asset);
+			}
+
+			asset.loadParameters = new LoadParameters<>(assetClass, parameters);
+		}
+
+		assetManager.load(path, assetClass, parameters);
+	}
 
 	/**
 	 * Convenient method for enqueueing {@link Skin} assets
@@ -213,8 +282,11 @@ public final class GameAssetsLoader {
 	 * otherwise it finishes the current task and starts the next task.
 	 * @return true if all loading is finished
 	 */
-    public boolean tickLoader()
-    { return(assetManager.update()); }
+    public boolean tickLoader() {
+		boolean finished = assetManager.update();
+		syncTrackedAssets();
+		return finished;
+	}
 
 	/**
 	 *
@@ -229,8 +301,10 @@ public final class GameAssetsLoader {
 	 * Blocks until all queued assets are loaded.
 	 * This loads synchronously. For asynchronous loading use {@link #loadAssetsInBackground(Runnable)} instead.
 	 */
-	public void loadAssetsNow()
-    { assetManager.finishLoading(); }
+	public void loadAssetsNow() {
+		assetManager.finishLoading();
+		syncTrackedAssets();
+	}
 
 	/**
 	 * Blocks until the specified asset is loaded.
@@ -238,8 +312,10 @@ public final class GameAssetsLoader {
 	 * This loads synchronously. For asynchronous loading use {@link #loadAssetsInBackground(Runnable)} instead.
 	 * @param assetName the name/path of the asset file to load
 	 */
-	public void loadAssetNow(String assetName)
-	{ assetManager.finishLoadingAsset(assetName); }
+	public void loadAssetNow(String assetName) {
+		assetManager.finishLoadingAsset(assetName);
+		syncTrackedAssets();
+	}
 
 	/**
 	 *
@@ -289,6 +365,7 @@ public final class GameAssetsLoader {
 	 * @return the texture
 	 */
     public Texture getTexture(String name, boolean applyLinearFilter) {
+		touch(name);
         Texture texture = assetManager.get(name, Texture.class);
         if (texture == null)
         	return null;
@@ -323,8 +400,10 @@ public final class GameAssetsLoader {
 	 * @param name path to the asset file
 	 * @return the texture atlas
 	 */
-    public TextureAtlas getAtlas(String name)
-    { return(assetManager.get(name, TextureAtlas.class)); }
+    public TextureAtlas getAtlas(String name) {
+		touch(name);
+		return(assetManager.get(name, TextureAtlas.class));
+	}
 
 	/**
 	 * Convenient method for creating {@link TextureRegion}s from loaded {@link Texture}s.
@@ -384,8 +463,10 @@ public final class GameAssetsLoader {
 	 * @param <T> the type of asset
 	 * @return the asset
 	 */
-	public <T> T getAsset(String path, Class<T> assetClass)
-    { return assetManager.get(path, assetClass); }
+	public <T> T getAsset(String path, Class<T> assetClass) {
+		touch(path);
+		return assetManager.get(path, assetClass);
+	}
 
 	/**
 	 * Convenient method for getting loaded {@link Skin} files
@@ -418,6 +499,322 @@ public final class GameAssetsLoader {
 	public AssetManager getAssetManager()
 	{ return assetManager; }
 
+	/**
+	 * Sets the estimated GPU memory (in bytes) that loaded textures and atlases may use. When it is exceeded, textures and atlases that are not owned by any
+	 * scene are unloaded, least recently used first. 0 (the default) means there is no budget.
+	 * @param gpuMemoryBudget the budget in bytes
+	 */
+	public void setGpuMemoryBudget(long gpuMemoryBudget) {
+		this.gpuMemoryBudget = gpuMemoryBudget;
+		enforceGpuMemoryBudget();
+	}
+
+	/**
+	 *
+	 * @return the estimated GPU memory (in bytes) that loaded textures and atlases may use. 0 means there is no budget
+	 */
+	public long getGpuMemoryBudget()
+	{ return gpuMemoryBudget; }
+
+	/**
+	 *
+	 * @return the estimated GPU memory (in bytes) used by the loaded textures and atlases
+	 */
+	public long getGpuMemoryUsage()
+	{ return gpuMemoryUsage; }
+
+	/**
+	 *
+	 * @param filePath path to the asset file
+	 * @return the estimated GPU memory (in bytes) used by a loaded texture or atlas. 0 if the asset is not loaded or is not a texture or an atlas
+	 */
+	public long getGpuMemoryUsage(String filePath) {
+		TrackedAsset asset = trackedAssets.get(filePath);
+		return asset != null && asset.counted ? asset.bytes : 0;
+	}
+
+	/**
+	 *
+	 * @return the number of assets unloaded to stay within the budget since the game started
+	 */
+	public int getEvictedAssetsCount()
+	{ return evictedAssetsCount; }
+
+	/**
+	 * Marks a scene as an owner of an asset. Assets owned by at least one scene are never evicted. The asset does not need to be loaded yet.
+	 * @param filePath path to the asset file
+	 * @param scene the scene
+	 */
+	public void retainAsset(String filePath, Scene scene) {
+		TrackedAsset asset = trackedAssets.get(filePath);
+		if (asset == null) {
+			asset = new TrackedAsset(filePath);
+			trackedAssets.put(filePath, asset);
+		}
+
+		if (!asset.owners.contains(scene, true))
+			asset.owners.add(scene);
+	}
+
+	/**
+	 * Removes a scene from the owners of an asset. The asset can be evicted once it has no owner.
+	 * @param filePath path to the asset file
+	 * @param scene the scene
+	 */
+	public void releaseAsset(String filePath, Scene scene) {
+		TrackedAsset asset = trackedAssets.get(filePath);
+		if (asset != null && asset.owners.removeValue(scene, true))
+			enforceGpuMemoryBudget();
+	}
+
+	/**
+	 * Removes a scene from the owners of every asset. It is called when a scene is destroyed.
+	 * @param scene the scene
+	 */
+	public void releaseAssets(Scene scene) {
+		if (loadingScene == scene)
+			loadingScene = null;
+
+		boolean released = false;
+		for (TrackedAsset asset : trackedAssets.values())
+			released |= asset.owners.removeValue(scene, true);
+
+		if (released)
+			enforceGpuMemoryBudget();
+	}
+
+	/**
+	 * Records a scene that was just created. The assets retrieved until the scene is shown are claimed for it.
+	 * This method is called internally by the system. Do not call it directly!
+	 * @param scene the scene
+	 */
+	public void __sceneCreated(Scene scene)
+	{ loadingScene = scene; }
+
+	/* Updates the last used frame of an asset, claims it for the scenes that use it and loads it again if it was evicted */
+	private void touch(String filePath) {
+		TrackedAsset asset = trackedAssets.get(filePath);
+		if (asset == null)
+			return;
+
+		// Set before loading so the asset is not picked for eviction right away
+		asset.lastUsedFrame = Gdx.graphics.getFrameId();
+
+		claimAsset(asset);
+
+		if (asset.evicted) {
+			asset.evicted = false;
+			if (asset.loadParameters != null)
+				reload(filePath, asset.loadParameters);
+			else
+				reload(filePath, asset.type, null);
+
+			syncTrackedAssets();
+		}
+	}
+
+	private <T> void reload(String filePath, LoadParameters<T> loadParameters)
+	{ reload(filePath, loadParameters.type, loadParameters.parameters); }
+
+	/* Loads an evicted asset again, synchronously */
+	private <T> void reload(String filePath, Class<T> type, AssetLoaderParameters<T> parameters) {
+		assetManager.load(filePath, type, parameters);
+		assetManager.finishLoadingAsset(filePath);
+	}
+
+	/*
+	Claims an asset for the scene that uses it: the scene being set up (the last scene created until it is shown), else the scene being transitioned to,
+	else the current scene. The outgoing scene of a transition, and the scene a new scene is created from, are never credited
+	 */
+	private void claimAsset(TrackedAsset asset) {
+		Scene scene = loadingScene;
+
+		MinGdx minGdx = MinGdx.instance();
+		if (minGdx != null) {
+			SceneManager sceneManager = minGdx.sceneManager;
+			Scene shownScene = sceneManager.getNextScene() != null ? sceneManager.getNextScene() : sceneManager.getCurrentScene();
+
+			// The scene being set up is shown now
+			if (scene == null || scene == shownScene) {
+				loadingScene = null;
+				scene = shownScene;
+			}
+		}
+
+		if (scene != null && !asset.owners.contains(scene, true))
+			asset.owners.add(scene);
+	}
+
+	/*
+	Accounts for the textures and atlases loaded or unloaded since the last call. Nothing is done unless the number of loaded assets changed
+	or an asset was unloaded.
+	The pages of an atlas are loaded as texture dependencies; they are counted once, with the atlas.
+	 */
+	private void syncTrackedAssets() {
+		int loadedCount = assetManager.getLoadedAssets();
+		if (loadedCount == trackedLoadedCount && !assetsUnloaded)
+			return;
+
+		trackedLoadedCount = loadedCount;
+		assetsUnloaded = false;
+		long frame = Gdx.graphics.getFrameId();
+
+		Array<String> names = assetManager.getAssetNames();
+		atlasTextures.clear();
+		for (String name : names) {
+			if (assetManager.getAssetType(name) != TextureAtlas.class)
+				continue;
+
+			Array<String> dependencies = assetManager.getDependencies(name);
+			if (dependencies != null)
+				atlasTextures.addAll(dependencies);
+		}
+
+		for (String name : names) {
+			Class<?> type = assetManager.getAssetType(name);
+			if (type != Texture.class && type != TextureAtlas.class)
+				continue;
+
+			if (type == Texture.class && atlasTextures.contains(name))
+				continue;
+
+			TrackedAsset asset = trackedAssets.get(name);
+			if (asset == null) {
+				asset = new TrackedAsset(name);
+				trackedAssets.put(name, asset);
+			}
+
+			if (asset.counted || !assetManager.isLoaded(name))
+				continue;
+
+			asset.type = type;
+			asset.bytes = type == Texture.class ? estimateGpuBytes(assetManager.get(name, Texture.class))
+					: estimateGpuBytes(assetManager.get(name, TextureAtlas.class));
+			asset.counted = true;
+			asset.evicted = false;
+			if (asset.lastUsedFrame == 0)
+				asset.lastUsedFrame = frame;
+
+			gpuMemoryUsage += asset.bytes;
+		}
+
+		// Assets unloaded directly through the asset manager
+		for (TrackedAsset asset : trackedAssets.values()) {
+			if (asset.counted && !assetManager.isLoaded(asset.path)) {
+				asset.counted = false;
+				gpuMemoryUsage -= asset.bytes;
+			}
+		}
+
+		enforceGpuMemoryBudget();
+	}
+
+	/* Unloads the least recently used assets without owners until the usage is within the budget */
+	private void enforceGpuMemoryBudget() {
+		if (gpuMemoryBudget <= 0 || gpuMemoryUsage <= gpuMemoryBudget)
+			return;
+
+		long frame = Gdx.graphics.getFrameId();
+		evictionCandidates.clear();
+		for (TrackedAsset asset : trackedAssets.values()) {
+			// Assets used in this frame and assets loaded more than once are left alone
+			if (asset.counted && asset.owners.size == 0 && asset.lastUsedFrame < frame
+					&& assetManager.getReferenceCount(asset.path) == 1)
+				evictionCandidates.add(asset);
+		}
+
+		evictionCandidates.sort(LEAST_RECENTLY_USED);
+
+		for (TrackedAsset asset : evictionCandidates) {
+			if (gpuMemoryUsage <= gpuMemoryBudget)
+				break;
+
+			assetManager.unload(asset.path);
+			asset.counted = false;
+			asset.evicted = true;
+			gpuMemoryUsage -= asset.bytes;
+			evictedAssetsCount++;
+		}
+
+		evictionCandidates.clear();
+	}
+
+	/**
+	 * Estimates the GPU memory used by a texture: width x height x bytes per pixel of its format, plus a third if it has mipmaps.
+	 * @param texture the texture
+	 * @return the estimated size in bytes
+	 */
+	public static long estimateGpuBytes(Texture texture) {
+		TextureData data = texture.getTextureData();
+		long bytes = (long)texture.getWidth() * texture.getHeight() * bytesPerPixel(data.getFormat());
+
+		if (data.useMipMaps())
+			bytes += bytes / 3;
+
+		return bytes;
+	}
+
+	/**
+	 * Estimates the GPU memory used by the pages of an atlas.
+	 * @param atlas the atlas
+	 * @return the estimated size in bytes
+	 */
+	public static long estimateGpuBytes(TextureAtlas atlas) {
+		long bytes = 0;
+		for (Texture texture : atlas.getTextures())
+			bytes += estimateGpuBytes(texture);
+
+		return bytes;
+	}
+
+	private static int bytesPerPixel(Pixmap.Format format) {
+		if (format == null)
+			return 4;
+
+		switch (format) {
+			case Alpha:
+			case Intensity:
+				return 1;
+			case LuminanceAlpha:
+			case RGB565:
+			case RGBA4444:
+				return 2;
+			default:
+				// RGB888 is usually stored with 4 bytes per pixel by drivers
+				return 4;
+		}
+	}
+
+	/* The accounting of a texture or an atlas */
+	private static class TrackedAsset {
+		final String path;
+		final Array<Scene> owners = new Array<>();
+		Class<?> type;
+		LoadParameters<?> loadParameters;
+		long bytes;
+		long lastUsedFrame;
+
+		/* Whether the asset is loaded and its bytes are part of the usage */
+		boolean counted;
+
+		/* Whether the asset was unloaded to stay within the budget */
+		boolean evicted;
+
+		TrackedAsset(String path)
+		{ this.path = path; }
+	}
+
+	/* The type and loader parameters an asset was enqueued with */
+	private static class LoadParameters<T> {
+		final Class<T> type;
+		final AssetLoaderParameters<T> parameters;
+
+		LoadParameters(Class<T> type, AssetLoaderParameters<T> parameters) {
+			this.type = type;
+			this.parameters = parameters;
+		}
+	}
+
 	/**
 	 * This method is called internally to dispose the asset manager. Do not call this method!
 	 */
@@ -7,6 +7,7 @@ import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.isoterik.mgdx.GameCamera;
 import com.isoterik.mgdx.MinGdx;
+import com.isoterik.mgdx.graphics.SpriteBatchPool;
 import com.isoterik.mgdx.utils.WorldUnits;
 
 /**
@@ -27,7 +28,11 @@ public class GameCamera2d extends GameCamera {
      */
     public GameCamera2d(Viewport viewport, WorldUnits worldUnits) {
         super(viewport, worldUnits);
-        this.spriteBatch = new SpriteBatch();
+
+        // Borrow a shared batch when minGDX is initialized
+        SpriteBatchPool batchPool = SpriteBatchPool.instance();
+        this.spriteBatch = batchPool != null ? batchPool.obtain() : new SpriteBatch();
+
         this.backgroundColor = new Color(1, 0, 0, 1);
 
         if (camera == null || !(camera instanceof  OrthographicCamera))
@@ -57,11 +62,22 @@ public class GameCamera2d extends GameCamera {
     }
 
     /**
-     * Sets the sprite batch used for rendering
+     * Sets the sprite batch used for rendering.
+     * If the current batch was borrowed from the {@link SpriteBatchPool}, it is returned to the pool.
      * @param spriteBatch the sprite batch
      */
-    public void setSpriteBatch(SpriteBatch spriteBatch)
-    { this.spriteBatch = spriteBatch; }
+    public void setSpriteBatch(SpriteBatch spriteBatch) {
+        if (this.spriteBatch != spriteBatch)
+            freeSpriteBatch();
+
+        this.spriteBatch = spriteBatch;
+    }
+
+    /* Returns the current batch to the pool if it was borrowed. Returns false if the batch is not owned by the pool */
+    private boolean freeSpriteBatch() {
+        SpriteBatchPool batchPool = SpriteBatchPool.instance();
+        return batchPool != null && batchPool.free(spriteBatch);
+    }
 
     /**
      *
@@ -97,8 +113,11 @@ public class GameCamera2d extends GameCamera {
     }
 
     @Override
-    public void __dispose()
-    { spriteBatch.dispose(); }
+    public void __dispose() {
+        // Shared batches are returned to the pool; other batches are owned by this camera
+        if (!freeSpriteBatch())
+            spriteBatch.dispose();
+    }
 }
 
 
@@ -4,10 +4,13 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.isoterik.mgdx.Component;
 import com.isoterik.mgdx.GameCamera;
+import com.isoterik.mgdx.Transform;
+import com.isoterik.mgdx.graphics.RenderStats;
 import com.isoterik.mgdx.m2d.GameCamera2d;
 import com.isoterik.mgdx.utils.WorldUnits;
 
@@ -27,7 +30,23 @@ public class SpriteRenderer extends Component {
 
     private WorldUnits worldUnits;
 
-    private Vector3 temp = new Vector3();
+    /* The cached sprite vertices (4 corners, each having x, y, color, u and v) */
+    private final float[] vertices = new float[20];
+    private boolean verticesDirty = true;
+
+    /* A snapshot of the state used for computing the cached vertices */
+    private final Vector3 lastPosition = new Vector3();
+    private final Vector3 lastSize = new Vector3();
+    private final Vector3 lastScale = new Vector3();
+    private final Vector3 lastOrigin = new Vector3();
+    private float lastRotation;
+    private float lastColorBits;
+    private float lastU, lastV, lastU2, lastV2;
+
+    /* The render state captured at the sync point of a threaded simulation */
+    private final float[] renderVertices = new float[20];
+    private Texture renderTexture;
+    private boolean renderVisible, renderCulled;
 
     /**
      * Creates a new instance given a sprite and {@link WorldUnits} to use for converting the sprite dimension to world units.
@@ -91,6 +110,9 @@ public class SpriteRenderer extends Component {
      * @param worldUnits an instance of {@link WorldUnits}
      */
     public void setSprite(TextureRegion sprite, WorldUnits worldUnits) {
+        if (this.sprite != sprite)
+            verticesDirty = true;
+
         this.sprite = sprite;
         this.worldUnits = worldUnits;
         setWorldSize();
@@ -115,8 +137,10 @@ public class SpriteRenderer extends Component {
      * Use this to tint the color of the rendered sprite. Setting the color to {@link Color#WHITE} renders the original sprite with no tint
      * @param color the color to used for tinting the sprite
      */
-    public void setColor(Color color)
-    { this.color = color; }
+    public void setColor(Color color) {
+        this.color = color;
+        verticesDirty = true;
+    }
 
     /**
      *
@@ -129,8 +153,10 @@ public class SpriteRenderer extends Component {
      * Sets the opacity of the rendered sprite on a scale of (0 - 1) where 0 means 0% opaque (completely transparent) and 1 means 100% opaque
      * @param opacity the opacity
      */
-    public void setOpacity(float opacity)
-    { color.a = opacity; }
+    public void setOpacity(float opacity) {
+        color.a = opacity;
+        verticesDirty = true;
+    }
 
     /**
      *
@@ -143,8 +169,12 @@ public class SpriteRenderer extends Component {
      * Determines whether the sprite should be flipped horizontally. Useful for mirroring sprites
      * @param flipX whether the sprite should be flipped horizontally
      */
-    public void setFlipX(boolean flipX)
-    { this.flipX = flipX; }
+    public void setFlipX(boolean flipX) {
+        if (this.flipX != flipX)
+            verticesDirty = true;
+
+        this.flipX = flipX;
+    }
 
     /**
      *
@@ -157,8 +187,12 @@ public class SpriteRenderer extends Component {
      * Determines whether the sprite should be flipped vertically. Useful for mirroring sprites
      * @param flipY whether the sprite should be flipped vertically
      */
-    public void setFlipY(boolean flipY)
-    { this.flipY = flipY; }
+    public void setFlipY(boolean flipY) {
+        if (this.flipY != flipY)
+            verticesDirty = true;
+
+        this.flipY = flipY;
+    }
 
     /**
      *
@@ -192,25 +226,75 @@ public class SpriteRenderer extends Component {
         setWorldSize();
     }
 
+    @Override
+    public void syncRenderState(GameCamera gameCamera) {
+        renderVisible = visible && (!cull || gameObject.transform.isInCameraFrustum(gameCamera.getCamera()));
+        renderCulled = visible && !renderVisible;
+
+        if (!renderVisible)
+            return;
+
+        if (verticesDirty || hasStateChanged())
+            computeVertices();
+
+        System.arraycopy(vertices, 0, renderVertices, 0, vertices.length);
+        renderTexture = sprite.getTexture();
+    }
+
     @Override
     public void render(GameCamera gameCamera) {
+        if (scene != null && scene.isRenderingCapturedState()) {
+            renderCapturedState(gameCamera);
+            return;
+        }
+
         // Render only if visible
         if (!visible)
             return;
 
+        RenderStats renderStats = scene != null ? scene.getRenderStats() : null;
+
         // If culling, the sprite should be rendered only if it can be seen by the camera
-        if (cull) {
-            if (gameObject.transform.isInCameraFrustum(gameCamera.getCamera())) {
-                drawSprite(gameCamera);
-            }
+        if (cull && !gameObject.transform.isInCameraFrustum(gameCamera.getCamera())) {
+            if (renderStats != null)
+                renderStats.__spriteCulled();
+            return;
         }
-        else {
-            drawSprite(gameCamera);
+
+        drawSprite(gameCamera);
+
+        if (renderStats != null)
+            renderStats.__spriteDrawn();
+    }
+
+    /* Renders the state captured at the sync point. The live state may be modified by the simulation thread */
+    private void renderCapturedState(GameCamera gameCamera) {
+        RenderStats renderStats = scene.getRenderStats();
+        if (renderStats != null) {
+            if (renderCulled)
+                renderStats.__spriteCulled();
+            else if (renderVisible)
+                renderStats.__spriteDrawn();
         }
+
+        if (!renderVisible || !(gameCamera instanceof GameCamera2d))
+            return;
+
+        // The captured vertices already have the color of the sprite
+        ((GameCamera2d)gameCamera).getSpriteBatch().draw(renderTexture, renderVertices, 0, renderVertices.length);
     }
 
+    /**
+     * Forces the cached vertices of the sprite to be recomputed the next time it is rendered.
+     * The renderer already detects changes to the transform, sprite, color and flip states; call this only if the sprite's {@link Texture}
+     * was modified in a way that cannot be detected (for example, reloading the texture with a different size).
+     */
+    public void invalidate()
+    { verticesDirty = true; }
+
     /**
      * Renders the sprite to the screen.
+     * The vertices of the sprite are cached and recomputed only when the transform, sprite, color or flip states changes.
      * @param gameCamera the camera used by the scene where the host game object resides
      */
     protected void drawSprite(GameCamera gameCamera) {
@@ -221,18 +305,124 @@ public class SpriteRenderer extends Component {
         SpriteBatch batch = ((GameCamera2d)gameCamera).getSpriteBatch();
         batch.setColor(color);
 
-        Vector3 pos    = temp.set(gameObject.transform.position);
-        Vector3 size   = gameObject.transform.size;
-        Vector3 scale  = gameObject.transform.scale;
-        Vector3 origin = gameObject.transform.origin;
-        float rotation = gameObject.transform.getRotation();
+        if (verticesDirty || hasStateChanged())
+            computeVertices();
 
         // Draw the sprite
-        batch.draw(sprite.getTexture(),
-                pos.x, pos.y, origin.x, origin.y,
-                size.x, size.y, scale.x, scale.y,
-                rotation, sprite.getRegionX(), sprite.getRegionY(),
-                sprite.getRegionWidth(), sprite.getRegionHeight(),
-                flipX, flipY);
+        batch.draw(sprite.getTexture(), vertices, 0, vertices.length);
+    }
+
+    /*
+    Compares the current state against the snapshot used for computing the cached vertices.
+    The transform vectors are public and can be mutated directly so we can't rely on setters alone.
+     */
+    private boolean hasStateChanged() {
+        Transform transform = gameObject.transform;
+
+        return !lastPosition.equals(transform.position) || !lastSize.equals(transform.size)
+                || !lastScale.equals(transform.scale) || !lastOrigin.equals(transform.origin)
+                || lastRotation != transform.getRotation() || lastColorBits != color.toFloatBits()
+                || lastU != sprite.getU() || lastV != sprite.getV()
+                || lastU2 != sprite.getU2() || lastV2 != sprite.getV2();
+    }
+
+    /*
+    Computes the vertices of the sprite the same way SpriteBatch does for a rotated and scaled region then takes a snapshot of the state used.
+     */
+    private void computeVertices() {
+        Transform transform = gameObject.transform;
+        Vector3 pos    = transform.position;
+        Vector3 size   = transform.size;
+        Vector3 scale  = transform.scale;
+        Vector3 origin = transform.origin;
+        float rotation = transform.getRotation();
+
+        // The corner points relative to the origin
+        final float worldOriginX = pos.x + origin.x;
+        final float worldOriginY = pos.y + origin.y;
+        float fx = -origin.x * scale.x;
+        float fy = -origin.y * scale.y;
+        float fx2 = (size.x - origin.x) * scale.x;
+        float fy2 = (size.y - origin.y) * scale.y;
+
+        float x1, y1, x2, y2, x3, y3, x4, y4;
+        if (rotation != 0) {
+            final float cos = MathUtils.cosDeg(rotation);
+            final float sin = MathUtils.sinDeg(rotation);
+
+            x1 = cos * fx - sin * fy;
+            y1 = sin * fx + cos * fy;
+            x2 = cos * fx - sin * fy2;
+            y2 = sin * fx + cos * fy2;
+            x3 = cos * fx2 - sin * fy2;
+            y3 = sin * fx2 + cos * fy2;
+            x4 = x1 + (x3 - x2);
+            y4 = y3 - (y2 - y1);
+        }
+        else {
+            x1 = fx;  y1 = fy;
+            x2 = fx;  y2 = fy2;
+            x3 = fx2; y3 = fy2;
+            x4 = fx2; y4 = fy;
+        }
+
+        // Texture coordinates; SpriteBatch maps the bottom of the region to v2
+        float u = sprite.getU();
+        float v = sprite.getV2();
+        float u2 = sprite.getU2();
+        float v2 = sprite.getV();
+
+        if (flipX) {
+            float tmp = u;
+            u = u2;
+            u2 = tmp;
+        }
+
+        if (flipY) {
+            float tmp = v;
+            v = v2;
+            v2 = tmp;
+        }
+
+        float colorBits = color.toFloatBits();
+        float[] vertices = this.vertices;
+
+        vertices[0] = x1 + worldOriginX;
+        vertices[1] = y1 + worldOriginY;
+        vertices[2] = colorBits;
+        vertices[3] = u;
+        vertices[4] = v;
+
+        vertices[5] = x2 + worldOriginX;
+        vertices[6] = y2 + worldOriginY;
+        vertices[7] = colorBits;
+        vertices[8] = u;
+        vertices[9] = v2;
+
+        vertices[10] = x3 + worldOriginX;
+        vertices[11] = y3 + worldOriginY;
+        vertices[12] = colorBits;
+        vertices[13] = u2;
+        vertices[14] = v2;
+
+        vertices[15] = x4 + worldOriginX;
+        vertices[16] = y4 + worldOriginY;
+        vertices[17] = colorBits;
+        vertices[18] = u2;
+        vertices[19] = v;
+
+        // Take a snapshot of the state
+        lastPosition.set(pos);
+        lastSize.set(size);
+        lastScale.set(scale);
+        lastOrigin.set(origin);
+        lastRotation = rotation;
+        lastColorBits = colorBits;
+        lastU = sprite.getU();
+        lastV = sprite.getV();
+        lastU2 = sprite.getU2();
+        lastV2 = sprite.getV2();
+
+        verticesDirty = false;
     }
 }
@@ -0,0 +1,550 @@
+package com.isoterik.mgdx.m2d.components;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.isoterik.mgdx.Component;
+import com.isoterik.mgdx.GameCamera;
+import com.isoterik.mgdx.Transform;
+import com.isoterik.mgdx.graphics.RenderStats;
+import com.isoterik.mgdx.m2d.GameCamera2d;
+import com.isoterik.mgdx.utils.WorldUnits;
+
+/**
+ * {@link com.isoterik.mgdx.GameObject}s that needs to render text in the game world should attach this component.
+ * <p>
+ * The glyphs of the text are laid out once with a {@link BitmapFontCache} and laid out again only when the text, font, target width or alignment changes.
+ * A change of color only re-tints the cached glyphs. The world vertices of the glyphs are cached too and recomputed only when the transform changes,
+ * so static labels cost nothing more than a {@link SpriteRenderer} per glyph.
+ * <p>
+ * Numbers can be shown with {@link #setNumber(int)} and {@link #setNumber(float, int)}. They are written into a reused buffer, so labels such as scores and
+ * health points can be updated every frame without allocating strings. Nothing is laid out if the text did not actually change.
+ * <p>
+ * The text is drawn with the sprite batch of the scene, culled and counted in the {@link RenderStats} the same way sprites are.
+ * The size of the host game object is set to the size of the text.
+ *
+ * @author isoteriksoftware
+ */
+public class TextRenderer extends Component {
+    private BitmapFont font;
+    private BitmapFontCache cache;
+
+    private StringBuilder text = new StringBuilder();
+    private StringBuilder scratch = new StringBuilder();
+
+    private final Color color;
+    private float targetWidth;
+    private int halign;
+    private boolean wrap;
+    private boolean cull;
+    private boolean visible;
+
+    private WorldUnits worldUnits;
+
+    /* The size of the laid out text in pixels */
+    private float textWidth, textHeight;
+    private boolean layoutDirty = true;
+
+    /* The cached world vertices of the glyphs, one array for each page of the font */
+    private float[][] vertices = new float[0][];
+    private int[] vertexCounts = new int[0];
+    private boolean verticesDirty = true;
+
+    /* A snapshot of the state used for computing the cached vertices */
+    private final Vector3 lastPosition = new Vector3();
+    private final Vector3 lastScale = new Vector3();
+    private final Vector3 lastOrigin = new Vector3();
+    private float lastRotation;
+    private float lastColorBits;
+
+    /* The visibility captured at the sync point of a threaded simulation. The vertices are only written on the rendering thread */
+    private boolean renderVisible, renderCulled;
+
+    /**
+     * Creates a new instance given a font, the text to render and {@link WorldUnits} to use for converting the size of the text to world units.
+     * The text is rendered at the scale of the font; one pixel of the font is one pixel of the {@link WorldUnits}.
+     * @param font the font
+     * @param text the text to render
+     * @param worldUnits an instance of {@link WorldUnits}
+     */
+    public TextRenderer(BitmapFont font, CharSequence text, WorldUnits worldUnits) {
+        this.worldUnits = worldUnits;
+
+        setFont(font);
+        this.text.append(text);
+        this.color = new Color(Color.WHITE);
+        halign  = Align.left;
+        cull    = true;
+        visible = true;
+    }
+
+    /**
+     * Creates a new instance given a font and {@link WorldUnits} to use for converting the size of the text to world units. The text is empty.
+     * @param font the font
+     * @param worldUnits an instance of {@link WorldUnits}
+     */
+    public TextRenderer(BitmapFont font, WorldUnits worldUnits)
+    { this(font, "", worldUnits); }
+
+    /**
+     * Changes the visibility of the text.
+     * <strong>Note:</strong> this only affects the text and not the game object itself
+     * @param visible whether the text should be rendered or not
+     */
+    public void setVisible(boolean visible)
+    { this.visible = visible; }
+
+    /**
+     *
+     * @return whether the text is currently rendered or not
+     */
+    public boolean isVisible()
+    { return visible; }
+
+    /**
+     * Whether this text should be culled. When enabled, the text will be rendered only if the game object can be seen by the camera.
+     * It is enabled by default
+     * @param cull whether culling should be enabled for this renderer
+     */
+    public void setCull(boolean cull)
+    { this.cull = cull; }
+
+    /**
+     *
+     * @return whether culling is enabled
+     */
+    public boolean isCull()
+    { return cull; }
+
+    /**
+     * Sets the font used for rendering the text. The text will be laid out again.
+     * @param font the font
+     */
+    public void setFont(BitmapFont font) {
+        if (this.font == font)
+            return;
+
+        this.font = font;
+        cache = new BitmapFontCache(font, false);
+
+        int pages = font.getRegions().size;
+        if (vertices.length != pages) {
+            vertices = new float[pages][];
+            vertexCounts = new int[pages];
+        }
+
+        layoutDirty = true;
+    }
+
+    /**
+     *
+     * @return the font used for rendering the text
+     */
+    public BitmapFont getFont()
+    { return font; }
+
+    /**
+     * Sets the text to render. Nothing is done if the text did not change. The characters are copied, so a reused {@link java.lang.StringBuilder} can be passed.
+     * @param text the text
+     */
+    public void setText(CharSequence text) {
+        scratch.setLength(0);
+        scratch.append(text);
+        swapText();
+    }
+
+    /**
+     * Sets a number as the text to render without allocating a string. Nothing is done if the text did not change.
+     * @param number the number
+     */
+    public void setNumber(int number) {
+        scratch.setLength(0);
+        scratch.append(number);
+        swapText();
+    }
+
+    /**
+     * Sets a number as the text to render without allocating a string. Nothing is done if the text did not change.
+     * @param number the number
+     * @param decimals the number of digits after the decimal point
+     */
+    public void setNumber(float number, int decimals) {
+        scratch.setLength(0);
+        appendNumber(scratch, number, decimals);
+        swapText();
+    }
+
+    /**
+     * Sets a prefixed number (such as "Score: 10") as the text to render without allocating a string. Nothing is done if the text did not change.
+     * @param prefix the text before the number
+     * @param number the number
+     */
+    public void setText(CharSequence prefix, int number) {
+        scratch.setLength(0);
+        scratch.append(prefix);
+        scratch.append(number);
+        swapText();
+    }
+
+    /**
+     * Sets a prefixed number (such as "HP: 42.5") as the text to render without allocating a string. Nothing is done if the text did not change.
+     * @param prefix the text before the number
+     * @param number the number
+     * @param decimals the number of digits after the decimal point
+     */
+    public void setText(CharSequence prefix, float number, int decimals) {
+        scratch.setLength(0);
+        scratch.append(prefix);
+        appendNumber(scratch, number, decimals);
+        swapText();
+    }
+
+    /**
+     *
+     * @return the text rendered. Do not modify it directly; use the setters so the change is detected
+     */
+    public CharSequence getText()
+    { return text; }
+
+    /**
+     * Use this to tint the color of the rendered text. Only the cached glyphs are re-tinted; the text is not laid out again.
+     * @param color the color of the text
+     */
+    public void setColor(Color color)
+    { this.color.set(color); }
+
+    /**
+     *
+     * @return the color of the text. Changes made to it are detected.
+     */
+    public Color getColor()
+    { return color; }
+
+    /**
+     * Sets the opacity of the rendered text on a scale of (0 - 1) where 0 means 0% opaque (completely transparent) and 1 means 100% opaque
+     * @param opacity the opacity
+     */
+    public void setOpacity(float opacity)
+    { color.a = opacity; }
+
+    /**
+     *
+     * @return the opacity of the rendered text
+     */
+    public float getOpacity()
+    { return color.a; }
+
+    /**
+     * Sets the width (in world units) the text is aligned within and, if wrapping is enabled, wrapped at. 0 means the text has no target width.
+     * @param targetWidth the width in world units
+     */
+    public void setTargetWidth(float targetWidth) {
+        if (this.targetWidth != targetWidth)
+            layoutDirty = true;
+
+        this.targetWidth = targetWidth;
+    }
+
+    /**
+     *
+     * @return the width (in world units) the text is aligned within
+     */
+    public float getTargetWidth()
+    { return targetWidth; }
+
+    /**
+     * Sets the horizontal alignment of the text within the target width. Defaults to {@link Align#left}.
+     * @param halign one of {@link Align#left}, {@link Align#center} or {@link Align#right}
+     */
+    public void setAlignment(int halign) {
+        if (this.halign != halign)
+            layoutDirty = true;
+
+        this.halign = halign;
+    }
+
+    /**
+     *
+     * @return the horizontal alignment of the text
+     */
+    public int getAlignment()
+    { return halign; }
+
+    /**
+     * Whether the text should be wrapped at the target width.
+     * @param wrap whether the text should be wrapped
+     */
+    public void setWrap(boolean wrap) {
+        if (this.wrap != wrap)
+            layoutDirty = true;
+
+        this.wrap = wrap;
+    }
+
+    /**
+     *
+     * @return whether the text is wrapped at the target width
+     */
+    public boolean isWrap()
+    { return wrap; }
+
+    /**
+     * Sets the {@link WorldUnits} used for converting the size of the text to world units.
+     * @param worldUnits an instance of {@link WorldUnits}
+     */
+    public void setWorldUnits(WorldUnits worldUnits) {
+        this.worldUnits = worldUnits;
+        layoutDirty = true;
+    }
+
+    /**
+     *
+     * @return the width of the laid out text in world units
+     */
+    public float getTextWidth() {
+        layoutIfDirty();
+        return worldUnits.toWorldUnit(textWidth);
+    }
+
+    /**
+     *
+     * @return the height of the laid out text in world units
+     */
+    public float getTextHeight() {
+        layoutIfDirty();
+        return worldUnits.toWorldUnit(textHeight);
+    }
+
+    /**
+     * Forces the text to be laid out again the next time it is rendered.
+     * The renderer already detects changes to the text, font, color and transform; call this only if the font was modified (for example, its scale was changed).
+     */
+    public void invalidate()
+    { layoutDirty = true; }
+
+    /**
+     * Once this component is attached, the text is laid out and the host game object is resized to fit the text.
+     * {@inheritDoc}
+     */
+    @Override
+    public void attach() {
+        layoutDirty = true;
+        layoutIfDirty();
+    }
+
+    @Override
+    public void syncRenderState(GameCamera gameCamera) {
+        layoutIfDirty();
+
+        renderVisible = visible && (!cull || gameObject.transform.isInCameraFrustum(gameCamera.getCamera()));
+        renderCulled = visible && !renderVisible;
+
+        if (renderVisible && (verticesDirty || hasStateChanged()))
+            computeVertices();
+    }
+
+    @Override
+    public void render(GameCamera gameCamera) {
+        if (scene != null && scene.isRenderingCapturedState()) {
+            renderCapturedState(gameCamera);
+            return;
+        }
+
+        // Render only if visible
+        if (!visible)
+            return;
+
+        // The size of the game object depends on the layout so it must be up to date before culling
+        layoutIfDirty();
+
+        RenderStats renderStats = scene != null ? scene.getRenderStats() : null;
+
+        if (cull && !gameObject.transform.isInCameraFrustum(gameCamera.getCamera())) {
+            if (renderStats != null)
+                renderStats.__spriteCulled();
+            return;
+        }
+
+        if (verticesDirty || hasStateChanged())
+            computeVertices();
+
+        drawText(gameCamera);
+
+        if (renderStats != null)
+            renderStats.__spriteDrawn();
+    }
+
+    /* Renders the vertices computed at the sync point. The live state may be modified by the simulation thread */
+    private void renderCapturedState(GameCamera gameCamera) {
+        RenderStats renderStats = scene.getRenderStats();
+        if (renderStats != null) {
+            if (renderCulled)
+                renderStats.__spriteCulled();
+            else if (renderVisible)
+                renderStats.__spriteDrawn();
+        }
+
+        if (renderVisible)
+            drawText(gameCamera);
+    }
+
+    /**
+     * Draws the cached vertices of the glyphs, one call per page of the font.
+     * @param gameCamera the camera used by the scene where the host game object resides
+     */
+    protected void drawText(GameCamera gameCamera) {
+        // The game camera must be a GameCamera2d instance
+        if (!(gameCamera instanceof GameCamera2d))
+            return;
+
+        SpriteBatch batch = ((GameCamera2d)gameCamera).getSpriteBatch();
+        for (int i = 0; i < vertices.length; i++) {
+            if (vertexCounts[i] > 0)
+                batch.draw(font.getRegion(i).getTexture(), vertices[i], 0, vertexCounts[i]);
+        }
+    }
+
+    /* Makes the scratch buffer the text if it differs from the current text */
+    private void swapText() {
+        if (contentEquals(text, scratch))
+            return;
+
+        StringBuilder tmp = text;
+        text = scratch;
+        scratch = tmp;
+        layoutDirty = true;
+    }
+
+    private static boolean contentEquals(StringBuilder a, StringBuilder b) {
+        int length = a.length;
+        if (length != b.length)
+            return false;
+
+        char[] charsA = a.chars;
+        char[] charsB = b.chars;
+        for (int i = 0; i < length; i++) {
+            if (charsA[i] != charsB[i])
+                return false;
+        }
+
+        return true;
+    }
+
+    /* Appends a number with a fixed number of decimals without creating a string */
+    private static void appendNumber(StringBuilder builder, float number, int decimals) {
+        if (number < 0) {
+            builder.append('-');
+            number = -number;
+        }
+
+        long factor = 1;
+        for (int i = 0; i < decimals; i++)
+            factor *= 10;
+
+        long scaled = Math.round(number * (double)factor);
+        builder.append(scaled / factor);
+
+        if (decimals > 0) {
+            builder.append('.');
+            builder.append(scaled % factor, decimals, '0');
+        }
+    }
+
+    private void layoutIfDirty() {
+        if (!layoutDirty || gameObject == null)
+            return;
+
+        float targetWidthPixels = worldUnits.toPixels(targetWidth);
+
+        cache.setColor(color);
+        GlyphLayout layout = cache.setText(text, 0, 0, targetWidthPixels, halign, wrap);
+        textWidth = Math.max(layout.width, targetWidthPixels);
+        textHeight = layout.height;
+
+        // The text is laid out downwards from its top; move it up so the bottom left of the text is at the position of the game object
+        cache.translate(0, textHeight);
+
+        Transform transform = gameObject.transform;
+        float width = worldUnits.toWorldUnit(textWidth);
+        float height = worldUnits.toWorldUnit(textHeight);
+        transform.size.set(width, height, 0);
+        transform.origin.set(width * .5f, height * .5f, 0);
+
+        lastColorBits = color.toFloatBits();
+        layoutDirty = false;
+        verticesDirty = true;
+    }
+
+    /*
+    Compares the current state against the snapshot used for computing the cached vertices.
+    The transform vectors are public and can be mutated directly so we can't rely on setters alone.
+     */
+    private boolean hasStateChanged() {
+        Transform transform = gameObject.transform;
+
+        return !lastPosition.equals(transform.position) || !lastScale.equals(transform.scale)
+                || !lastOrigin.equals(transform.origin) || lastRotation != transform.getRotation()
+                || lastColorBits != color.toFloatBits();
+    }
+
+    /*
+    Transforms the glyphs of the cache (in pixels, relative to the bottom left of the text) to the world the same way SpriteRenderer transforms its corners
+    then takes a snapshot of the state used.
+     */
+    private void computeVertices() {
+        Transform transform = gameObject.transform;
+        Vector3 pos    = transform.position;
+        Vector3 scale  = transform.scale;
+        Vector3 origin = transform.origin;
+        float rotation = transform.getRotation();
+
+        float colorBits = color.toFloatBits();
+        if (colorBits != lastColorBits)
+            cache.setColors(colorBits);
+
+        final float worldOriginX = pos.x + origin.x;
+        final float worldOriginY = pos.y + origin.y;
+        final float unit = 1f / worldUnits.getPixelsPerUnit();
+        final float cos = rotation != 0 ? MathUtils.cosDeg(rotation) : 1;
+        final float sin = rotation != 0 ? MathUtils.sinDeg(rotation) : 0;
+
+        for (int page = 0; page < vertices.length; page++) {
+            float[] src = cache.getVertices(page);
+            int count = cache.getVertexCount(page);
+
+            float[] dst = vertices[page];
+            if (dst == null || dst.length < count) {
+                dst = new float[Math.max(count, 20)];
+                vertices[page] = dst;
+            }
+
+            for (int i = 0; i < count; i += 5) {
+                float fx = (src[i] * unit - origin.x) * scale.x;
+                float fy = (src[i + 1] * unit - origin.y) * scale.y;
+
+                dst[i]     = cos * fx - sin * fy + worldOriginX;
+                dst[i + 1] = sin * fx + cos * fy + worldOriginY;
+                dst[i + 2] = src[i + 2];
+                dst[i + 3] = src[i + 3];
+                dst[i + 4] = src[i + 4];
+            }
+
+            vertexCounts[page] = count;
+        }
+
+        // Take a snapshot of the state
+        lastPosition.set(pos);
+        lastScale.set(scale);
+        lastOrigin.set(origin);
+        lastRotation = rotation;
+        lastColorBits = colorBits;
+
+        verticesDirty = false;
+    }
+}
@@ -22,6 +22,8 @@ public abstract class DebugRendererBase extends Component {
 	
 	protected Color color;
 
+	protected boolean cull = true;
+
 	public DebugRendererBase(ShapeRenderer.ShapeType shapeType, Color color) {
 		this.shapeType = shapeType;
 		this.color = color;
@@ -69,6 +71,24 @@ public abstract class DebugRendererBase extends Component {
 	public ShapeRenderer.ShapeType getShapeType()
 	{ return shapeType; }
 
+	/**
+	 * Whether this renderer should be culled. When enabled, the debug drawing is rendered only if the host game object can be seen by the camera.
+	 * It is enabled by default
+	 * @param cull whether culling should be enabled for this renderer
+	 * @return this instance for chaining
+	 */
+	public DebugRendererBase setCull(boolean cull) {
+		this.cull = cull;
+		return this;
+	}
+
+	/**
+	 *
+	 * @return whether culling is enabled
+	 */
+	public boolean isCull()
+	{ return cull; }
+
 	@Override
 	public void drawDebugLine(ShapeRenderer shapeRenderer, GameCamera gameCamera) {
 		if (shapeType == LINE_SHAPE) {
@@ -0,0 +1,342 @@
+package com.isoterik.mgdx.m2d.components.physics;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.isoterik.mgdx.Component;
+import com.isoterik.mgdx.m2d.physics.ArcadeWorld2d;
+
+/**
+ * {@link com.isoterik.mgdx.GameObject}s that need simple physics without Box2D should attach this component. The game object takes part in the
+ * {@link ArcadeWorld2d} of its scene using the shapes of its {@link BoxCollider}s, {@link CircleCollider}s and {@link PolygonCollider}s (polygons use
+ * their bounds). Collisions are reported through the usual callbacks such as {@link Component#onCollisionEnter2d(com.isoterik.mgdx.m2d.physics.Collision2d)}.
+ * <p>
+ * There are three types of bodies:
+ * <ul>
+ *     <li>{@link BodyType#STATIC} bodies never move on their own. They block dynamic bodies.</li>
+ *     <li>{@link BodyType#KINEMATIC} bodies move by their velocity and pass through everything.</li>
+ *     <li>{@link BodyType#DYNAMIC} bodies move by their velocity and gravity and stop at the solid shapes in their way, sliding along them.</li>
+ * </ul>
+ * The position of the game object can be changed at any time; the body follows it on the next step.
+ * <p>
+ * <strong>Note:</strong> a game object should not have both this component and a {@link Physics2d}.
+ *
+ * @author isoteriksoftware
+ */
+public class ArcadeBody2d extends Component {
+    /** The types of arcade bodies */
+    public enum BodyType {
+        STATIC, KINEMATIC, DYNAMIC
+    }
+
+    /** The body was blocked on its left side */
+    public static final int BLOCKED_LEFT = 1;
+
+    /** The body was blocked on its right side */
+    public static final int BLOCKED_RIGHT = 2;
+
+    /** The body was blocked below (it stands on something) */
+    public static final int BLOCKED_DOWN = 4;
+
+    /** The body was blocked above */
+    public static final int BLOCKED_UP = 8;
+
+    private BodyType bodyType;
+
+    /* The state of the body while it is not in a world */
+    private final Vector2 velocity = new Vector2();
+    private float gravityScale = 1;
+
+    private ArcadeWorld2d world;
+    private int bodyIndex = -1;
+
+    private final Array<Collider> colliders = new Array<>();
+    private final IntArray shapeSlots = new IntArray();
+
+    /**
+     * Creates a new instance given a body type.
+     * @param bodyType the body type
+     */
+    public ArcadeBody2d(BodyType bodyType)
+    { this.bodyType = bodyType; }
+
+    /**
+     * Creates a new dynamic body.
+     */
+    public ArcadeBody2d()
+    { this(BodyType.DYNAMIC); }
+
+    /**
+     * Changes the type of this body. If the body is in a world, it is added again so its overlaps begin again on the next step.
+     * @param bodyType the body type
+     */
+    public void setBodyType(BodyType bodyType) {
+        if (this.bodyType == bodyType)
+            return;
+
+        this.bodyType = bodyType;
+
+        if (world != null) {
+            ArcadeWorld2d current = world;
+            current.__removeBody(this);
+            current.__addBody(this);
+        }
+    }
+
+    /**
+     *
+     * @return the type of this body
+     */
+    public BodyType getBodyType()
+    { return bodyType; }
+
+    /**
+     * Sets the velocity of this body.
+     * @param x the horizontal velocity
+     * @param y the vertical velocity
+     */
+    public void setVelocity(float x, float y) {
+        if (world != null)
+            world.__setVelocity(bodyIndex, x, y);
+        else
+            velocity.set(x, y);
+    }
+
+    /**
+     * Sets the velocity of this body.
+     * @param velocity the velocity
+     */
+    public void setVelocity(Vector2 velocity)
+    { setVelocity(velocity.x, velocity.y); }
+
+    /**
+     * Sets the horizontal velocity of this body. The vertical velocity is unchanged.
+     * @param x the horizontal velocity
+     */
+    public void setVelocityX(float x)
+    { setVelocity(x, getVelocityY()); }
+
+    /**
+     * Sets the vertical velocity of this body. The horizontal velocity is unchanged.
+     * @param y the vertical velocity
+     */
+    public void setVelocityY(float y)
+    { setVelocity(getVelocityX(), y); }
+
+    /**
+     *
+     * @return the horizontal velocity of this body
+     */
+    public float getVelocityX()
+    { return world != null ? world.__getVelocityX(bodyIndex) : velocity.x; }
+
+    /**
+     *
+     * @return the vertical velocity of this body
+     */
+    public float getVelocityY()
+    { return world != null ? world.__getVelocityY(bodyIndex) : velocity.y; }
+
+    /**
+     * Gets the velocity of this body.
+     * @param out the vector to store the velocity in
+     * @return the given vector
+     */
+    public Vector2 getVelocity(Vector2 out)
+    { return out.set(getVelocityX(), getVelocityY()); }
+
+    /**
+     * Sets how much the gravity of the world affects this body. Only dynamic bodies are affected by gravity. Defaults to 1.
+     * @param gravityScale the gravity scale
+     */
+    public void setGravityScale(float gravityScale) {
+        if (world != null)
+            world.__setGravityScale(bodyIndex, gravityScale);
+        else
+            this.gravityScale = gravityScale;
+    }
+
+    /**
+     *
+     * @return how much the gravity of the world affects this body
+     */
+    public float getGravityScale()
+    { return world != null ? world.__getGravityScale(bodyIndex) : gravityScale; }
+
+    /**
+     * Moves this body right away and stops it at the solid shapes in its way. This is useful for characters controlled directly by the player.
+     * Nothing happens if the body is not in a world.
+     * @param dx the horizontal movement
+     * @param dy the vertical movement
+     */
+    public void move(float dx, float dy) {
+        if (world != null)
+            world.__move(bodyIndex, dx, dy);
+    }
+
+    /**
+     *
+     * @return the sides of this body that were blocked during the last step. A combination of {@link #BLOCKED_LEFT}, {@link #BLOCKED_RIGHT},
+     * {@link #BLOCKED_DOWN} and {@link #BLOCKED_UP}
+     */
+    public int getBlocked()
+    { return world != null ? world.__getBlocked(bodyIndex) : 0; }
+
+    /**
+     * Checks if a side of this body was blocked during the last step.
+     * @param side one of {@link #BLOCKED_LEFT}, {@link #BLOCKED_RIGHT}, {@link #BLOCKED_DOWN} and {@link #BLOCKED_UP}
+     * @return true if the side was blocked. false otherwise
+     */
+    public boolean isBlocked(int side)
+    { return (getBlocked() & side) != 0; }
+
+    /**
+     *
+     * @return true if this body stood on something during the last step. false otherwise
+     */
+    public boolean isOnFloor()
+    { return isBlocked(BLOCKED_DOWN); }
+
+    /**
+     *
+     * @return the world this body is in or null if it is not in a world
+     */
+    public ArcadeWorld2d getWorld()
+    { return world; }
+
+    /**
+     * Adds this body to a world.
+     * This method is called internally by the system. Do not call it directly!
+     * @param world the world
+     */
+    public void __addToWorld(ArcadeWorld2d world) {
+        if (this.world == world)
+            return;
+
+        __removeFromWorld();
+        world.__addBody(this);
+    }
+
+    /**
+     * Removes this body from its world.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __removeFromWorld() {
+        if (world != null)
+            world.__removeBody(this);
+    }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @param world the world this body is in
+     * @param bodyIndex the index of this body in the world
+     */
+    public void __setWorld(ArcadeWorld2d world, int bodyIndex) {
+        this.world = world;
+        this.bodyIndex = bodyIndex;
+    }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @return the index of this body in its world
+     */
+    public int __getBodyIndex()
+    { return bodyIndex; }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @return the slots of the shapes of this body in its world
+     */
+    public IntArray __getShapeSlots()
+    { return shapeSlots; }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @return the colliders of this body
+     */
+    public Array<Collider> __getColliders()
+    { return colliders; }
+
+    /**
+     * Keeps the state of this body when it leaves a world.
+     * This method is called internally by the system. Do not call it directly!
+     * @param velocityX the horizontal velocity
+     * @param velocityY the vertical velocity
+     * @param gravityScale the gravity scale
+     */
+    public void __storeState(float velocityX, float velocityY, float gravityScale) {
+        velocity.set(velocityX, velocityY);
+        this.gravityScale = gravityScale;
+    }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @return the horizontal velocity the body enters a world with
+     */
+    public float __getInitialVelocityX()
+    { return velocity.x; }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @return the vertical velocity the body enters a world with
+     */
+    public float __getInitialVelocityY()
+    { return velocity.y; }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @return the gravity scale the body enters a world with
+     */
+    public float __getInitialGravityScale()
+    { return gravityScale; }
+
+    @Override
+    public void attach() {
+        // This body cannot have more than one instance of this Component
+        if (hasComponent(ArcadeBody2d.class))
+            throw new UnsupportedOperationException("A GameObject can have only one instance of ArcadeBody2d attached!");
+
+        colliders.clear();
+        shapeSlots.clear();
+
+        // Grab available colliders
+        for (Component component : gameObject.getComponents()) {
+            if (component instanceof Collider)
+                colliders.add((Collider)component);
+        }
+    }
+
+    @Override
+    public void componentAdded(Component component) {
+        if (component instanceof Collider) {
+            Collider collider = (Collider)component;
+            if (!colliders.contains(collider, true)) {
+                colliders.add(collider);
+
+                if (world != null)
+                    world.__addShape(this, collider);
+            }
+        }
+    }
+
+    @Override
+    public void componentRemoved(Component component) {
+        if (component instanceof Collider) {
+            Collider collider = (Collider)component;
+            if (!colliders.contains(collider, true))
+                return;
+
+            colliders.removeValue(collider, true);
+
+            if (world != null)
+                world.__removeShape(this, collider);
+        }
+    }
+}
@@ -35,8 +35,10 @@ public class BoxCollider extends Collider {
 	 * @param width the width of the box
 	 * @param height the height of the box
 	 */
-	public void setSize(float width, float height)
-	{ size.set(width, height); }
+	public void setSize(float width, float height) {
+		size.set(width, height);
+		configurationChanged();
+	}
 
 	/**
 	 * Sets the size of the game object.
@@ -44,7 +46,7 @@ public class BoxCollider extends Collider {
 	 * @param size the size of the box
 	 */
 	public void setSize(Vector2 size)
-	{ this.size.set(size); }
+	{ setSize(size.x, size.y); }
 
 	/**
 	 *
@@ -59,6 +61,7 @@ public class BoxCollider extends Collider {
 	 */
 	public void setCenter(Vector2 center) {
 		this.center = center;
+		configurationChanged();
 	}
 
 	/**
@@ -84,6 +87,7 @@ public class BoxCollider extends Collider {
 	 */
 	public void setAngle(float angle) {
 		this.angle = angle;
+		configurationChanged();
 	}
 
 	/**
@@ -94,6 +98,17 @@ public class BoxCollider extends Collider {
 		return angle;
 	}
 
+	@Override
+	protected boolean describeShape(StringBuilder key) {
+		float width = size.isZero() ? gameObject.transform.size.x : size.x;
+		float height = size.isZero() ? gameObject.transform.size.y : size.y;
+
+		key.append(width).append(',').append(height)
+				.append(',').append(center.x).append(',').append(center.y)
+				.append(',').append(angle);
+		return true;
+	}
+
 	@Override
 	public FixtureDef getFixtureDef() {
 		// If the size is zero, assume the size of the host game object
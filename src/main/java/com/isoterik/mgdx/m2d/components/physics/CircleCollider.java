@@ -42,8 +42,10 @@ public class CircleCollider extends Collider {
 	 * Sets the radius of the circle
 	 * @param radius the radius of the circle
 	 */
-	public void setRadius(float radius)
-	{ this.radius = radius; }
+	public void setRadius(float radius) {
+		this.radius = radius;
+		configurationChanged();
+	}
 
 	/**
 	 *
@@ -52,6 +54,20 @@ public class CircleCollider extends Collider {
 	public float getRadius()
 	{ return radius; }
 
+	/**
+	 *
+	 * @return the position of the circle relative to the center of the body
+	 */
+	public Vector2 getPosition()
+	{ return position; }
+
+	@Override
+	protected boolean describeShape(StringBuilder key) {
+		key.append(radius <= 0 ? gameObject.transform.size.x * .5f : radius)
+				.append(',').append(position.x).append(',').append(position.y);
+		return true;
+	}
+
 	@Override
 	public FixtureDef getFixtureDef() {
 		// Assumes the radius of the host game object if the radius is <= 0
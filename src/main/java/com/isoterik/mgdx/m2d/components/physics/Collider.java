@@ -1,9 +1,11 @@
 package com.isoterik.mgdx.m2d.components.physics;
 
+import com.badlogic.gdx.physics.box2d.Filter;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.Shape;
 import com.isoterik.mgdx.Component;
+import com.isoterik.mgdx.m2d.physics.CollisionMatrix2d;
 
 /**
  * A collider represents a {@link Shape} used for collision detection.
@@ -36,12 +38,18 @@ public abstract class Collider extends Component {
 	protected short categoryBits = 0x0001;
 	protected short maskBits = -1;
 
+	/* The collision layer of this collider. When set, the category and mask bits come from the collision matrix of the scene */
+	protected int collisionLayer = -1;
+	protected String collisionLayerName;
+
 	/**
 	 * Determines if this collider is a sensor. A sensor collider collects contact information but never generates a collision response!
 	 * @param isSensor whether this collider is a sensor.
 	 */
-	public void setIsSensor(boolean isSensor)
-	{ this.isSensor = isSensor; }
+	public void setIsSensor(boolean isSensor) {
+		this.isSensor = isSensor;
+		configurationChanged();
+	}
 
 	/**
 	 *
@@ -82,8 +90,10 @@ public abstract class Collider extends Component {
 	 * collision group. Non-zero group filtering always wins against the mask bits.
 	 * @param groupIndex the collision group index
 	 */
-	public void setGroupIndex(short groupIndex)
-	{ this.groupIndex = groupIndex; }
+	public void setGroupIndex(short groupIndex) {
+		this.groupIndex = groupIndex;
+		configurationChanged();
+	}
 
 	/**
 	 *
@@ -96,8 +106,10 @@ public abstract class Collider extends Component {
 	 * Sets the collision category bits. Normally you would just set one bit.
 	 * @param categoryBits the collision category bits
 	 */
-	public void setCategoryBits(short categoryBits)
-	{ this.categoryBits = categoryBits; }
+	public void setCategoryBits(short categoryBits) {
+		this.categoryBits = categoryBits;
+		configurationChanged();
+	}
 
 	/**
 	 *
@@ -110,8 +122,134 @@ public abstract class Collider extends Component {
 	 * Sets the collision mask bits. This states the categories that this shape would accept for collision.
 	 * @param maskBits the collision mask bits.
 	 */
-	public void setMaskBits(short maskBits)
-	{ this.maskBits = maskBits; }
+	public void setMaskBits(short maskBits) {
+		this.maskBits = maskBits;
+		configurationChanged();
+	}
+
+	/**
+	 * Puts this collider on a layer of the {@link CollisionMatrix2d} of the scene. The category and mask bits of the fixture are then filled in from the
+	 * matrix and the raw bits of this collider are ignored. Pass -1 to use the raw bits again.
+	 * <strong>Note:</strong> This method can be called even after the fixture is generated.
+	 * @param collisionLayer the id of the layer or -1
+	 */
+	public void setCollisionLayer(int collisionLayer) {
+		this.collisionLayer = collisionLayer;
+		this.collisionLayerName = null;
+		refreshFilter();
+	}
+
+	/**
+	 * Puts this collider on a named layer of the {@link CollisionMatrix2d} of the scene. The name is resolved when the fixture is generated, so the
+	 * layer can be added to the matrix later. Pass null to use the raw bits again.
+	 * <strong>Note:</strong> This method can be called even after the fixture is generated.
+	 * @param collisionLayerName the name of the layer or null
+	 */
+	public void setCollisionLayer(String collisionLayerName) {
+		this.collisionLayerName = collisionLayerName;
+		this.collisionLayer = -1;
+		refreshFilter();
+	}
+
+	/**
+	 *
+	 * @return the id of the collision layer set with {@link #setCollisionLayer(int)} or -1 if none
+	 */
+	public int getCollisionLayer()
+	{ return collisionLayer; }
+
+	/**
+	 *
+	 * @return the name of the collision layer set with {@link #setCollisionLayer(String)} or null if none
+	 */
+	public String getCollisionLayerName()
+	{ return collisionLayerName; }
+
+	/**
+	 *
+	 * @return whether this collider is on a layer of the collision matrix
+	 */
+	public boolean hasCollisionLayer()
+	{ return collisionLayer != -1 || collisionLayerName != null; }
+
+	/**
+	 * Fills a filter with the collision filtering data of this collider.
+	 * This is called internally by the system and should never be called
+	 * @param filter the filter to fill
+	 * @param collisionMatrix the collision matrix of the scene. Can be null if this collider has no collision layer
+	 */
+	public void __fillFilter(Filter filter, CollisionMatrix2d collisionMatrix) {
+		filter.groupIndex = groupIndex;
+
+		if (collisionMatrix != null && hasCollisionLayer()) {
+			int layer = collisionLayerName != null ? collisionMatrix.requireLayerId(collisionLayerName) : collisionLayer;
+			collisionMatrix.fillFilter(layer, filter);
+		}
+		else {
+			filter.categoryBits = categoryBits;
+			filter.maskBits = maskBits;
+		}
+	}
+
+	/**
+	 * Describes the shape of this collider so bodies can be pooled (see {@link Physics2d#setPooled(boolean)}). A pooled body is only reused for colliders
+	 * with the same description, so it must include every property of the shape. Colliders that cannot describe their shape return false; their bodies
+	 * are never pooled.
+	 * @param key the builder to append the description to
+	 * @return true if the shape was described. false otherwise
+	 */
+	protected boolean describeShape(StringBuilder key)
+	{ return false; }
+
+	/**
+	 * Appends the configuration of the fixture of this collider (shape, sensor flag and filter) to the key of a body pool.
+	 * This is called internally by the system and should never be called
+	 * @param key the builder to append the configuration to
+	 * @param collisionMatrix the collision matrix of the scene
+	 * @return true if the configuration was appended. false if this collider cannot be pooled
+	 */
+	public boolean __appendPoolKey(StringBuilder key, CollisionMatrix2d collisionMatrix) {
+		key.append(getClass().getName()).append('(');
+		if (!describeShape(key))
+			return false;
+
+		Filter filter = new Filter();
+		__fillFilter(filter, collisionMatrix);
+		key.append(';').append(isSensor)
+				.append(';').append(filter.categoryBits)
+				.append(';').append(filter.maskBits)
+				.append(';').append(filter.groupIndex)
+				.append(')');
+		return true;
+	}
+
+	/**
+	 * Tells the {@link Physics2d} of the host game object that the fixture of this collider changed, so its body is not pooled with a stale
+	 * configuration. Subclasses call this when a property of their shape changes.
+	 */
+	protected void configurationChanged() {
+		if (gameObject == null)
+			return;
+
+		Physics2d physics2d = gameObject.getComponent(Physics2d.class);
+		if (physics2d != null)
+			physics2d.__colliderChanged();
+	}
+
+	private void refreshFilter() {
+		configurationChanged();
+
+		ArcadeBody2d arcadeBody = gameObject == null ? null : gameObject.getComponent(ArcadeBody2d.class);
+		if (arcadeBody != null && arcadeBody.getWorld() != null)
+			arcadeBody.getWorld().__refreshShape(arcadeBody, this);
+
+		if (fixture == null || scene == null)
+			return;
+
+		Filter filter = fixture.getFilterData();
+		__fillFilter(filter, scene.getCollisionMatrix2d());
+		fixture.setFilterData(filter);
+	}
 
 	/**
 	 * Sets the {@link Fixture} generated for this collider.
@@ -7,11 +7,12 @@ import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
-import com.badlogic.gdx.physics.box2d.Transform;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
 import com.isoterik.mgdx.Component;
 import com.isoterik.mgdx.Scene;
+import com.isoterik.mgdx.Transform;
+import com.isoterik.mgdx.m2d.physics.CollisionMatrix2d;
 import com.isoterik.mgdx.m2d.physics.PhysicsMaterial2d;
 
 /**
@@ -38,6 +39,29 @@ public class Physics2d extends Component {
 
     private Array<Collider> colliders;
 
+    /* The collision matrix of the scene the body was created in */
+    private CollisionMatrix2d collisionMatrix;
+
+    /* The physics region of the body or -1 to use the region of the layer of the host game object */
+    private int physicsRegion = -1;
+
+    /* Whether the body is reused through the body pool of the scene. The key is the configuration the body was created with */
+    private boolean pooled;
+    private String poolKey;
+
+    /*
+    The pool key of the configuration, built once and kept until the colliders change. It is valid for one region, collision matrix and game object size
+    (colliders without a size use the size of the game object)
+     */
+    private boolean poolKeyCached;
+    private String cachedPoolKey;
+    private int cachedPoolKeyRegion;
+    private CollisionMatrix2d cachedPoolKeyMatrix;
+    private float cachedPoolKeyWidth, cachedPoolKeyHeight;
+
+    /* The slot of this component in the physics state buffer of the host scene */
+    private int stateIndex = -1;
+
     /**
      * Creates a new instance given a body type and a physics material.
      * @param bodyType the body type
@@ -64,6 +88,50 @@ public class Physics2d extends Component {
     public Body getBody()
     { return body; }
 
+    /**
+     * Changes the type of the body. Use this instead of {@link Body#setType(BodyDef.BodyType)} so the scene knows which bodies can move.
+     * A pooled body whose type changes is destroyed instead of being pooled.
+     * @param bodyType the body type
+     */
+    public void setBodyType(BodyDef.BodyType bodyType) {
+        if (this.bodyType == bodyType)
+            return;
+
+        this.bodyType = bodyType;
+        __colliderChanged();
+
+        if (body != null)
+            body.setType(bodyType);
+    }
+
+    /**
+     *
+     * @return the type of the body
+     */
+    public BodyDef.BodyType getBodyType()
+    { return bodyType; }
+
+    /**
+     * Enables/Disables body pooling. When enabled, the body is deactivated and kept by the scene when this component is detached or its game object is
+     * removed from the scene. A later body with the same configuration (body type, material, collider shapes and filters) reuses it instead of creating
+     * a new one. This removes the cost of creating and destroying bodies for objects that spawn and despawn often, such as projectiles.
+     * <p>
+     * Only the built-in colliders (and colliders that implement {@link Collider#describeShape(StringBuilder)}) can be pooled.
+     * The configuration is described once and kept until the setters of the colliders change it.
+     * Bodies whose colliders change after creation are destroyed instead.
+     * <strong>Note:</strong> this must be set before the body is created.
+     * @param pooled whether the body should be pooled
+     */
+    public void setPooled(boolean pooled)
+    { this.pooled = pooled; }
+
+    /**
+     *
+     * @return whether the body is pooled
+     */
+    public boolean isPooled()
+    { return pooled; }
+
     /**
      * This creates the physics body if it is not created yet and returns it.
      * <strong>Note:</strong> null will be returned if this component is not attached to a game object yet. If there is an existing body,
@@ -78,7 +146,7 @@ public class Physics2d extends Component {
         if (gameObject == null)
             return null;
 
-        createBody(hostScene.getPhysicsWorld2d());
+        createBody(hostScene);
         return body;
     }
 
@@ -88,9 +156,7 @@ public class Physics2d extends Component {
         fdef.restitution = material.bounciness;
         fdef.density = material.density;
         fdef.isSensor = collider.isSensor();
-        fdef.filter.categoryBits = collider.getCategoryBits();
-        fdef.filter.groupIndex = collider.getGroupIndex();
-        fdef.filter.maskBits = collider.getMaskBits();
+        collider.__fillFilter(fdef.filter, collisionMatrix);
 
         Fixture fixture = body.createFixture(fdef);
         fixture.setUserData(collider.getUserData());
@@ -101,7 +167,11 @@ public class Physics2d extends Component {
     /*
     Creates the physics body for the host game object
      */
-    private void createBody(World physicsWorld) {
+    private void createBody(Scene hostScene) {
+        int region = hostScene.__resolvePhysicsRegion2d(this);
+        World physicsWorld = hostScene.getPhysicsWorld2d(region);
+        collisionMatrix = hostScene.getCollisionMatrix2d();
+
         // Offset the current game object position by half its dimension
         Vector2 pos = new Vector2(gameObject.transform.position.x,
                 gameObject.transform.position.y);
@@ -112,9 +182,20 @@ public class Physics2d extends Component {
         gameObject.transform.origin.set(gameObject.transform.size.x * .5f,
                 gameObject.transform.size.y * .5f, 0);
 
+        float angle = gameObject.transform.getRotation() * MathUtils.degreesToRadians;
+
+        poolKey = pooled ? getPoolKey(region) : null;
+        if (poolKey != null) {
+            Body pooledBody = hostScene.__obtainPooledPhysicsBody2d(poolKey);
+            if (pooledBody != null) {
+                reuseBody(pooledBody, pos, angle);
+                return;
+            }
+        }
+
         BodyDef bdef = new BodyDef();
         bdef.type = bodyType;
-        bdef.angle = gameObject.transform.getRotation() * MathUtils.degreesToRadians;
+        bdef.angle = angle;
         bdef.position.set(pos);
 
         // Create the body
@@ -127,57 +208,197 @@ public class Physics2d extends Component {
         }
     }
 
+    /*
+    Returns the key of the body pool for the current configuration. The key is only built again when the colliders, the region or the collision matrix change
+     */
+    private String getPoolKey(int region) {
+        Vector3 size = gameObject.transform.size;
+        if (!poolKeyCached || cachedPoolKeyRegion != region || cachedPoolKeyMatrix != collisionMatrix
+                || cachedPoolKeyWidth != size.x || cachedPoolKeyHeight != size.y) {
+            cachedPoolKey = buildPoolKey(region);
+            cachedPoolKeyRegion = region;
+            cachedPoolKeyMatrix = collisionMatrix;
+            cachedPoolKeyWidth = size.x;
+            cachedPoolKeyHeight = size.y;
+            poolKeyCached = true;
+        }
+
+        return cachedPoolKey;
+    }
+
+    /*
+    Builds the key of the body pool for the current configuration. Returns null if a collider cannot be pooled
+     */
+    private String buildPoolKey(int region) {
+        StringBuilder key = new StringBuilder();
+        key.append(region)
+                .append(':').append(bodyType)
+                .append(':').append(material.friction)
+                .append(',').append(material.bounciness)
+                .append(',').append(material.density);
+
+        for (Collider collider : colliders) {
+            key.append('|');
+            if (!collider.__appendPoolKey(key, collisionMatrix))
+                return null;
+        }
+
+        return key.toString();
+    }
+
+    /*
+    Resets a pooled body to the defaults of a new body and binds its fixtures to the colliders. The fixtures are in the order of the colliders
+     */
+    private void reuseBody(Body pooledBody, Vector2 position, float angle) {
+        body = pooledBody;
+        body.setTransform(position, angle);
+        body.setLinearVelocity(0, 0);
+        body.setAngularVelocity(0);
+        body.setLinearDamping(0);
+        body.setAngularDamping(0);
+        body.setGravityScale(1);
+        body.setBullet(false);
+        body.setFixedRotation(false);
+        body.setSleepingAllowed(true);
+        body.setUserData(gameObject);
+        body.setActive(true);
+        body.setAwake(true);
+
+        Array<Fixture> fixtures = body.getFixtureList();
+        for (int i = 0; i < colliders.size; i++) {
+            Collider collider = colliders.get(i);
+            Fixture fixture = fixtures.get(i);
+            fixture.setUserData(collider.getUserData());
+            collider.__setFixture(fixture);
+        }
+    }
+
     /**
-     * Interpolates the physic body to avoid temporal aliasing.
-     * This method is called internally by the system and should never be called directly.
-     * @param alpha the ratio of the time spent by the renderer to a fixed time steps
+     * Places the body in a physics region of the scene (see {@link Scene#addPhysicsRegion2d()}). If the body already exists in another region,
+     * it migrates: a new body with the same state and colliders is created in the new region and the old one is destroyed. The contacts of the old body end.
+     * <strong>Note:</strong> do not call this while the physics world is stepping.
+     * @param physicsRegion the id of the region (0 for the main physics world) or -1 to use the region of the layer of the host game object
      */
-    public void __interpolate(float alpha) {
-        // We bail out if the body is either null or inactive
-        if (body == null || !body.isActive())
+    public void setPhysicsRegion(int physicsRegion) {
+        this.physicsRegion = physicsRegion;
+        if (body == null || scene == null)
             return;
 
-        // Get the transform data from the physics body
-        com.badlogic.gdx.physics.box2d.Transform transform =
-                body.getTransform();
-        Vector2 bodyPosition = transform.getPosition();
+        World world = scene.__resolvePhysicsWorld2d(this);
+        if (world != body.getWorld())
+            migrateBody(world);
+    }
 
-        // Offset the current body position by half the dimension of the game object
-        // This effectively move the position from the center of the physics body to its lower left
-        bodyPosition.sub(gameObject.transform.size.x * .5f,
-                gameObject.transform.size.y * .5f);
+    /**
+     *
+     * @return the id of the physics region of the body or -1 if it uses the region of the layer of the host game object
+     */
+    public int getPhysicsRegion()
+    { return physicsRegion; }
 
-        // Get the position of the game object
-        Vector3 position = gameObject.transform.position;
+    /*
+    Recreates the body in another world with the same state
+     */
+    private void migrateBody(World world) {
+        Body oldBody = body;
 
-        // Get the rotation
-        float angle = gameObject.transform.getRotation();
+        BodyDef bdef = new BodyDef();
+        bdef.type = oldBody.getType();
+        bdef.position.set(oldBody.getPosition());
+        bdef.angle = oldBody.getAngle();
+        bdef.linearVelocity.set(oldBody.getLinearVelocity());
+        bdef.angularVelocity = oldBody.getAngularVelocity();
+        bdef.linearDamping = oldBody.getLinearDamping();
+        bdef.angularDamping = oldBody.getAngularDamping();
+        bdef.gravityScale = oldBody.getGravityScale();
+        bdef.allowSleep = oldBody.isSleepingAllowed();
+        bdef.awake = oldBody.isAwake();
+        bdef.fixedRotation = oldBody.isFixedRotation();
+        bdef.bullet = oldBody.isBullet();
+        bdef.active = oldBody.isActive();
+
+        body = world.createBody(bdef);
+        body.setUserData(gameObject);
 
-        // Convert the physics body angle from radians to degrees
-        float bodyAngle = transform.getRotation() * MathUtils.radiansToDegrees;
+        for (Collider collider : colliders) {
+            createAndAttachCollider(collider);
+        }
 
-        // Interpolate the position
-        position.x = bodyPosition.x * alpha + position.x * (1.0f - alpha);
-        position.y = bodyPosition.y * alpha + position.y * (1.0f - alpha);
+        // The old body stops interacting right away; it is destroyed at the end of the frame
+        oldBody.setActive(false);
+        scene.destroyPhysicsBody2d(oldBody);
+        poolKey = null;
+    }
 
-        // Interpolate the rotation
-        gameObject.transform.setRotation(bodyAngle * alpha + angle * (1.0f - alpha));
+    /**
+     * Called when the configuration of a collider changes. The pool key is built again for the next body and the current body is destroyed instead of
+     * being pooled since its fixtures may no longer match its key.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __colliderChanged() {
+        poolKey = null;
+        poolKeyCached = false;
+        cachedPoolKey = null;
     }
 
+    /**
+     * Moves the host game object to an interpolated state of the body.
+     * This method is called internally by the system and should never be called directly.
+     * @param x the x position of the center of the body
+     * @param y the y position of the center of the body
+     * @param angle the angle of the body in radians
+     */
+    public void __setRenderState(float x, float y, float angle) {
+        Transform transform = gameObject.transform;
+
+        // Move the position from the center of the physics body to the lower left of the game object
+        transform.position.x = x - transform.size.x * .5f;
+        transform.position.y = y - transform.size.y * .5f;
+        transform.setRotation(angle * MathUtils.radiansToDegrees);
+    }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @return the slot of this component in the physics state buffer of the host scene or -1 if it has none
+     */
+    public int __getStateIndex()
+    { return stateIndex; }
+
+    /**
+     * Sets the slot of this component in the physics state buffer of the host scene.
+     * This method is called internally by the system. Do not call it directly!
+     * @param stateIndex the slot or -1
+     */
+    public void __setStateIndex(int stateIndex)
+    { this.stateIndex = stateIndex; }
+
     private void __disposeBody() {
         if (scene == null || body == null)
             return;
 
+        if (poolKey != null) {
+            // The body now belongs to the pool
+            scene.__releasePhysicsBody2d(poolKey, body);
+            body = null;
+            poolKey = null;
+            return;
+        }
+
         scene.destroyPhysicsBody2d(body);
     }
 
     @Override
     public void __setHostScene(Scene scene) {
+        // A pooled body goes back to the pool of the previous scene when the game object leaves it
+        if (pooled && this.scene != null && this.scene != scene)
+            __disposeBody();
+
         super.__setHostScene(scene);
 
         // Create a physics body once a valid scene is available
         if (scene != null && body == null) {
-            createBody(scene.getPhysicsWorld2d());
+            createBody(scene);
         }
     }
 
@@ -190,6 +411,7 @@ public class Physics2d extends Component {
         // This signals that the component was just added
         body = null;
         colliders.clear();
+        __colliderChanged();
 
         // Grab available colliders
         Array<Collider> colls = getComponents(Collider.class);
@@ -210,7 +432,7 @@ public class Physics2d extends Component {
     public void start() {
         // Create the physics body using available colliders
         if (body == null)
-            createBody(scene.getPhysicsWorld2d());
+            createBody(scene);
     }
 
     @Override
@@ -221,11 +443,11 @@ public class Physics2d extends Component {
             Collider collider = (Collider)component;
             if (!colliders.contains(collider,true)) {
                 colliders.add(collider);
+                __colliderChanged();
 
                 // If we have a non-null physics body already then we have to attach this collider immediately
-                if (body != null) {
+                if (body != null)
                     createAndAttachCollider(collider);
-                }
             }
         }
     }
@@ -241,36 +463,14 @@ public class Physics2d extends Component {
                 return;
 
             colliders.removeValue(collider, true);
+            __colliderChanged();
 
             if (body != null) {
+                if (scene != null)
+                    scene.__fixtureDestroyed2d(collider.getFixture());
+
                 body.destroyFixture(collider.getFixture());
             }
         }
     }
-
-    @Override
-    public void fixedUpdate(float deltaTime) {
-        // Attempt to create a body if none exists.
-        // This should never happen but just in case
-        if (body == null)
-            createBody(scene.getPhysicsWorld2d());
-
-        // Apply updates only when we have a valid body
-        if (body != null)
-        {
-            Transform transform = body.getTransform();
-            Vector2 pos = transform.getPosition();
-            float rotation = transform.getRotation();
-
-            // Offset the position from the origin (center)
-            pos.sub(gameObject.transform.size.x * 0.5f, gameObject.transform.size.y * 0.5f);
-
-            // Convert the angle to degrees
-            rotation *= MathUtils.radiansToDegrees;
-
-            // Update the transform
-            gameObject.transform.position.set(pos, 0);
-            gameObject.transform.setRotation(rotation);
-        }
-    }
 }
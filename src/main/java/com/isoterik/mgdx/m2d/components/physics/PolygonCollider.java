@@ -24,6 +24,21 @@ public class PolygonCollider extends Collider {
 		this.vertices = vertices;
 	}
 	
+	/**
+	 *
+	 * @return the vertices of the polygon in x,y order
+	 */
+	public float[] getVertices()
+	{ return vertices; }
+
+	@Override
+	protected boolean describeShape(StringBuilder key) {
+		for (float vertex : vertices)
+			key.append(vertex).append(',');
+
+		return true;
+	}
+
 	@Override
 	public FixtureDef getFixtureDef() {
 		shape = new PolygonShape();
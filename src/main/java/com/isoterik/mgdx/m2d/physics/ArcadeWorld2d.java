@@ -0,0 +1,1144 @@
+package com.isoterik.mgdx.m2d.physics;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.LongArray;
+import com.isoterik.mgdx.Component;
+import com.isoterik.mgdx.GameObject;
+import com.isoterik.mgdx.Transform;
+import com.isoterik.mgdx.m2d.components.physics.ArcadeBody2d;
+import com.isoterik.mgdx.m2d.components.physics.BoxCollider;
+import com.isoterik.mgdx.m2d.components.physics.CircleCollider;
+import com.isoterik.mgdx.m2d.components.physics.Collider;
+import com.isoterik.mgdx.m2d.components.physics.PolygonCollider;
+
+/**
+ * A lightweight collision engine written in pure Java. It is an alternative to Box2D for games that only need boxes and circles that overlap and
+ * block each other: there are no JNI calls, no bodies to create and no rotation, joints or forces.
+ * <p>
+ * The game objects take part through the {@link ArcadeBody2d} component and the existing {@link BoxCollider}s and {@link CircleCollider}s
+ * ({@link PolygonCollider}s use their bounds). Every shape is stored in primitive arrays and the shapes are sorted into a uniform grid (a spatial hash)
+ * every step, so only shapes in the same cells are tested. Dynamic bodies are moved by their velocity and gravity one axis at a time and stop at the
+ * solid shapes in their way, which lets them slide along walls and floors. Sensors never block; they only report overlaps.
+ * <p>
+ * Shapes interact according to their category and mask bits and group index (including the layers of the {@link CollisionMatrix2d} of the scene),
+ * just like Box2D fixtures. Overlaps that begin and end are dispatched to {@link Component#onCollisionEnter2d(Collision2d)} and the other collision
+ * callbacks after each step. The {@link Collision2d#collider} and {@link Collision2d#otherCollider} of these collisions are set; the contact and
+ * fixtures are null.
+ * <p>
+ * Every scene has an arcade world (see {@link com.isoterik.mgdx.Scene#getArcadeWorld2d()}). It is stepped with the fixed time step of the scene.
+ *
+ * @author isoteriksoftware
+ */
+public class ArcadeWorld2d {
+    private final CollisionMatrix2d collisionMatrix;
+    private final Vector2 gravity = new Vector2();
+    private float cellSize;
+    private float contactOffset = .001f;
+
+    // Bodies
+    private ArcadeBody2d[] bodies = new ArcadeBody2d[16];
+    private ArcadeBody2d.BodyType[] bodyTypes = new ArcadeBody2d.BodyType[16];
+    private float[] bodyX = new float[16], bodyY = new float[16];
+    private float[] velocityX = new float[16], velocityY = new float[16];
+    private float[] gravityScales = new float[16];
+    private float[] syncedX = new float[16], syncedY = new float[16];
+    private int[] blocked = new int[16];
+    private int bodyCount;
+
+    // Shapes. The position of a shape is the position of its body plus its offset
+    private Collider[] colliders = new Collider[16];
+    private int[] shapeBodies = new int[16], shapeIds = new int[16];
+    private float[] offsetX = new float[16], offsetY = new float[16];
+    private float[] halfWidths = new float[16], halfHeights = new float[16];
+    private boolean[] circles = new boolean[16], sensors = new boolean[16];
+    private short[] categories = new short[16], masks = new short[16], groups = new short[16];
+    private int shapeCount, nextShapeId;
+    private final IntIntMap shapeSlots = new IntIntMap();
+    private final Filter filter = new Filter();
+
+    // The grid. Shapes are counting sorted into the buckets of a spatial hash
+    private float inverseCellSize = 1;
+    private int tableMask;
+    private int[] bucketStarts = new int[65], bucketCursors = new int[65];
+    private int[] entries = new int[64];
+    private int[] cellRanges = new int[64];
+    private int[] stamps = new int[16];
+    private int stamp;
+    private final IntArray candidates = new IntArray();
+
+    // The overlapping pairs of shapes (sorted keys made of the ids of the shapes) and the changes found by the last step
+    private LongArray pairs = new LongArray(), newPairs = new LongArray();
+    private final LongArray beganPairs = new LongArray(), endedPairs = new LongArray();
+
+    // The result of the last penetration test
+    private float penetrationX, penetrationY;
+
+    // Exits of shapes that were removed. They are dispatched once the removal completes
+    private final Array<Collider> pendingColliders = new Array<>();
+    private final Array<GameObject> pendingGameObjects = new Array<>();
+    private final BooleanArray pendingSensors = new BooleanArray();
+    private final IntArray pendingOtherIds = new IntArray();
+    private boolean flushingExits;
+
+    // Dispatch
+    private final Collision2d.CollisionPool collisionPool = new Collision2d.CollisionPool();
+    private Collision2d collision;
+    private boolean isSensor;
+    private final GameObject.__ComponentIterationListener enterIter, exitIter;
+
+    /**
+     * Creates a new instance.
+     * @param collisionMatrix the collision matrix used to resolve the layers of the colliders
+     */
+    public ArcadeWorld2d(CollisionMatrix2d collisionMatrix) {
+        this.collisionMatrix = collisionMatrix;
+
+        enterIter = new GameObject.__ComponentIterationListener() {
+            @Override
+            public void onComponent(Component comp) {
+                if (!comp.isEnabled())
+                    return;
+
+                if (isSensor)
+                    comp.onSensorEnter2d(collision);
+                else
+                    comp.onCollisionEnter2d(collision);
+            }
+        };
+
+        exitIter = new GameObject.__ComponentIterationListener() {
+            @Override
+            public void onComponent(Component comp) {
+                if (!comp.isEnabled())
+                    return;
+
+                if (isSensor)
+                    comp.onSensorExit2d(collision);
+                else
+                    comp.onCollisionExit2d(collision);
+            }
+        };
+    }
+
+    /**
+     * Sets the gravity applied to dynamic bodies.
+     * @param x the horizontal gravity
+     * @param y the vertical gravity
+     */
+    public void setGravity(float x, float y)
+    { gravity.set(x, y); }
+
+    /**
+     *
+     * @return the gravity applied to dynamic bodies
+     */
+    public Vector2 getGravity()
+    { return gravity; }
+
+    /**
+     * Sets the size of the cells of the grid. A good size is about twice the size of a typical shape.
+     * Pass 0 (the default) to compute it from the average size of the shapes every step.
+     * @param cellSize the size of the cells in world units or 0
+     */
+    public void setCellSize(float cellSize)
+    { this.cellSize = cellSize; }
+
+    /**
+     *
+     * @return the size of the cells of the grid or 0 if it is computed every step
+     */
+    public float getCellSize()
+    { return cellSize; }
+
+    /**
+     * Shapes closer than this distance are considered touching. This keeps resting bodies in contact with the ground. Defaults to 0.001.
+     * @param contactOffset the contact offset in world units
+     */
+    public void setContactOffset(float contactOffset)
+    { this.contactOffset = contactOffset; }
+
+    /**
+     *
+     * @return the distance under which shapes are considered touching
+     */
+    public float getContactOffset()
+    { return contactOffset; }
+
+    /**
+     *
+     * @return the number of bodies in this world
+     */
+    public int getBodyCount()
+    { return bodyCount; }
+
+    /**
+     *
+     * @return the number of shapes in this world
+     */
+    public int getShapeCount()
+    { return shapeCount; }
+
+    /**
+     *
+     * @return true if a body of this world can move in the next step. false otherwise
+     */
+    public boolean hasMovingBodies() {
+        for (int i = 0; i < bodyCount; i++) {
+            ArcadeBody2d.BodyType type = bodyTypes[i];
+            if (type == ArcadeBody2d.BodyType.STATIC)
+                continue;
+
+            if (velocityX[i] != 0 || velocityY[i] != 0)
+                return true;
+
+            if (type == ArcadeBody2d.BodyType.DYNAMIC && gravityScales[i] != 0 && !gravity.isZero())
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Advances the world by a time step. Teleported game objects are picked up, the bodies are moved and resolved, the transforms are updated and the
+     * overlaps that began or ended are dispatched.
+     * @param timeStep the time step
+     */
+    public void step(float timeStep) {
+        if (bodyCount == 0)
+            return;
+
+        readTransforms();
+
+        for (int i = 0; i < bodyCount; i++) {
+            if (bodyTypes[i] == ArcadeBody2d.BodyType.DYNAMIC) {
+                velocityX[i] += gravity.x * gravityScales[i] * timeStep;
+                velocityY[i] += gravity.y * gravityScales[i] * timeStep;
+            }
+        }
+
+        // The grid covers the path of every moving shape so the movers find the solids they can reach
+        buildGrid(timeStep);
+
+        for (int i = 0; i < bodyCount; i++) {
+            ArcadeBody2d.BodyType type = bodyTypes[i];
+            if (type == ArcadeBody2d.BodyType.KINEMATIC) {
+                bodyX[i] += velocityX[i] * timeStep;
+                bodyY[i] += velocityY[i] * timeStep;
+            }
+            else if (type == ArcadeBody2d.BodyType.DYNAMIC) {
+                blocked[i] = 0;
+                moveBody(i, velocityX[i] * timeStep, velocityY[i] * timeStep);
+            }
+        }
+
+        for (int i = 0; i < bodyCount; i++) {
+            if (bodyTypes[i] == ArcadeBody2d.BodyType.DYNAMIC)
+                separateBody(i);
+        }
+
+        buildGrid(0);
+        findPairs();
+        writeTransforms();
+        dispatchPairs();
+    }
+
+    /**
+     * Moves a body and stops it at the solid shapes in its way. The movement is done one axis at a time, so the body slides along the shapes it hits.
+     * This uses the grid of the last step.
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the index of the body
+     * @param dx the horizontal movement
+     * @param dy the vertical movement
+     */
+    public void __move(int body, float dx, float dy) {
+        readTransform(body);
+        moveBody(body, dx, dy);
+        separateBody(body);
+        writeTransform(body);
+    }
+
+    /**
+     * Adds a body and the shapes of its colliders.
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the body
+     */
+    public void __addBody(ArcadeBody2d body) {
+        ensureBodyCapacity(bodyCount + 1);
+
+        int index = bodyCount++;
+        Transform transform = body.getGameObject().transform;
+
+        bodies[index] = body;
+        bodyTypes[index] = body.getBodyType();
+        bodyX[index] = transform.position.x + transform.size.x * .5f;
+        bodyY[index] = transform.position.y + transform.size.y * .5f;
+        syncedX[index] = transform.position.x;
+        syncedY[index] = transform.position.y;
+        velocityX[index] = body.__getInitialVelocityX();
+        velocityY[index] = body.__getInitialVelocityY();
+        gravityScales[index] = body.__getInitialGravityScale();
+        blocked[index] = 0;
+        body.__setWorld(this, index);
+
+        Array<Collider> bodyColliders = body.__getColliders();
+        for (int i = 0; i < bodyColliders.size; i++)
+            __addShape(body, bodyColliders.get(i));
+    }
+
+    /**
+     * Removes a body and its shapes. The overlaps of the shapes end.
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the body
+     */
+    public void __removeBody(ArcadeBody2d body) {
+        int index = body.__getBodyIndex();
+        if (index < 0 || index >= bodyCount || bodies[index] != body)
+            return;
+
+        IntArray slots = body.__getShapeSlots();
+        while (slots.size > 0)
+            removeShape(slots.peek());
+
+        // Keep the state so it survives when the body is added again
+        body.__storeState(velocityX[index], velocityY[index], gravityScales[index]);
+
+        int last = bodyCount - 1;
+        if (index != last) {
+            bodies[index] = bodies[last];
+            bodyTypes[index] = bodyTypes[last];
+            bodyX[index] = bodyX[last];
+            bodyY[index] = bodyY[last];
+            syncedX[index] = syncedX[last];
+            syncedY[index] = syncedY[last];
+            velocityX[index] = velocityX[last];
+            velocityY[index] = velocityY[last];
+            gravityScales[index] = gravityScales[last];
+            blocked[index] = blocked[last];
+
+            ArcadeBody2d moved = bodies[index];
+            moved.__setWorld(this, index);
+            IntArray movedSlots = moved.__getShapeSlots();
+            for (int i = 0; i < movedSlots.size; i++)
+                shapeBodies[movedSlots.get(i)] = index;
+        }
+
+        bodies[last] = null;
+        bodyTypes[last] = null;
+        bodyCount--;
+        body.__setWorld(null, -1);
+
+        flushExits();
+    }
+
+    /**
+     * Adds the shape of a collider to a body.
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the body
+     * @param collider the collider
+     * @throws GdxRuntimeException if the collider is not supported
+     */
+    public void __addShape(ArcadeBody2d body, Collider collider) throws GdxRuntimeException {
+        ensureShapeCapacity(shapeCount + 1);
+
+        int slot = shapeCount++;
+        int id = nextShapeId++;
+        colliders[slot] = collider;
+        shapeBodies[slot] = body.__getBodyIndex();
+        shapeIds[slot] = id;
+        sensors[slot] = collider.isSensor();
+        shapeSlots.put(id, slot);
+        body.__getShapeSlots().add(slot);
+
+        readShape(slot, collider, body.getGameObject().transform);
+
+        collider.__fillFilter(filter, collisionMatrix);
+        categories[slot] = filter.categoryBits;
+        masks[slot] = filter.maskBits;
+        groups[slot] = filter.groupIndex;
+    }
+
+    /**
+     * Reads the sensor flag and the filter of a collider again after they changed. Overlaps that no longer interact end on the next step.
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the body
+     * @param collider the collider
+     */
+    public void __refreshShape(ArcadeBody2d body, Collider collider) {
+        IntArray slots = body.__getShapeSlots();
+        for (int i = 0; i < slots.size; i++) {
+            int slot = slots.get(i);
+            if (colliders[slot] != collider)
+                continue;
+
+            sensors[slot] = collider.isSensor();
+            collider.__fillFilter(filter, collisionMatrix);
+            categories[slot] = filter.categoryBits;
+            masks[slot] = filter.maskBits;
+            groups[slot] = filter.groupIndex;
+            break;
+        }
+    }
+
+    /**
+     * Removes the shape of a collider from a body. The overlaps of the shape end.
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the body
+     * @param collider the collider
+     */
+    public void __removeShape(ArcadeBody2d body, Collider collider) {
+        IntArray slots = body.__getShapeSlots();
+        for (int i = 0; i < slots.size; i++) {
+            int slot = slots.get(i);
+            if (colliders[slot] == collider) {
+                removeShape(slot);
+                break;
+            }
+        }
+
+        flushExits();
+    }
+
+    /**
+     * Sets the velocity of a body.
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the index of the body
+     * @param x the horizontal velocity
+     * @param y the vertical velocity
+     */
+    public void __setVelocity(int body, float x, float y) {
+        velocityX[body] = x;
+        velocityY[body] = y;
+    }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the index of a body
+     * @return the horizontal velocity of the body
+     */
+    public float __getVelocityX(int body)
+    { return velocityX[body]; }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the index of a body
+     * @return the vertical velocity of the body
+     */
+    public float __getVelocityY(int body)
+    { return velocityY[body]; }
+
+    /**
+     * Sets the gravity scale of a body.
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the index of the body
+     * @param gravityScale the gravity scale
+     */
+    public void __setGravityScale(int body, float gravityScale)
+    { gravityScales[body] = gravityScale; }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the index of a body
+     * @return the gravity scale of the body
+     */
+    public float __getGravityScale(int body)
+    { return gravityScales[body]; }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @param body the index of a body
+     * @return the sides of the body that were blocked during the last step
+     */
+    public int __getBlocked(int body)
+    { return blocked[body]; }
+
+    /* Reads the extents of a collider. Shapes without a size assume the size of the game object, like they do with Box2D */
+    private void readShape(int slot, Collider collider, Transform transform) {
+        if (collider instanceof CircleCollider) {
+            CircleCollider circle = (CircleCollider)collider;
+            float radius = circle.getRadius() <= 0 ? transform.size.x * .5f : circle.getRadius();
+            circles[slot] = true;
+            halfWidths[slot] = halfHeights[slot] = radius;
+            offsetX[slot] = circle.getPosition().x;
+            offsetY[slot] = circle.getPosition().y;
+        }
+        else if (collider instanceof BoxCollider) {
+            BoxCollider box = (BoxCollider)collider;
+            boolean noSize = box.getSize().isZero();
+            circles[slot] = false;
+            halfWidths[slot] = (noSize ? transform.size.x : box.getSize().x) * .5f;
+            halfHeights[slot] = (noSize ? transform.size.y : box.getSize().y) * .5f;
+            offsetX[slot] = box.getCenter().x;
+            offsetY[slot] = box.getCenter().y;
+        }
+        else if (collider instanceof PolygonCollider) {
+            float[] vertices = ((PolygonCollider)collider).getVertices();
+            float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+            for (int i = 0; i < vertices.length - 1; i += 2) {
+                minX = Math.min(minX, vertices[i]);
+                maxX = Math.max(maxX, vertices[i]);
+                minY = Math.min(minY, vertices[i + 1]);
+                maxY = Math.max(maxY, vertices[i + 1]);
+            }
+
+            circles[slot] = false;
+            halfWidths[slot] = (maxX - minX) * .5f;
+            halfHeights[slot] = (maxY - minY) * .5f;
+            offsetX[slot] = (minX + maxX) * .5f;
+            offsetY[slot] = (minY + maxY) * .5f;
+        }
+        else {
+            // Undo the slot so the world stays consistent
+            removeShape(slot);
+            throw new GdxRuntimeException(collider.getClass().getSimpleName() + " is not supported by the arcade physics!");
+        }
+    }
+
+    private void removeShape(int slot) {
+        int id = shapeIds[slot];
+        int body = shapeBodies[slot];
+
+        // The overlaps of the shape end
+        GameObject gameObject = bodies[body].getGameObject();
+        int kept = 0;
+        for (int i = 0; i < pairs.size; i++) {
+            long key = pairs.get(i);
+            int a = (int)(key >>> 32), b = (int)key;
+            if (a != id && b != id) {
+                pairs.set(kept++, key);
+                continue;
+            }
+
+            pendingColliders.add(colliders[slot]);
+            pendingGameObjects.add(gameObject);
+            pendingSensors.add(sensors[slot]);
+            pendingOtherIds.add(a == id ? b : a);
+        }
+        pairs.size = kept;
+
+        shapeSlots.remove(id, -1);
+        bodies[body].__getShapeSlots().removeValue(slot);
+
+        int last = shapeCount - 1;
+        if (slot != last) {
+            colliders[slot] = colliders[last];
+            shapeBodies[slot] = shapeBodies[last];
+            shapeIds[slot] = shapeIds[last];
+            offsetX[slot] = offsetX[last];
+            offsetY[slot] = offsetY[last];
+            halfWidths[slot] = halfWidths[last];
+            halfHeights[slot] = halfHeights[last];
+            circles[slot] = circles[last];
+            sensors[slot] = sensors[last];
+            categories[slot] = categories[last];
+            masks[slot] = masks[last];
+            groups[slot] = groups[last];
+
+            shapeSlots.put(shapeIds[slot], slot);
+            IntArray movedSlots = bodies[shapeBodies[slot]].__getShapeSlots();
+            movedSlots.set(movedSlots.indexOf(last), slot);
+        }
+
+        colliders[last] = null;
+        shapeCount--;
+    }
+
+    /* Dispatches the exits of removed shapes. Handlers can remove more shapes, so the queue can grow while it is flushed */
+    private void flushExits() {
+        if (flushingExits)
+            return;
+
+        flushingExits = true;
+        try {
+            for (int i = 0; i < pendingOtherIds.size; i++) {
+                int other = shapeSlots.get(pendingOtherIds.get(i), -1);
+                if (other == -1)
+                    continue;
+
+                dispatch(false, pendingColliders.get(i), pendingGameObjects.get(i), pendingSensors.get(i),
+                        colliders[other], bodies[shapeBodies[other]].getGameObject(), sensors[other]);
+            }
+        } finally {
+            pendingColliders.clear();
+            pendingGameObjects.clear();
+            pendingSensors.clear();
+            pendingOtherIds.clear();
+            flushingExits = false;
+        }
+    }
+
+    /* Picks up the game objects that were moved by the game since the last step */
+    private void readTransforms() {
+        for (int i = 0; i < bodyCount; i++)
+            readTransform(i);
+    }
+
+    private void readTransform(int body) {
+        Transform transform = bodies[body].getGameObject().transform;
+        if (transform.position.x != syncedX[body] || transform.position.y != syncedY[body]) {
+            bodyX[body] = transform.position.x + transform.size.x * .5f;
+            bodyY[body] = transform.position.y + transform.size.y * .5f;
+            syncedX[body] = transform.position.x;
+            syncedY[body] = transform.position.y;
+        }
+    }
+
+    private void writeTransforms() {
+        for (int i = 0; i < bodyCount; i++) {
+            if (bodyTypes[i] != ArcadeBody2d.BodyType.STATIC)
+                writeTransform(i);
+        }
+    }
+
+    private void writeTransform(int body) {
+        Transform transform = bodies[body].getGameObject().transform;
+        transform.position.x = bodyX[body] - transform.size.x * .5f;
+        transform.position.y = bodyY[body] - transform.size.y * .5f;
+        syncedX[body] = transform.position.x;
+        syncedY[body] = transform.position.y;
+    }
+
+    private void moveBody(int body, float dx, float dy) {
+        if (dx != 0) {
+            float allowed = sweep(body, dx, true);
+            bodyX[body] += allowed;
+            if (allowed != dx) {
+                blocked[body] |= dx > 0 ? ArcadeBody2d.BLOCKED_RIGHT : ArcadeBody2d.BLOCKED_LEFT;
+                velocityX[body] = 0;
+            }
+        }
+
+        if (dy != 0) {
+            float allowed = sweep(body, dy, false);
+            bodyY[body] += allowed;
+            if (allowed != dy) {
+                blocked[body] |= dy > 0 ? ArcadeBody2d.BLOCKED_UP : ArcadeBody2d.BLOCKED_DOWN;
+                velocityY[body] = 0;
+            }
+        }
+    }
+
+    /*
+    Finds how far the boxes of a body can move along an axis before they hit a solid box. Pairs that involve circles are resolved afterwards by
+    separateBody(). Shapes that already overlap deeply are ignored so bodies can move out of them.
+     */
+    private float sweep(int body, float distance, boolean horizontal) {
+        float allowed = distance;
+        IntArray slots = bodies[body].__getShapeSlots();
+
+        for (int k = 0; k < slots.size; k++) {
+            int s = slots.get(k);
+            if (sensors[s] || circles[s])
+                continue;
+
+            float minX = bodyX[body] + offsetX[s] - halfWidths[s], maxX = bodyX[body] + offsetX[s] + halfWidths[s];
+            float minY = bodyY[body] + offsetY[s] - halfHeights[s], maxY = bodyY[body] + offsetY[s] + halfHeights[s];
+
+            if (horizontal)
+                query(Math.min(minX, minX + distance), minY, Math.max(maxX, maxX + distance), maxY);
+            else
+                query(minX, Math.min(minY, minY + distance), maxX, Math.max(maxY, maxY + distance));
+
+            for (int i = 0; i < candidates.size; i++) {
+                int c = candidates.get(i);
+                if (shapeBodies[c] == body || sensors[c] || circles[c] || !interacts(s, c))
+                    continue;
+
+                int other = shapeBodies[c];
+                float cMinX = bodyX[other] + offsetX[c] - halfWidths[c], cMaxX = bodyX[other] + offsetX[c] + halfWidths[c];
+                float cMinY = bodyY[other] + offsetY[c] - halfHeights[c], cMaxY = bodyY[other] + offsetY[c] + halfHeights[c];
+
+                if (horizontal) {
+                    // Shapes that only touch on the other axis do not block
+                    if (maxY - cMinY <= contactOffset || cMaxY - minY <= contactOffset)
+                        continue;
+
+                    allowed = clampMovement(allowed, distance, cMinX - maxX, cMaxX - minX);
+                }
+                else {
+                    if (maxX - cMinX <= contactOffset || cMaxX - minX <= contactOffset)
+                        continue;
+
+                    allowed = clampMovement(allowed, distance, cMinY - maxY, cMaxY - minY);
+                }
+            }
+        }
+
+        return allowed;
+    }
+
+    private float clampMovement(float allowed, float distance, float gapAhead, float gapBehind) {
+        if (distance > 0) {
+            if (gapAhead < -contactOffset)
+                return allowed;
+
+            return Math.min(allowed, Math.max(gapAhead, 0));
+        }
+
+        if (gapBehind > contactOffset)
+            return allowed;
+
+        return Math.max(allowed, Math.min(gapBehind, 0));
+    }
+
+    /* Pushes a dynamic body out of the solid shapes it overlaps. This resolves circles and shapes that moved into the body */
+    private void separateBody(int body) {
+        IntArray slots = bodies[body].__getShapeSlots();
+
+        for (int k = 0; k < slots.size; k++) {
+            int s = slots.get(k);
+            if (sensors[s])
+                continue;
+
+            query(bodyX[body] + offsetX[s] - halfWidths[s], bodyY[body] + offsetY[s] - halfHeights[s],
+                    bodyX[body] + offsetX[s] + halfWidths[s], bodyY[body] + offsetY[s] + halfHeights[s]);
+
+            for (int i = 0; i < candidates.size; i++) {
+                int c = candidates.get(i);
+                if (shapeBodies[c] == body || sensors[c] || !interacts(s, c))
+                    continue;
+
+                float depth = penetration(s, c);
+                if (depth <= contactOffset)
+                    continue;
+
+                // Two dynamic bodies share the correction
+                if (bodyTypes[shapeBodies[c]] == ArcadeBody2d.BodyType.DYNAMIC)
+                    depth *= .5f;
+
+                float nx = penetrationX, ny = penetrationY;
+                bodyX[body] += nx * depth;
+                bodyY[body] += ny * depth;
+
+                float into = velocityX[body] * nx + velocityY[body] * ny;
+                if (into < 0) {
+                    velocityX[body] -= nx * into;
+                    velocityY[body] -= ny * into;
+                }
+
+                if (ny > .7f)
+                    blocked[body] |= ArcadeBody2d.BLOCKED_DOWN;
+                else if (ny < -.7f)
+                    blocked[body] |= ArcadeBody2d.BLOCKED_UP;
+                else if (nx > .7f)
+                    blocked[body] |= ArcadeBody2d.BLOCKED_LEFT;
+                else if (nx < -.7f)
+                    blocked[body] |= ArcadeBody2d.BLOCKED_RIGHT;
+            }
+        }
+    }
+
+    /*
+    Computes how deep shape s is inside shape c. The direction that pushes s out is stored in penetrationX and penetrationY.
+    Returns 0 or less if the shapes do not overlap.
+     */
+    private float penetration(int s, int c) {
+        int bs = shapeBodies[s], bc = shapeBodies[c];
+        float sx = bodyX[bs] + offsetX[s], sy = bodyY[bs] + offsetY[s];
+        float cx = bodyX[bc] + offsetX[c], cy = bodyY[bc] + offsetY[c];
+
+        if (circles[s] && circles[c]) {
+            float dx = sx - cx, dy = sy - cy;
+            float distance = (float)Math.sqrt(dx * dx + dy * dy);
+            setPenetrationNormal(dx, dy, distance);
+            return halfWidths[s] + halfWidths[c] - distance;
+        }
+
+        if (circles[s])
+            return circleBoxPenetration(sx, sy, halfWidths[s], cx, cy, halfWidths[c], halfHeights[c]);
+
+        if (circles[c]) {
+            float depth = circleBoxPenetration(cx, cy, halfWidths[c], sx, sy, halfWidths[s], halfHeights[s]);
+            penetrationX = -penetrationX;
+            penetrationY = -penetrationY;
+            return depth;
+        }
+
+        float overlapX = halfWidths[s] + halfWidths[c] - Math.abs(sx - cx);
+        float overlapY = halfHeights[s] + halfHeights[c] - Math.abs(sy - cy);
+        if (overlapX <= 0 || overlapY <= 0)
+            return 0;
+
+        if (overlapX < overlapY) {
+            penetrationX = sx < cx ? -1 : 1;
+            penetrationY = 0;
+            return overlapX;
+        }
+
+        penetrationX = 0;
+        penetrationY = sy < cy ? -1 : 1;
+        return overlapY;
+    }
+
+    private float circleBoxPenetration(float x, float y, float radius, float boxX, float boxY, float halfWidth, float halfHeight) {
+        float closestX = MathUtils.clamp(x, boxX - halfWidth, boxX + halfWidth);
+        float closestY = MathUtils.clamp(y, boxY - halfHeight, boxY + halfHeight);
+        float dx = x - closestX, dy = y - closestY;
+
+        if (dx == 0 && dy == 0) {
+            // The center is inside the box; push out along the closest side
+            float overlapX = halfWidth + radius - Math.abs(x - boxX);
+            float overlapY = halfHeight + radius - Math.abs(y - boxY);
+            if (overlapX < overlapY) {
+                penetrationX = x < boxX ? -1 : 1;
+                penetrationY = 0;
+                return overlapX;
+            }
+
+            penetrationX = 0;
+            penetrationY = y < boxY ? -1 : 1;
+            return overlapY;
+        }
+
+        float distance = (float)Math.sqrt(dx * dx + dy * dy);
+        setPenetrationNormal(dx, dy, distance);
+        return radius - distance;
+    }
+
+    private void setPenetrationNormal(float dx, float dy, float distance) {
+        if (distance == 0) {
+            penetrationX = 0;
+            penetrationY = 1;
+            return;
+        }
+
+        penetrationX = dx / distance;
+        penetrationY = dy / distance;
+    }
+
+    private boolean interacts(int s, int c) {
+        if (groups[s] == groups[c] && groups[s] != 0)
+            return groups[s] > 0;
+
+        return (categories[s] & masks[c]) != 0 && (categories[c] & masks[s]) != 0;
+    }
+
+    /* Checks if two shapes overlap or are closer than the contact offset */
+    private boolean overlaps(int s, int c) {
+        int bs = shapeBodies[s], bc = shapeBodies[c];
+        float sx = bodyX[bs] + offsetX[s], sy = bodyY[bs] + offsetY[s];
+        float cx = bodyX[bc] + offsetX[c], cy = bodyY[bc] + offsetY[c];
+
+        if (circles[s] && circles[c]) {
+            float dx = sx - cx, dy = sy - cy;
+            float r = halfWidths[s] + halfWidths[c] + contactOffset;
+            return dx * dx + dy * dy <= r * r;
+        }
+
+        if (circles[s] || circles[c]) {
+            float x = circles[s] ? sx : cx, y = circles[s] ? sy : cy;
+            float radius = (circles[s] ? halfWidths[s] : halfWidths[c]) + contactOffset;
+            float boxX = circles[s] ? cx : sx, boxY = circles[s] ? cy : sy;
+            int box = circles[s] ? c : s;
+
+            float dx = x - MathUtils.clamp(x, boxX - halfWidths[box], boxX + halfWidths[box]);
+            float dy = y - MathUtils.clamp(y, boxY - halfHeights[box], boxY + halfHeights[box]);
+            return dx * dx + dy * dy <= radius * radius;
+        }
+
+        return Math.abs(sx - cx) <= halfWidths[s] + halfWidths[c] + contactOffset
+                && Math.abs(sy - cy) <= halfHeights[s] + halfHeights[c] + contactOffset;
+    }
+
+    /*
+    Finds every pair of overlapping shapes and compares them with the pairs of the last step. Static shapes never look for pairs themselves;
+    the moving shapes find them, so large static levels cost nothing.
+     */
+    private void findPairs() {
+        newPairs.clear();
+
+        for (int s = 0; s < shapeCount; s++) {
+            int body = shapeBodies[s];
+            if (bodyTypes[body] == ArcadeBody2d.BodyType.STATIC)
+                continue;
+
+            int bs = body;
+            query(bodyX[bs] + offsetX[s] - halfWidths[s] - contactOffset, bodyY[bs] + offsetY[s] - halfHeights[s] - contactOffset,
+                    bodyX[bs] + offsetX[s] + halfWidths[s] + contactOffset, bodyY[bs] + offsetY[s] + halfHeights[s] + contactOffset);
+
+            for (int i = 0; i < candidates.size; i++) {
+                int c = candidates.get(i);
+                int other = shapeBodies[c];
+                if (other == body)
+                    continue;
+
+                // A pair of moving shapes is found twice; keep the one found by the lower slot
+                if (bodyTypes[other] != ArcadeBody2d.BodyType.STATIC && c < s)
+                    continue;
+
+                if ((sensors[s] && sensors[c]) || !interacts(s, c) || !overlaps(s, c))
+                    continue;
+
+                newPairs.add(pairKey(shapeIds[s], shapeIds[c]));
+            }
+        }
+
+        newPairs.sort();
+
+        // Both arrays are sorted; walk them together to find the pairs that began and ended
+        beganPairs.clear();
+        endedPairs.clear();
+        int i = 0, j = 0;
+        while (i < pairs.size || j < newPairs.size) {
+            if (j >= newPairs.size || (i < pairs.size && pairs.get(i) < newPairs.get(j)))
+                endedPairs.add(pairs.get(i++));
+            else if (i >= pairs.size || newPairs.get(j) < pairs.get(i))
+                beganPairs.add(newPairs.get(j++));
+            else {
+                i++;
+                j++;
+            }
+        }
+
+        LongArray tmp = pairs;
+        pairs = newPairs;
+        newPairs = tmp;
+    }
+
+    private void dispatchPairs() {
+        for (int i = 0; i < endedPairs.size; i++)
+            dispatchPair(false, endedPairs.get(i));
+
+        for (int i = 0; i < beganPairs.size; i++)
+            dispatchPair(true, beganPairs.get(i));
+
+        beganPairs.clear();
+        endedPairs.clear();
+    }
+
+    /* Shapes removed by earlier handlers are skipped */
+    private void dispatchPair(boolean begin, long key) {
+        int a = shapeSlots.get((int)(key >>> 32), -1);
+        int b = shapeSlots.get((int)key, -1);
+        if (a == -1 || b == -1)
+            return;
+
+        dispatch(begin, colliders[a], bodies[shapeBodies[a]].getGameObject(), sensors[a],
+                colliders[b], bodies[shapeBodies[b]].getGameObject(), sensors[b]);
+    }
+
+    private void dispatch(boolean begin, Collider colliderA, GameObject goA, boolean sensorA,
+                          Collider colliderB, GameObject goB, boolean sensorB) {
+        boolean listenA = goA != null && goA.hasCollisionListeners();
+        boolean listenB = goB != null && goB.hasCollisionListeners();
+        if (!listenA && !listenB)
+            return;
+
+        // Handlers can remove shapes which dispatches again; restore the outer state when done
+        Collision2d outerCollision = collision;
+        boolean outerSensor = isSensor;
+
+        if (listenA) {
+            collision = collisionPool.obtain(null, goB, null, null);
+            collision.collider = colliderA;
+            collision.otherCollider = colliderB;
+            isSensor = sensorA;
+            goA.__forEachCollisionListener(begin ? enterIter : exitIter);
+            collisionPool.free(collision);
+        }
+
+        if (listenB) {
+            collision = collisionPool.obtain(null, goA, null, null);
+            collision.collider = colliderB;
+            collision.otherCollider = colliderA;
+            isSensor = sensorB;
+            goB.__forEachCollisionListener(begin ? enterIter : exitIter);
+            collisionPool.free(collision);
+        }
+
+        collision = outerCollision;
+        isSensor = outerSensor;
+    }
+
+    private static long pairKey(int idA, int idB) {
+        if (idA > idB) {
+            int tmp = idA;
+            idA = idB;
+            idB = tmp;
+        }
+
+        return ((long)idA << 32) | (idB & 0xffffffffL);
+    }
+
+    /* Sorts the shapes into the grid. When timeStep is positive, the cells of moving shapes cover the path of the step */
+    private void buildGrid(float timeStep) {
+        float size = cellSize > 0 ? cellSize : computeCellSize();
+        inverseCellSize = 1f / size;
+
+        int tableSize = MathUtils.nextPowerOfTwo(Math.max(64, shapeCount * 2));
+        if (bucketStarts.length < tableSize + 1) {
+            bucketStarts = new int[tableSize + 1];
+            bucketCursors = new int[tableSize + 1];
+        }
+        tableMask = tableSize - 1;
+
+        if (cellRanges.length < shapeCount * 4)
+            cellRanges = new int[shapeCount * 8];
+
+        for (int i = 0; i <= tableSize; i++)
+            bucketStarts[i] = 0;
+
+        // Count the entries of every bucket
+        for (int s = 0; s < shapeCount; s++) {
+            int body = shapeBodies[s];
+            float minX = bodyX[body] + offsetX[s] - halfWidths[s], maxX = bodyX[body] + offsetX[s] + halfWidths[s];
+            float minY = bodyY[body] + offsetY[s] - halfHeights[s], maxY = bodyY[body] + offsetY[s] + halfHeights[s];
+
+            if (timeStep > 0 && bodyTypes[body] != ArcadeBody2d.BodyType.STATIC) {
+                float dx = velocityX[body] * timeStep, dy = velocityY[body] * timeStep;
+                minX += Math.min(dx, 0);
+                maxX += Math.max(dx, 0);
+                minY += Math.min(dy, 0);
+                maxY += Math.max(dy, 0);
+            }
+
+            int offset = s * 4;
+            cellRanges[offset] = MathUtils.floor(minX * inverseCellSize);
+            cellRanges[offset + 1] = MathUtils.floor(minY * inverseCellSize);
+            cellRanges[offset + 2] = MathUtils.floor(maxX * inverseCellSize);
+            cellRanges[offset + 3] = MathUtils.floor(maxY * inverseCellSize);
+
+            for (int cy = cellRanges[offset + 1]; cy <= cellRanges[offset + 3]; cy++) {
+                for (int cx = cellRanges[offset]; cx <= cellRanges[offset + 2]; cx++)
+                    bucketStarts[bucket(cx, cy) + 1]++;
+            }
+        }
+
+        for (int i = 1; i <= tableSize; i++)
+            bucketStarts[i] += bucketStarts[i - 1];
+
+        if (entries.length < bucketStarts[tableSize])
+            entries = new int[MathUtils.nextPowerOfTwo(bucketStarts[tableSize])];
+
+        // Fill the buckets
+        System.arraycopy(bucketStarts, 0, bucketCursors, 0, tableSize);
+        for (int s = 0; s < shapeCount; s++) {
+            int offset = s * 4;
+            for (int cy = cellRanges[offset + 1]; cy <= cellRanges[offset + 3]; cy++) {
+                for (int cx = cellRanges[offset]; cx <= cellRanges[offset + 2]; cx++)
+                    entries[bucketCursors[bucket(cx, cy)]++] = s;
+            }
+        }
+    }
+
+    private float computeCellSize() {
+        if (shapeCount == 0)
+            return 1;
+
+        float total = 0;
+        for (int s = 0; s < shapeCount; s++)
+            total += Math.max(halfWidths[s], halfHeights[s]);
+
+        // Twice the average size of a shape (which is twice its half size)
+        float size = total / shapeCount * 4;
+        return size > 0 ? size : 1;
+    }
+
+    private int bucket(int cx, int cy)
+    { return ((cx * 73856093) ^ (cy * 19349663)) & tableMask; }
+
+    /* Collects the shapes in the cells that an area covers. Each shape is collected once */
+    private void query(float minX, float minY, float maxX, float maxY) {
+        candidates.clear();
+        stamp++;
+
+        int cellMinX = MathUtils.floor(minX * inverseCellSize), cellMaxX = MathUtils.floor(maxX * inverseCellSize);
+        int cellMinY = MathUtils.floor(minY * inverseCellSize), cellMaxY = MathUtils.floor(maxY * inverseCellSize);
+
+        for (int cy = cellMinY; cy <= cellMaxY; cy++) {
+            for (int cx = cellMinX; cx <= cellMaxX; cx++) {
+                int bucket = bucket(cx, cy);
+                for (int e = bucketStarts[bucket], end = bucketStarts[bucket + 1]; e < end; e++) {
+                    int s = entries[e];
+
+                    // The grid is rebuilt every step; shapes removed since then are skipped
+                    if (s >= shapeCount || stamps[s] == stamp)
+                        continue;
+
+                    stamps[s] = stamp;
+                    candidates.add(s);
+                }
+            }
+        }
+    }
+
+    private void ensureBodyCapacity(int capacity) {
+        if (bodies.length >= capacity)
+            return;
+
+        int size = Math.max(capacity, bodies.length * 2);
+        ArcadeBody2d[] newBodies = new ArcadeBody2d[size];
+        System.arraycopy(bodies, 0, newBodies, 0, bodyCount);
+        bodies = newBodies;
+
+        ArcadeBody2d.BodyType[] newTypes = new ArcadeBody2d.BodyType[size];
+        System.arraycopy(bodyTypes, 0, newTypes, 0, bodyCount);
+        bodyTypes = newTypes;
+
+        bodyX = resize(bodyX, size);
+        bodyY = resize(bodyY, size);
+        velocityX = resize(velocityX, size);
+        velocityY = resize(velocityY, size);
+        gravityScales = resize(gravityScales, size);
+        syncedX = resize(syncedX, size);
+        syncedY = resize(syncedY, size);
+        blocked = resize(blocked, size);
+    }
+
+    private void ensureShapeCapacity(int capacity) {
+        if (colliders.length >= capacity)
+            return;
+
+        int size = Math.max(capacity, colliders.length * 2);
+        Collider[] newColliders = new Collider[size];
+        System.arraycopy(colliders, 0, newColliders, 0, shapeCount);
+        colliders = newColliders;
+
+        shapeBodies = resize(shapeBodies, size);
+        shapeIds = resize(shapeIds, size);
+        offsetX = resize(offsetX, size);
+        offsetY = resize(offsetY, size);
+        halfWidths = resize(halfWidths, size);
+        halfHeights = resize(halfHeights, size);
+        circles = resize(circles, size);
+        sensors = resize(sensors, size);
+        categories = resize(categories, size);
+        masks = resize(masks, size);
+        groups = resize(groups, size);
+        stamps = resize(stamps, size);
+    }
+
+    private static float[] resize(float[] array, int size) {
+        float[] newArray = new float[size];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    private static int[] resize(int[] array, int size) {
+        int[] newArray = new int[size];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    private static short[] resize(short[] array, int size) {
+        short[] newArray = new short[size];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    private static boolean[] resize(boolean[] array, int size) {
+        boolean[] newArray = new boolean[size];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+}
@@ -4,6 +4,7 @@ import com.badlogic.gdx.physics.box2d.Contact;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.utils.Pool;
 import com.isoterik.mgdx.GameObject;
+import com.isoterik.mgdx.m2d.components.physics.Collider;
 
 /**
  * A Collision2d is generated when the {@link com.badlogic.gdx.physics.box2d.Body} of a {@link GameObject} collides with another {@link com.badlogic.gdx.physics.box2d.Body}.
@@ -14,6 +15,7 @@ import com.isoterik.mgdx.GameObject;
 public final class Collision2d implements Pool.Poolable {
     /**
      * The {@link Contact} instance generated for this collision.
+     * This is null when the scene dispatches contacts after the physics step (see {@link com.isoterik.mgdx.Scene#setQueueContactEvents2d(boolean)}).
      */
     public Contact contact;
 
@@ -32,6 +34,16 @@ public final class Collision2d implements Pool.Poolable {
      */
     public Fixture otherFixture;
 
+    /**
+     * The collider of the current game object that collided. This is only set by the arcade physics (see {@link ArcadeWorld2d}); Box2D collisions use the fixtures.
+     */
+    public Collider collider;
+
+    /**
+     * The collider of the other game object that collided. This is only set by the arcade physics (see {@link ArcadeWorld2d}).
+     */
+    public Collider otherCollider;
+
     /**
      * Creates a new instance given a contact and the game object collided with
      * @param contact the contact
@@ -62,6 +74,8 @@ public final class Collision2d implements Pool.Poolable {
         other = null;
         fixture = null;
         otherFixture = null;
+        collider = null;
+        otherCollider = null;
     }
 
     /**
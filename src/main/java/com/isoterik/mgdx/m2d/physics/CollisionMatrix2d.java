@@ -0,0 +1,214 @@
+package com.isoterik.mgdx.m2d.physics;
+
+import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * A collision matrix maps named physics layers to the category and mask bits of Box2D fixtures. There are up to {@link #MAX_LAYERS} layers and a table
+ * of which pairs of layers interact. Pairs that never interact are rejected by the broadphase filter of Box2D, so they never reach the narrow phase
+ * or the collision callbacks.
+ * <p>
+ * Every scene has a matrix (see {@link com.isoterik.mgdx.Scene#getCollisionMatrix2d()}). Colliders reference a layer by name or id and their filter
+ * bits are filled in when their fixtures are created. The layer {@link #DEFAULT_LAYER} always exists and every pair of layers interacts until told otherwise.
+ * <p>
+ * <strong>Note:</strong> changes to the matrix only affect fixtures created afterwards. Configure the matrix before adding game objects.
+ *
+ * @author isoteriksoftware
+ */
+public class CollisionMatrix2d {
+    /** The maximum number of layers. Box2D filters have 16 category bits. */
+    public static final int MAX_LAYERS = 16;
+
+    /** The id of the default layer. */
+    public static final int DEFAULT_LAYER = 0;
+
+    /** The name of the default layer. */
+    public static final String DEFAULT_LAYER_NAME = "Default";
+
+    private final String[] names = new String[MAX_LAYERS];
+
+    // For each layer, the bits of the layers it interacts with
+    private final short[] masks = new short[MAX_LAYERS];
+
+    /**
+     * Creates a new matrix with only the default layer. Every pair of layers interacts.
+     */
+    public CollisionMatrix2d() {
+        names[DEFAULT_LAYER] = DEFAULT_LAYER_NAME;
+        for (int i = 0; i < MAX_LAYERS; i++)
+            masks[i] = -1;
+    }
+
+    /**
+     * Adds a named layer using the first free id.
+     * @param name the name of the layer
+     * @return the id of the layer
+     * @throws GdxRuntimeException if a layer with the name already exists or there are already {@link #MAX_LAYERS} layers
+     */
+    public int addLayer(String name) throws GdxRuntimeException {
+        if (getLayerId(name) != -1)
+            throw new GdxRuntimeException("A collision layer named '" + name + "' already exists!");
+
+        for (int i = 0; i < MAX_LAYERS; i++) {
+            if (names[i] == null) {
+                names[i] = name;
+                return i;
+            }
+        }
+
+        throw new GdxRuntimeException("There can only be " + MAX_LAYERS + " collision layers!");
+    }
+
+    /**
+     * Names a layer. This can also rename an existing layer.
+     * @param id the id of the layer
+     * @param name the name of the layer
+     * @throws GdxRuntimeException if the id is out of range or another layer has the name
+     */
+    public void setLayer(int id, String name) throws GdxRuntimeException {
+        checkId(id);
+
+        int existing = getLayerId(name);
+        if (existing != -1 && existing != id)
+            throw new GdxRuntimeException("A collision layer named '" + name + "' already exists!");
+
+        names[id] = name;
+    }
+
+    /**
+     *
+     * @param name the name of a layer
+     * @return the id of the layer or -1 if there is no such layer
+     */
+    public int getLayerId(String name) {
+        for (int i = 0; i < MAX_LAYERS; i++) {
+            if (names[i] != null && names[i].equals(name))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     *
+     * @param id the id of a layer
+     * @return the name of the layer or null if the layer is not named
+     */
+    public String getLayerName(int id) {
+        checkId(id);
+        return names[id];
+    }
+
+    /**
+     * Sets whether two layers interact. The table is symmetric, so the order of the layers does not matter.
+     * @param layerA the id of a layer
+     * @param layerB the id of the other layer
+     * @param collides whether the layers interact
+     */
+    public void setCollides(int layerA, int layerB, boolean collides) {
+        checkId(layerA);
+        checkId(layerB);
+
+        if (collides) {
+            masks[layerA] |= (1 << layerB);
+            masks[layerB] |= (1 << layerA);
+        }
+        else {
+            masks[layerA] &= ~(1 << layerB);
+            masks[layerB] &= ~(1 << layerA);
+        }
+    }
+
+    /**
+     * Sets whether two named layers interact.
+     * @param layerA the name of a layer
+     * @param layerB the name of the other layer
+     * @param collides whether the layers interact
+     * @throws GdxRuntimeException if any of the layers does not exist
+     */
+    public void setCollides(String layerA, String layerB, boolean collides) throws GdxRuntimeException
+    { setCollides(requireLayerId(layerA), requireLayerId(layerB), collides); }
+
+    /**
+     * Sets whether a layer interacts with every layer (including itself).
+     * @param layer the id of the layer
+     * @param collides whether the layer interacts with other layers
+     */
+    public void setCollidesWithAll(int layer, boolean collides) {
+        for (int i = 0; i < MAX_LAYERS; i++)
+            setCollides(layer, i, collides);
+    }
+
+    /**
+     *
+     * @param layerA the id of a layer
+     * @param layerB the id of the other layer
+     * @return whether the layers interact
+     */
+    public boolean collides(int layerA, int layerB) {
+        checkId(layerA);
+        checkId(layerB);
+        return (masks[layerA] & (1 << layerB)) != 0;
+    }
+
+    /**
+     *
+     * @param layerA the name of a layer
+     * @param layerB the name of the other layer
+     * @return whether the layers interact
+     * @throws GdxRuntimeException if any of the layers does not exist
+     */
+    public boolean collides(String layerA, String layerB) throws GdxRuntimeException
+    { return collides(requireLayerId(layerA), requireLayerId(layerB)); }
+
+    /**
+     *
+     * @param layer the id of a layer
+     * @return the category bits of fixtures on the layer
+     */
+    public short getCategoryBits(int layer) {
+        checkId(layer);
+        return (short)(1 << layer);
+    }
+
+    /**
+     *
+     * @param layer the id of a layer
+     * @return the mask bits of fixtures on the layer
+     */
+    public short getMaskBits(int layer) {
+        checkId(layer);
+        return masks[layer];
+    }
+
+    /**
+     * Fills the category and mask bits of a filter for a layer. The group index is left untouched.
+     * @param layer the id of the layer
+     * @param filter the filter to fill
+     * @return the filter
+     */
+    public Filter fillFilter(int layer, Filter filter) {
+        filter.categoryBits = getCategoryBits(layer);
+        filter.maskBits = getMaskBits(layer);
+        return filter;
+    }
+
+    /**
+     *
+     * @param name the name of a layer
+     * @return the id of the layer
+     * @throws GdxRuntimeException if there is no such layer
+     */
+    public int requireLayerId(String name) throws GdxRuntimeException {
+        int id = getLayerId(name);
+        if (id == -1)
+            throw new GdxRuntimeException("There is no collision layer named '" + name + "'!");
+
+        return id;
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= MAX_LAYERS)
+            throw new GdxRuntimeException("Invalid collision layer: " + id + ". Layers range from 0 to " + (MAX_LAYERS - 1));
+    }
+}
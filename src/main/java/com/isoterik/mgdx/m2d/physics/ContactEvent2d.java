@@ -0,0 +1,69 @@
+package com.isoterik.mgdx.m2d.physics;
+
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.utils.Pool;
+import com.isoterik.mgdx.GameObject;
+
+/**
+ * A contact that began or ended during a physics step. The scene records these while the world steps and dispatches them as {@link Collision2d}s after the step,
+ * so the handlers are free to modify the world.
+ *
+ * @author isoteriksoftware
+ */
+public final class ContactEvent2d implements Pool.Poolable {
+    /** Whether the contact began. false if it ended. */
+    public boolean begin;
+
+    /** The fixtures of the contact. */
+    public Fixture fixtureA, fixtureB;
+
+    /** The game objects of the fixtures. Either can be null if the body does not belong to a game object. */
+    public GameObject gameObjectA, gameObjectB;
+
+    /** Whether the fixtures are sensors. */
+    public boolean sensorA, sensorB;
+
+    /** Whether this event was cancelled by a later event of the same step. Cancelled events are not dispatched. */
+    public boolean cancelled;
+
+    /**
+     * Checks if this event is for a pair of fixtures, in any order.
+     * @param fixtureA a fixture
+     * @param fixtureB the other fixture
+     * @return true if this event is for the given fixtures. false otherwise
+     */
+    public boolean isPair(Fixture fixtureA, Fixture fixtureB) {
+        return (this.fixtureA == fixtureA && this.fixtureB == fixtureB)
+                || (this.fixtureA == fixtureB && this.fixtureB == fixtureA);
+    }
+
+    @Override
+    public void reset() {
+        fixtureA = fixtureB = null;
+        gameObjectA = gameObjectB = null;
+        begin = sensorA = sensorB = cancelled = false;
+    }
+
+    /**
+     * A pool for recycling instances of {@link ContactEvent2d}
+     */
+    public static class ContactEventPool extends Pool<ContactEvent2d> {
+        @Override
+        protected ContactEvent2d newObject()
+        { return new ContactEvent2d(); }
+
+        public ContactEvent2d obtain(boolean begin, Fixture fixtureA, Fixture fixtureB, GameObject gameObjectA, GameObject gameObjectB,
+                                     boolean sensorA, boolean sensorB) {
+            ContactEvent2d event = obtain();
+            event.begin = begin;
+            event.fixtureA = fixtureA;
+            event.fixtureB = fixtureB;
+            event.gameObjectA = gameObjectA;
+            event.gameObjectB = gameObjectB;
+            event.sensorA = sensorA;
+            event.sensorB = sensorB;
+
+            return event;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package com.isoterik.mgdx.m2d.physics;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.EdgeShape;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.QueryCallback;
+import com.badlogic.gdx.physics.box2d.RayCastCallback;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.Transform;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.isoterik.mgdx.GameObject;
+
+/**
+ * PhysicsQuery2d runs ray casts and overlap tests against a Box2D {@link World} without allocating. The callbacks given to Box2D are reused and the
+ * hits are pooled {@link RaycastHit2d}s, so queries can be issued hundreds of times per frame (for example, the vision cones of many agents).
+ * <p>
+ * Every query takes a layer mask that is tested against the category bits of the fixtures. Use {@link #ALL_LAYERS} to test every fixture, or build a
+ * mask from the {@link CollisionMatrix2d} of the scene:
+ * <pre>{@code
+ * int mask = matrix.getCategoryBits(matrix.getLayerId("Walls")) | matrix.getCategoryBits(matrix.getLayerId("Enemies"));
+ * }</pre>
+ * Every scene has an instance (see {@link com.isoterik.mgdx.Scene#getPhysicsQuery2d()}).
+ * <strong>Note:</strong> queries must not be issued while the world is stepping.
+ *
+ * @author isoteriksoftware
+ */
+public class PhysicsQuery2d implements RayCastCallback, QueryCallback {
+    /** A layer mask that accepts every fixture. */
+    public static final int ALL_LAYERS = -1;
+
+    private static final int MODE_FIRST = 0, MODE_ALL = 1, MODE_BOX = 2, MODE_CIRCLE = 3;
+
+    private final World world;
+    private final RaycastHit2d.RaycastHitPool hitPool = new RaycastHit2d.RaycastHitPool();
+    private boolean queriesHitSensors = true;
+
+    // The state of the running query
+    private int mode;
+    private int layerMask;
+    private boolean hit;
+    private RaycastHit2d firstHit;
+    private Array<RaycastHit2d> hits;
+    private Array<GameObject> gameObjects;
+    private float queryX, queryY, queryHalfWidth, queryHalfHeight, queryRadius;
+
+    // World space vertices of the shape being tested
+    private float[] vertices = new float[16];
+    private final Vector2 tmp = new Vector2();
+
+    /**
+     * Creates a new instance given a world.
+     * @param world the world to query
+     */
+    public PhysicsQuery2d(World world)
+    { this.world = world; }
+
+    /**
+     * Whether queries should report sensor fixtures. It is enabled by default.
+     * @param queriesHitSensors whether sensors are reported
+     */
+    public void setQueriesHitSensors(boolean queriesHitSensors)
+    { this.queriesHitSensors = queriesHitSensors; }
+
+    /**
+     *
+     * @return whether queries report sensor fixtures
+     */
+    public boolean isQueriesHitSensors()
+    { return queriesHitSensors; }
+
+    /**
+     * Casts a ray and finds the closest fixture it hits.
+     * @param x1 the x coordinate of the start of the ray
+     * @param y1 the y coordinate of the start of the ray
+     * @param x2 the x coordinate of the end of the ray
+     * @param y2 the y coordinate of the end of the ray
+     * @param layerMask the categories of fixtures that can be hit
+     * @param hit receives the closest hit. It is left untouched if nothing is hit
+     * @return true if the ray hit a fixture. false otherwise
+     */
+    public boolean raycastFirst(float x1, float y1, float x2, float y2, int layerMask, RaycastHit2d hit) {
+        begin(MODE_FIRST, layerMask);
+        firstHit = hit;
+        castRay(x1, y1, x2, y2);
+        firstHit = null;
+
+        return this.hit;
+    }
+
+    /**
+     * Casts a ray and finds every fixture it hits. The hits are obtained from a pool and added to the given array sorted from the closest to the farthest.
+     * Give them back with {@link #freeHits(Array)} once they are no longer needed.
+     * @param x1 the x coordinate of the start of the ray
+     * @param y1 the y coordinate of the start of the ray
+     * @param x2 the x coordinate of the end of the ray
+     * @param y2 the y coordinate of the end of the ray
+     * @param layerMask the categories of fixtures that can be hit
+     * @param hits the array that receives the hits. It is not cleared
+     * @return the number of hits added
+     */
+    public int raycastAll(float x1, float y1, float x2, float y2, int layerMask, Array<RaycastHit2d> hits) {
+        begin(MODE_ALL, layerMask);
+        this.hits = hits;
+
+        int start = hits.size;
+        castRay(x1, y1, x2, y2);
+        sortHits(hits, start);
+
+        this.hits = null;
+        return hits.size - start;
+    }
+
+    /**
+     * Casts many rays in one call and finds the closest fixture each of them hits. The rays are packed as {@code x1, y1, x2, y2} in the given array.
+     * One hit is obtained from the pool for every ray that hits a fixture; {@link RaycastHit2d#rayIndex} tells which ray it belongs to.
+     * Give the hits back with {@link #freeHits(Array)} once they are no longer needed.
+     * @param rays the rays
+     * @param rayCount the number of rays in the array
+     * @param layerMask the categories of fixtures that can be hit
+     * @param hits the array that receives the hits in the order of the rays. It is not cleared
+     * @return the number of rays that hit a fixture
+     */
+    public int raycastBatch(float[] rays, int rayCount, int layerMask, Array<RaycastHit2d> hits) {
+        int count = 0;
+        RaycastHit2d hit = hitPool.obtain();
+
+        for (int i = 0; i < rayCount; i++) {
+            int offset = i * 4;
+            if (raycastFirst(rays[offset], rays[offset + 1], rays[offset + 2], rays[offset + 3], layerMask, hit)) {
+                hit.rayIndex = i;
+                hits.add(hit);
+                hit = hitPool.obtain();
+                count++;
+            }
+        }
+
+        hitPool.free(hit);
+        return count;
+    }
+
+    /**
+     * Finds the game objects with a fixture that overlaps an axis aligned box.
+     * Circles and polygons (including edges and chains) are tested exactly. Bodies that do not belong to a game object are ignored.
+     * @param centerX the x coordinate of the center of the box
+     * @param centerY the y coordinate of the center of the box
+     * @param width the width of the box
+     * @param height the height of the box
+     * @param layerMask the categories of fixtures that can be found
+     * @param gameObjects the array that receives the game objects. Each game object is added once. It is not cleared
+     * @return the number of game objects added
+     */
+    public int overlapBox(float centerX, float centerY, float width, float height, int layerMask, Array<GameObject> gameObjects) {
+        begin(MODE_BOX, layerMask);
+        queryX = centerX;
+        queryY = centerY;
+        queryHalfWidth = width * .5f;
+        queryHalfHeight = height * .5f;
+
+        return queryArea(gameObjects);
+    }
+
+    /**
+     * Finds the game objects with a fixture that overlaps a circle.
+     * Circles and polygons (including edges and chains) are tested exactly. Bodies that do not belong to a game object are ignored.
+     * @param x the x coordinate of the center of the circle
+     * @param y the y coordinate of the center of the circle
+     * @param radius the radius of the circle
+     * @param layerMask the categories of fixtures that can be found
+     * @param gameObjects the array that receives the game objects. Each game object is added once. It is not cleared
+     * @return the number of game objects added
+     */
+    public int overlapCircle(float x, float y, float radius, int layerMask, Array<GameObject> gameObjects) {
+        begin(MODE_CIRCLE, layerMask);
+        queryX = x;
+        queryY = y;
+        queryHalfWidth = queryHalfHeight = queryRadius = radius;
+
+        return queryArea(gameObjects);
+    }
+
+    /**
+     * Gives hits back to the pool and clears the array.
+     * @param hits the hits
+     */
+    public void freeHits(Array<RaycastHit2d> hits) {
+        hitPool.freeAll(hits);
+        hits.clear();
+    }
+
+    /**
+     *
+     * @return the pool of hits. Use it to obtain hits for {@link #raycastFirst(float, float, float, float, int, RaycastHit2d)}
+     */
+    public RaycastHit2d.RaycastHitPool getHitPool()
+    { return hitPool; }
+
+    private void begin(int mode, int layerMask) {
+        this.mode = mode;
+        this.layerMask = layerMask;
+        hit = false;
+    }
+
+    private void castRay(float x1, float y1, float x2, float y2) {
+        // Box2D asserts on zero length rays
+        if (x1 == x2 && y1 == y2)
+            return;
+
+        world.rayCast(this, x1, y1, x2, y2);
+    }
+
+    private int queryArea(Array<GameObject> gameObjects) {
+        this.gameObjects = gameObjects;
+
+        int start = gameObjects.size;
+        world.QueryAABB(this, queryX - queryHalfWidth, queryY - queryHalfHeight,
+                queryX + queryHalfWidth, queryY + queryHalfHeight);
+
+        this.gameObjects = null;
+        return gameObjects.size - start;
+    }
+
+    private boolean accepts(Fixture fixture) {
+        if ((fixture.getFilterData().categoryBits & layerMask) == 0)
+            return false;
+
+        return queriesHitSensors || !fixture.isSensor();
+    }
+
+    private static GameObject getGameObject(Fixture fixture) {
+        Object userData = fixture.getBody().getUserData();
+        return userData instanceof GameObject ? (GameObject)userData : null;
+    }
+
+    @Override
+    public float reportRayFixture(Fixture fixture, Vector2 point, Vector2 normal, float fraction) {
+        if (!accepts(fixture))
+            return -1;
+
+        if (mode == MODE_FIRST) {
+            hit = true;
+            fillHit(firstHit, fixture, point, normal, fraction);
+
+            // Clip the ray so only closer fixtures are reported
+            return fraction;
+        }
+
+        RaycastHit2d result = hitPool.obtain();
+        fillHit(result, fixture, point, normal, fraction);
+        hits.add(result);
+
+        return 1;
+    }
+
+    private void fillHit(RaycastHit2d result, Fixture fixture, Vector2 point, Vector2 normal, float fraction) {
+        result.gameObject = getGameObject(fixture);
+        result.fixture = fixture;
+        result.point.set(point);
+        result.normal.set(normal);
+        result.fraction = fraction;
+        result.rayIndex = 0;
+    }
+
+    private static void sortHits(Array<RaycastHit2d> hits, int start) {
+        // Rays rarely hit many fixtures, so an insertion sort is cheap and does not allocate
+        RaycastHit2d[] items = hits.items;
+        for (int i = start + 1; i < hits.size; i++) {
+            RaycastHit2d hit = items[i];
+            int j = i - 1;
+            while (j >= start && items[j].fraction > hit.fraction) {
+                items[j + 1] = items[j];
+                j--;
+            }
+            items[j + 1] = hit;
+        }
+    }
+
+    @Override
+    public boolean reportFixture(Fixture fixture) {
+        if (!accepts(fixture))
+            return true;
+
+        GameObject gameObject = getGameObject(fixture);
+        if (gameObject == null || gameObjects.contains(gameObject, true))
+            return true;
+
+        if (overlaps(fixture))
+            gameObjects.add(gameObject);
+
+        return true;
+    }
+
+    private boolean overlaps(Fixture fixture) {
+        Shape shape = fixture.getShape();
+        Transform transform = fixture.getBody().getTransform();
+
+        switch (shape.getType()) {
+            case Circle: {
+                CircleShape circle = (CircleShape)shape;
+                Vector2 center = circle.getPosition();
+                toWorld(transform, center.x, center.y, 0);
+                return overlapsCircle(vertices[0], vertices[1], circle.getRadius());
+            }
+            case Polygon: {
+                PolygonShape polygon = (PolygonShape)shape;
+                int count = polygon.getVertexCount();
+                ensureCapacity(count);
+                for (int i = 0; i < count; i++) {
+                    polygon.getVertex(i, tmp);
+                    toWorld(transform, tmp.x, tmp.y, i * 2);
+                }
+                return overlapsPolygon(count);
+            }
+            case Edge: {
+                EdgeShape edge = (EdgeShape)shape;
+                edge.getVertex1(tmp);
+                toWorld(transform, tmp.x, tmp.y, 0);
+                edge.getVertex2(tmp);
+                toWorld(transform, tmp.x, tmp.y, 2);
+                return overlapsPolygon(2);
+            }
+            case Chain: {
+                ChainShape chain = (ChainShape)shape;
+                int count = chain.getVertexCount();
+                int segments = chain.isLooped() ? count : count - 1;
+                for (int i = 0; i < segments; i++) {
+                    chain.getVertex(i, tmp);
+                    toWorld(transform, tmp.x, tmp.y, 0);
+                    chain.getVertex((i + 1) % count, tmp);
+                    toWorld(transform, tmp.x, tmp.y, 2);
+                    if (overlapsPolygon(2))
+                        return true;
+                }
+                return false;
+            }
+            default:
+                return false;
+        }
+    }
+
+    private void toWorld(Transform transform, float x, float y, int offset) {
+        float[] vals = transform.vals;
+        float cos = vals[Transform.COS], sin = vals[Transform.SIN];
+        vertices[offset] = vals[Transform.POS_X] + cos * x - sin * y;
+        vertices[offset + 1] = vals[Transform.POS_Y] + sin * x + cos * y;
+    }
+
+    private void ensureCapacity(int vertexCount) {
+        if (vertices.length < vertexCount * 2)
+            vertices = new float[vertexCount * 2];
+    }
+
+    private boolean overlapsCircle(float x, float y, float radius) {
+        if (mode == MODE_CIRCLE) {
+            float dx = x - queryX, dy = y - queryY;
+            float r = radius + queryRadius;
+            return dx * dx + dy * dy <= r * r;
+        }
+
+        // Distance from the center of the circle to the closest point of the box
+        float dx = x - Math.max(queryX - queryHalfWidth, Math.min(x, queryX + queryHalfWidth));
+        float dy = y - Math.max(queryY - queryHalfHeight, Math.min(y, queryY + queryHalfHeight));
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    /* Tests the convex polygon (or segment when count is 2) in the vertices buffer against the query shape */
+    private boolean overlapsPolygon(int count) {
+        if (mode == MODE_CIRCLE)
+            return polygonOverlapsCircle(count);
+
+        return polygonOverlapsBox(count);
+    }
+
+    private boolean polygonOverlapsBox(int count) {
+        float minX = queryX - queryHalfWidth, maxX = queryX + queryHalfWidth;
+        float minY = queryY - queryHalfHeight, maxY = queryY + queryHalfHeight;
+
+        // The axes of the box
+        float pMinX = Float.MAX_VALUE, pMaxX = -Float.MAX_VALUE, pMinY = Float.MAX_VALUE, pMaxY = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            float x = vertices[i * 2], y = vertices[i * 2 + 1];
+            pMinX = Math.min(pMinX, x);
+            pMaxX = Math.max(pMaxX, x);
+            pMinY = Math.min(pMinY, y);
+            pMaxY = Math.max(pMaxY, y);
+        }
+        if (pMaxX < minX || pMinX > maxX || pMaxY < minY || pMinY > maxY)
+            return false;
+
+        // The normals of the edges of the polygon
+        int edges = count == 2 ? 1 : count;
+        for (int i = 0; i < edges; i++) {
+            int next = (i + 1) % count;
+            float axisX = vertices[next * 2 + 1] - vertices[i * 2 + 1];
+            float axisY = vertices[i * 2] - vertices[next * 2];
+
+            float polyMin = Float.MAX_VALUE, polyMax = -Float.MAX_VALUE;
+            for (int j = 0; j < count; j++) {
+                float d = vertices[j * 2] * axisX + vertices[j * 2 + 1] * axisY;
+                polyMin = Math.min(polyMin, d);
+                polyMax = Math.max(polyMax, d);
+            }
+
+            float center = queryX * axisX + queryY * axisY;
+            float extent = queryHalfWidth * Math.abs(axisX) + queryHalfHeight * Math.abs(axisY);
+            if (polyMax < center - extent || polyMin > center + extent)
+                return false;
+        }
+
+        return true;
+    }
+
+    private boolean polygonOverlapsCircle(int count) {
+        float r2 = queryRadius * queryRadius;
+
+        // Box2D polygons are counter-clockwise; the center is inside if it is on the left of every edge
+        boolean inside = count > 2;
+        int edges = count == 2 ? 1 : count;
+        for (int i = 0; i < edges; i++) {
+            int next = (i + 1) % count;
+            float ax = vertices[i * 2], ay = vertices[i * 2 + 1];
+            float ex = vertices[next * 2] - ax, ey = vertices[next * 2 + 1] - ay;
+            float px = queryX - ax, py = queryY - ay;
+
+            if (ex * py - ey * px < 0)
+                inside = false;
+
+            // Distance from the center to the closest point of the edge
+            float lengthSquared = ex * ex + ey * ey;
+            float t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * ex + py * ey) / lengthSquared));
+            float dx = px - ex * t, dy = py - ey * t;
+            if (dx * dx + dy * dy <= r2)
+                return true;
+        }
+
+        return inside;
+    }
+}
@@ -0,0 +1,184 @@
+package com.isoterik.mgdx.m2d.physics;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactImpulse;
+import com.badlogic.gdx.physics.box2d.ContactListener;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.Manifold;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/**
+ * A physics region is an extra Box2D {@link World} of a scene. Bodies in different regions never interact, so the regions of a scene are stepped in
+ * parallel. This is useful for large maps made of independent areas such as separate arenas or rooms.
+ * <p>
+ * While the region steps on a worker thread, its contacts are only recorded. The scene replays them on its own thread once every region has finished
+ * stepping, so the collision callbacks of components always run on the thread that updates the scene. Contacts reported outside a step (such as when a
+ * body is destroyed) are forwarded to the scene immediately.
+ * <p>
+ * Regions are created with {@link com.isoterik.mgdx.Scene#addPhysicsRegion2d()}.
+ *
+ * @author isoteriksoftware
+ */
+public class PhysicsRegion2d implements ContactListener, Disposable {
+    private final int id;
+    private final World world;
+    private final ContactListener sceneListener;
+
+    private volatile boolean stepping;
+
+    // The contacts recorded during the last step. The fixtures are stored in pairs
+    private final Array<Fixture> contactFixtures = new Array<>();
+    private final BooleanArray contactBegins = new BooleanArray();
+
+    private float timeStep;
+    private int velocityIterations, positionIterations;
+    private final AsyncTask<Void> stepTask;
+
+    /**
+     * Creates a new region.
+     * @param id the id of the region in its scene
+     * @param gravity the gravity of the region
+     * @param sceneListener the listener that receives the contacts reported outside a step
+     */
+    public PhysicsRegion2d(int id, Vector2 gravity, ContactListener sceneListener) {
+        this.id = id;
+        this.sceneListener = sceneListener;
+
+        world = new World(gravity, true);
+        world.setContactListener(this);
+
+        stepTask = new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                __step(timeStep, velocityIterations, positionIterations);
+                return null;
+            }
+        };
+    }
+
+    /**
+     *
+     * @return the id of this region in its scene
+     */
+    public int getId()
+    { return id; }
+
+    /**
+     *
+     * @return the physics world of this region
+     */
+    public World getWorld()
+    { return world; }
+
+    /**
+     * Steps the world of this region. Contacts are recorded until they are replayed by the scene.
+     * This method is called internally by the system. Do not call it directly!
+     * @param timeStep the time step
+     * @param velocityIterations the velocity iterations
+     * @param positionIterations the position iterations
+     */
+    public void __step(float timeStep, int velocityIterations, int positionIterations) {
+        stepping = true;
+        try {
+            world.step(timeStep, velocityIterations, positionIterations);
+        } finally {
+            stepping = false;
+        }
+    }
+
+    /**
+     * Prepares a task that steps the world of this region on another thread.
+     * This method is called internally by the system. Do not call it directly!
+     * @param timeStep the time step
+     * @param velocityIterations the velocity iterations
+     * @param positionIterations the position iterations
+     * @return the task
+     */
+    public AsyncTask<Void> __prepareStep(float timeStep, int velocityIterations, int positionIterations) {
+        this.timeStep = timeStep;
+        this.velocityIterations = velocityIterations;
+        this.positionIterations = positionIterations;
+        return stepTask;
+    }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @return the number of contacts recorded during the last step
+     */
+    public int __getContactCount()
+    { return contactBegins.size; }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @param index the index of a recorded contact
+     * @return the first fixture of the contact
+     */
+    public Fixture __getContactFixtureA(int index)
+    { return contactFixtures.get(index * 2); }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @param index the index of a recorded contact
+     * @return the second fixture of the contact
+     */
+    public Fixture __getContactFixtureB(int index)
+    { return contactFixtures.get(index * 2 + 1); }
+
+    /**
+     *
+     * This method is called internally by the system. Do not call it directly!
+     * @param index the index of a recorded contact
+     * @return whether the contact began. false if it ended
+     */
+    public boolean __isContactBegin(int index)
+    { return contactBegins.get(index); }
+
+    /**
+     * Forgets the recorded contacts.
+     * This method is called internally by the system. Do not call it directly!
+     */
+    public void __clearContacts() {
+        contactFixtures.clear();
+        contactBegins.clear();
+    }
+
+    private void onContact(Contact contact, boolean begin) {
+        if (!stepping) {
+            if (begin)
+                sceneListener.beginContact(contact);
+            else
+                sceneListener.endContact(contact);
+            return;
+        }
+
+        contactFixtures.add(contact.getFixtureA());
+        contactFixtures.add(contact.getFixtureB());
+        contactBegins.add(begin);
+    }
+
+    @Override
+    public void beginContact(Contact contact)
+    { onContact(contact, true); }
+
+    @Override
+    public void endContact(Contact contact)
+    { onContact(contact, false); }
+
+    @Override
+    public void preSolve(Contact contact, Manifold oldManifold) {}
+
+    @Override
+    public void postSolve(Contact contact, ContactImpulse impulse) {}
+
+    @Override
+    public void dispose()
+    { world.dispose(); }
+}
@@ -0,0 +1,79 @@
+package com.isoterik.mgdx.m2d.physics;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.utils.Pool;
+import com.isoterik.mgdx.GameObject;
+
+/**
+ * A RaycastHit2d describes where a ray cast with {@link PhysicsQuery2d} hit a fixture.
+ * Hits are pooled; the hits added to an array by a query should be given back with {@link PhysicsQuery2d#freeHits(com.badlogic.gdx.utils.Array)}
+ * once they are no longer needed.
+ *
+ * @author isoteriksoftware
+ */
+public final class RaycastHit2d implements Pool.Poolable {
+    /** The {@link GameObject} hit. This is null if the body hit does not belong to a game object. */
+    public GameObject gameObject;
+
+    /** The fixture hit. */
+    public Fixture fixture;
+
+    /** The point where the ray hit the fixture in world units. */
+    public final Vector2 point = new Vector2();
+
+    /** The normal of the surface of the fixture at the hit point. */
+    public final Vector2 normal = new Vector2();
+
+    /** The fraction of the ray where the hit occurred (0 at the start of the ray, 1 at its end). */
+    public float fraction;
+
+    /** The index of the ray that generated this hit when rays are cast in a batch. 0 otherwise. */
+    public int rayIndex;
+
+    /**
+     * Copies another hit into this hit.
+     * @param other the hit to copy
+     * @return this hit for chaining
+     */
+    public RaycastHit2d set(RaycastHit2d other) {
+        gameObject = other.gameObject;
+        fixture = other.fixture;
+        point.set(other.point);
+        normal.set(other.normal);
+        fraction = other.fraction;
+        rayIndex = other.rayIndex;
+        return this;
+    }
+
+    /**
+     * Compares the tag of the game object hit. If the game object is null, false will be returned.
+     * @param tag the tag to compare
+     * @return true if the game object hit has the given tag. false otherwise
+     */
+    public boolean compareTag(String tag) {
+        if (gameObject == null)
+            return false;
+
+        return gameObject.getTag().equals(tag);
+    }
+
+    @Override
+    public void reset() {
+        gameObject = null;
+        fixture = null;
+        point.setZero();
+        normal.setZero();
+        fraction = 0;
+        rayIndex = 0;
+    }
+
+    /**
+     * A pool for recycling instances of {@link RaycastHit2d}
+     */
+    public static class RaycastHitPool extends Pool<RaycastHit2d> {
+        @Override
+        protected RaycastHit2d newObject()
+        { return new RaycastHit2d(); }
+    }
+}
@@ -0,0 +1,583 @@
+package com.isoterik.mgdx.m2d.physics;
+
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.objects.PolygonMapObject;
+import com.badlogic.gdx.maps.objects.PolylineMapObject;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Builds the static collision bodies of a {@link TiledMap}. Creating a body for every solid tile (or every rectangle object) bloats the broadphase of
+ * Box2D and bodies catch on the seams between tiles. This builder merges the solid cells instead:
+ * <ul>
+ *     <li>{@link Mode#OUTLINES} (the default) traces the outline of every group of solid cells and emits it as a {@link ChainShape} loop. Bodies slide
+ *     over merged surfaces without hitting seams.</li>
+ *     <li>{@link Mode#RECTANGLES} merges the solid cells into large rectangles and emits them as boxes. Use it when the inside of the solids must be
+ *     solid too (chain shapes are hollow).</li>
+ * </ul>
+ * The map is split into square chunks of {@link #setChunkSize(int) chunk size} tiles and one static body is created for each chunk that has solid cells.
+ * Outlines are traced over the whole map, so they have no seams at the borders of the chunks; each outline belongs to the chunk that holds the lower left
+ * corner of its bounds. Rectangles are cut at the borders of the chunks.
+ * <p>
+ * Solid cells come from tile layers ({@link #addTileLayer(TiledMapTileLayer, String, String)}) and from rectangle objects that line up with the tiles
+ * ({@link #addObjectLayer(MapLayer, String, String)}). Other rectangles and polygon objects become loops of their own; polyline objects become open chains.
+ * <p>
+ * A builder can be reused: {@link #clear()} it, add the layers again and build.
+ *
+ * @author isoteriksoftware
+ */
+public class TiledCollisionBuilder2d {
+    /** How solid cells are merged */
+    public enum Mode {
+        OUTLINES, RECTANGLES
+    }
+
+    /** The default number of tiles on each side of a chunk */
+    public static final int DEFAULT_CHUNK_SIZE = 32;
+
+    // The directions of the edges of the outlines
+    private static final int RIGHT = 1, UP = 2, LEFT = 4, DOWN = 8;
+
+    /** The number of tiles of the map. */
+    public final int horizontalTilesCount, verticalTilesCount;
+
+    /** The size of the tiles in pixels. */
+    public final int tilePixelWidth, tilePixelHeight;
+
+    /** The size of the tiles in world units. */
+    public final float tileWidth, tileHeight;
+
+    private final float unitScale;
+    private final boolean[] solids;
+
+    private Mode mode = Mode.OUTLINES;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private float friction = .2f, restitution, density = 1;
+    private final Filter filter = new Filter();
+
+    // The shapes of objects that do not line up with the tiles. Vertices are in world units
+    private final Array<float[]> objectShapes = new Array<>();
+    private final BooleanArray objectLoops = new BooleanArray();
+
+    // Reused while building
+    private int[] edges = new int[0];
+    private boolean[] used = new boolean[0];
+    private final IntArray loopDirections = new IntArray();
+    private final IntArray loopVertices = new IntArray();
+    private final FloatArray vertices = new FloatArray();
+    private final Vector2 tmpCenter = new Vector2();
+    private int fixtureCount;
+
+    /**
+     * Creates a new builder for a map.
+     * @param tiledMap the map
+     * @param unitScale the number of world units per pixel of the map
+     */
+    public TiledCollisionBuilder2d(TiledMap tiledMap, float unitScale) {
+        MapProperties properties = tiledMap.getProperties();
+        horizontalTilesCount = properties.get("width", Integer.class);
+        verticalTilesCount = properties.get("height", Integer.class);
+        tilePixelWidth = properties.get("tilewidth", Integer.class);
+        tilePixelHeight = properties.get("tileheight", Integer.class);
+
+        this.unitScale = unitScale;
+        tileWidth = tilePixelWidth * unitScale;
+        tileHeight = tilePixelHeight * unitScale;
+
+        solids = new boolean[horizontalTilesCount * verticalTilesCount];
+    }
+
+    /**
+     * Sets how solid cells are merged. Defaults to {@link Mode#OUTLINES}.
+     * @param mode the mode
+     */
+    public void setMode(Mode mode)
+    { this.mode = mode; }
+
+    /**
+     *
+     * @return how solid cells are merged
+     */
+    public Mode getMode()
+    { return mode; }
+
+    /**
+     * Sets the number of tiles on each side of a chunk. One body is created for each chunk. Pass 0 to put the whole map in one body.
+     * Defaults to {@link #DEFAULT_CHUNK_SIZE}.
+     * @param chunkSize the number of tiles on each side of a chunk or 0
+     */
+    public void setChunkSize(int chunkSize)
+    { this.chunkSize = chunkSize; }
+
+    /**
+     *
+     * @return the number of tiles on each side of a chunk or 0 if the whole map is one chunk
+     */
+    public int getChunkSize()
+    { return chunkSize; }
+
+    /**
+     * Sets the friction, bounciness and density of the fixtures created.
+     * @param material the physics material
+     */
+    public void setMaterial(PhysicsMaterial2d material) {
+        friction = material.friction;
+        restitution = material.bounciness;
+        density = material.density;
+    }
+
+    /**
+     * Puts the fixtures created on a layer of a collision matrix.
+     * @param collisionMatrix the collision matrix
+     * @param layer the name of the layer
+     */
+    public void setCollisionLayer(CollisionMatrix2d collisionMatrix, String layer)
+    { collisionMatrix.fillFilter(collisionMatrix.requireLayerId(layer), filter); }
+
+    /**
+     * The filter copied to the fixtures created. Modify it to change the category and mask bits or the group index.
+     * @return the filter of the fixtures created
+     */
+    public Filter getFilter()
+    { return filter; }
+
+    /**
+     * Marks a cell as solid or empty.
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @param solid whether the cell is solid
+     */
+    public void setSolid(int x, int y, boolean solid) {
+        if (x >= 0 && y >= 0 && x < horizontalTilesCount && y < verticalTilesCount)
+            solids[y * horizontalTilesCount + x] = solid;
+    }
+
+    /**
+     *
+     * @param x the column of a cell
+     * @param y the row of a cell
+     * @return whether the cell is solid. Cells outside the map are empty
+     */
+    public boolean isSolid(int x, int y) {
+        if (x < 0 || y < 0 || x >= horizontalTilesCount || y >= verticalTilesCount)
+            return false;
+
+        return solids[y * horizontalTilesCount + x];
+    }
+
+    /**
+     * Forgets every solid cell and object shape added.
+     */
+    public void clear() {
+        for (int i = 0; i < solids.length; i++)
+            solids[i] = false;
+
+        objectShapes.clear();
+        objectLoops.clear();
+    }
+
+    /**
+     * Marks the cells of a tile layer whose tiles have a property whose value matches the one given as solid.
+     * @param layer the tile layer
+     * @param propertyName the property name. <strong>use *</strong> to mark every cell that has a tile
+     * @param value the property value to check
+     */
+    public void addTileLayer(TiledMapTileLayer layer, String propertyName, String value) {
+        int width = Math.min(layer.getWidth(), horizontalTilesCount);
+        int height = Math.min(layer.getHeight(), verticalTilesCount);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                if (cell == null || cell.getTile() == null)
+                    continue;
+
+                if (!propertyName.equals("*")) {
+                    MapProperties properties = cell.getTile().getProperties();
+                    if (!properties.containsKey(propertyName) || !properties.get(propertyName).equals(value))
+                        continue;
+                }
+
+                solids[y * horizontalTilesCount + x] = true;
+            }
+        }
+    }
+
+    /**
+     * Marks every cell of a tile layer that has a tile as solid.
+     * @param layer the tile layer
+     */
+    public void addTileLayer(TiledMapTileLayer layer)
+    { addTileLayer(layer, "*", null); }
+
+    /**
+     * Adds the objects of a layer that have a property whose value matches the one given.
+     * Rectangles that line up with the tiles mark their cells as solid and are merged with them. Other rectangles and polygons become loops and
+     * polylines become open chains. Other objects are ignored.
+     * @param layer the layer
+     * @param propertyName the property name. <strong>use *</strong> to add every object
+     * @param value the property value to check
+     */
+    public void addObjectLayer(MapLayer layer, String propertyName, String value) {
+        for (MapObject mapObject : layer.getObjects()) {
+            if (!propertyName.equals("*")) {
+                MapProperties properties = mapObject.getProperties();
+                if (!properties.containsKey(propertyName) || !properties.get(propertyName).equals(value))
+                    continue;
+            }
+
+            if (mapObject instanceof RectangleMapObject)
+                addRectangle(((RectangleMapObject)mapObject).getRectangle());
+            else if (mapObject instanceof PolygonMapObject)
+                addObjectShape(((PolygonMapObject)mapObject).getPolygon().getTransformedVertices(), true);
+            else if (mapObject instanceof PolylineMapObject)
+                addObjectShape(((PolylineMapObject)mapObject).getPolyline().getTransformedVertices(), false);
+        }
+    }
+
+    /**
+     * Adds every supported object of a layer.
+     * @param layer the layer
+     */
+    public void addObjectLayer(MapLayer layer)
+    { addObjectLayer(layer, "*", null); }
+
+    /**
+     *
+     * @return the number of fixtures created by the last build
+     */
+    public int getFixtureCount()
+    { return fixtureCount; }
+
+    /**
+     * Creates the static bodies. The bodies have no user data.
+     * @param world the world to create the bodies in
+     * @return the bodies created
+     */
+    public Array<Body> build(World world) {
+        Array<Body> bodies = new Array<>();
+        build(world, bodies);
+        return bodies;
+    }
+
+    /**
+     * Creates the static bodies. The bodies have no user data.
+     * @param world the world to create the bodies in
+     * @param out the array to add the bodies to
+     */
+    public void build(World world, Array<Body> out) {
+        fixtureCount = 0;
+
+        int size = chunkSize > 0 ? chunkSize : Math.max(horizontalTilesCount, verticalTilesCount);
+        int chunksX = (horizontalTilesCount + size - 1) / size;
+        int chunksY = (verticalTilesCount + size - 1) / size;
+        Body[] chunkBodies = new Body[chunksX * chunksY];
+
+        if (mode == Mode.OUTLINES)
+            buildOutlines(world, chunkBodies, size, chunksX);
+        else {
+            for (int cy = 0; cy < chunksY; cy++) {
+                for (int cx = 0; cx < chunksX; cx++) {
+                    int x0 = cx * size, y0 = cy * size;
+                    int width = Math.min(size, horizontalTilesCount - x0);
+                    int height = Math.min(size, verticalTilesCount - y0);
+
+                    chunkBodies[cy * chunksX + cx] = buildRectangles(world, x0, y0, width, height, x0 * tileWidth, y0 * tileHeight);
+                }
+            }
+        }
+
+        // Objects belong to the chunk their first vertex is in
+        for (int i = 0; i < objectShapes.size; i++) {
+            float[] shape = objectShapes.get(i);
+            int cx = MathUtils.clamp(MathUtils.floor(shape[0] / tileWidth) / size, 0, chunksX - 1);
+            int cy = MathUtils.clamp(MathUtils.floor(shape[1] / tileHeight) / size, 0, chunksY - 1);
+            float originX = cx * size * tileWidth, originY = cy * size * tileHeight;
+
+            vertices.clear();
+            for (int j = 0; j < shape.length; j += 2)
+                vertices.add(shape[j] - originX, shape[j + 1] - originY);
+
+            int chunk = cy * chunksX + cx;
+            chunkBodies[chunk] = addChain(world, chunkBodies[chunk], originX, originY, objectLoops.get(i));
+        }
+
+        for (Body body : chunkBodies) {
+            if (body != null)
+                out.add(body);
+        }
+    }
+
+    private void addRectangle(Rectangle rectangle) {
+        float x0 = rectangle.x / tilePixelWidth, y0 = rectangle.y / tilePixelHeight;
+        float x1 = (rectangle.x + rectangle.width) / tilePixelWidth, y1 = (rectangle.y + rectangle.height) / tilePixelHeight;
+
+        if (isWhole(x0) && isWhole(y0) && isWhole(x1) && isWhole(y1) && x1 > x0 && y1 > y0) {
+            for (int y = Math.round(y0); y < Math.round(y1); y++) {
+                for (int x = Math.round(x0); x < Math.round(x1); x++)
+                    setSolid(x, y, true);
+            }
+            return;
+        }
+
+        float[] corners = new float[] {
+                rectangle.x, rectangle.y,
+                rectangle.x + rectangle.width, rectangle.y,
+                rectangle.x + rectangle.width, rectangle.y + rectangle.height,
+                rectangle.x, rectangle.y + rectangle.height
+        };
+        addObjectShape(corners, true);
+    }
+
+    private static boolean isWhole(float value)
+    { return Math.abs(value - Math.round(value)) < .001f; }
+
+    private void addObjectShape(float[] pixelVertices, boolean loop) {
+        if (pixelVertices.length < (loop ? 6 : 4))
+            return;
+
+        float[] scaled = new float[pixelVertices.length];
+        for (int i = 0; i < scaled.length; i++)
+            scaled[i] = pixelVertices[i] * unitScale;
+
+        objectShapes.add(scaled);
+        objectLoops.add(loop);
+    }
+
+    /*
+    Traces the outlines of the solid cells of the map. Every boundary edge of a solid cell is directed so the solid is on its left, which makes outer
+    outlines counter-clockwise and holes clockwise. Each outline is added to the body of the chunk that holds the lower left corner of its bounds.
+     */
+    private void buildOutlines(World world, Body[] chunkBodies, int size, int chunksX) {
+        int width = horizontalTilesCount, height = verticalTilesCount;
+        int stride = width + 1;
+        int vertexCount = stride * (height + 1);
+        if (edges.length < vertexCount)
+            edges = new int[vertexCount];
+
+        for (int i = 0; i < vertexCount; i++)
+            edges[i] = 0;
+
+        // Store the outgoing edges of every vertex of the lattice. Cells outside the map are empty
+        int edgeCount = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!isSolid(x, y))
+                    continue;
+
+                if (!isSolid(x, y - 1)) {
+                    edges[y * stride + x] |= RIGHT;
+                    edgeCount++;
+                }
+                if (!isSolid(x + 1, y)) {
+                    edges[y * stride + x + 1] |= UP;
+                    edgeCount++;
+                }
+                if (!isSolid(x, y + 1)) {
+                    edges[(y + 1) * stride + x + 1] |= LEFT;
+                    edgeCount++;
+                }
+                if (!isSolid(x - 1, y)) {
+                    edges[(y + 1) * stride + x] |= DOWN;
+                    edgeCount++;
+                }
+            }
+        }
+
+        for (int start = 0; start < vertexCount && edgeCount > 0; start++) {
+            while (edges[start] != 0) {
+                edgeCount -= traceOutline(start, stride);
+
+                // Only keep the corners; the vertices between collinear edges are dropped
+                int count = loopDirections.size;
+                int minX = width, minY = height;
+                for (int i = 0; i < count; i++) {
+                    int vertex = loopVertices.get(i);
+                    minX = Math.min(minX, vertex % stride);
+                    minY = Math.min(minY, vertex / stride);
+                }
+
+                int cx = minX / size, cy = minY / size;
+                int chunkX = cx * size, chunkY = cy * size;
+
+                vertices.clear();
+                for (int i = 0; i < count; i++) {
+                    int previous = loopDirections.get((i + count - 1) % count);
+                    if (previous == loopDirections.get(i))
+                        continue;
+
+                    int vertex = loopVertices.get(i);
+                    vertices.add((vertex % stride - chunkX) * tileWidth, (vertex / stride - chunkY) * tileHeight);
+                }
+
+                int chunk = cy * chunksX + cx;
+                chunkBodies[chunk] = addChain(world, chunkBodies[chunk], chunkX * tileWidth, chunkY * tileHeight, true);
+            }
+        }
+    }
+
+    /* Follows the edges from a vertex until the outline closes. Returns the number of edges used */
+    private int traceOutline(int start, int stride) {
+        loopDirections.clear();
+        loopVertices.clear();
+
+        // Every vertex has as many incoming as outgoing edges, so the walk can only end where it started
+        int vertex = start;
+        int direction = lowestDirection(edges[start]);
+        while (true) {
+            loopDirections.add(direction);
+            loopVertices.add(vertex);
+            edges[vertex] &= ~direction;
+
+            vertex = nextVertex(vertex, direction, stride);
+            if (vertex == start)
+                break;
+
+            // Where two cells touch at a corner, the vertex has two outgoing edges. Turning left keeps the cells in separate outlines
+            int outgoing = edges[vertex];
+            int left = turnLeft(direction);
+            if ((outgoing & left) != 0)
+                direction = left;
+            else if ((outgoing & direction) == 0)
+                direction = lowestDirection(outgoing);
+        }
+
+        return loopDirections.size;
+    }
+
+    private static int lowestDirection(int directions)
+    { return directions & -directions; }
+
+    private static int turnLeft(int direction) {
+        switch (direction) {
+            case RIGHT: return UP;
+            case UP: return LEFT;
+            case LEFT: return DOWN;
+            default: return RIGHT;
+        }
+    }
+
+    private static int nextVertex(int vertex, int direction, int stride) {
+        switch (direction) {
+            case RIGHT: return vertex + 1;
+            case UP: return vertex + stride;
+            case LEFT: return vertex - 1;
+            default: return vertex - stride;
+        }
+    }
+
+    /* Merges the solid cells of a chunk into rectangles. Each rectangle grows to the right as far as it can, then up as far as the whole row allows */
+    private Body buildRectangles(World world, int x0, int y0, int width, int height, float originX, float originY) {
+        Body body = null;
+        int cellCount = width * height;
+        if (used.length < cellCount)
+            used = new boolean[cellCount];
+
+        for (int i = 0; i < cellCount; i++)
+            used[i] = false;
+
+        PolygonShape shape = null;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (used[y * width + x] || !isSolid(x0 + x, y0 + y))
+                    continue;
+
+                int right = x + 1;
+                while (right < width && !used[y * width + right] && isSolid(x0 + right, y0 + y))
+                    right++;
+
+                int top = y + 1;
+                while (top < height && isFreeRow(x0, y0, x, right, top, width))
+                    top++;
+
+                for (int ry = y; ry < top; ry++) {
+                    for (int rx = x; rx < right; rx++)
+                        used[ry * width + rx] = true;
+                }
+
+                if (shape == null)
+                    shape = new PolygonShape();
+
+                float halfWidth = (right - x) * tileWidth * .5f, halfHeight = (top - y) * tileHeight * .5f;
+                shape.setAsBox(halfWidth, halfHeight, tmpCenter.set(x * tileWidth + halfWidth, y * tileHeight + halfHeight), 0);
+
+                body = ensureBody(world, body, originX, originY);
+                createFixture(body, shape);
+            }
+        }
+
+        if (shape != null)
+            shape.dispose();
+
+        return body;
+    }
+
+    private boolean isFreeRow(int x0, int y0, int from, int to, int row, int width) {
+        for (int x = from; x < to; x++) {
+            if (used[row * width + x] || !isSolid(x0 + x, y0 + row))
+                return false;
+        }
+
+        return true;
+    }
+
+    /* Creates a chain from the vertices collected. Vertices are relative to the origin of the chunk */
+    private Body addChain(World world, Body body, float originX, float originY, boolean loop) {
+        if (vertices.size < (loop ? 6 : 4))
+            return body;
+
+        ChainShape shape = new ChainShape();
+        if (loop)
+            shape.createLoop(vertices.toArray());
+        else
+            shape.createChain(vertices.toArray());
+
+        body = ensureBody(world, body, originX, originY);
+        createFixture(body, shape);
+        shape.dispose();
+
+        return body;
+    }
+
+    private Body ensureBody(World world, Body body, float originX, float originY) {
+        if (body != null)
+            return body;
+
+        BodyDef bdef = new BodyDef();
+        bdef.type = BodyDef.BodyType.StaticBody;
+        bdef.position.set(originX, originY);
+        return world.createBody(bdef);
+    }
+
+    private void createFixture(Body body, Shape shape) {
+        FixtureDef fdef = new FixtureDef();
+        fdef.shape = shape;
+        fdef.friction = friction;
+        fdef.restitution = restitution;
+        fdef.density = density;
+        fdef.filter.categoryBits = filter.categoryBits;
+        fdef.filter.maskBits = filter.maskBits;
+        fdef.filter.groupIndex = filter.groupIndex;
+
+        body.createFixture(fdef);
+        fixtureCount++;
+    }
+}
@@ -0,0 +1,652 @@
+package com.isoterik.mgdx.m2d.scenes;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapLayers;
+import com.badlogic.gdx.maps.MapRenderer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.isoterik.mgdx.MinGdx;
+
+/**
+ * A renderer for orthogonal {@link TiledMap}s that are large or change while the game runs.
+ * <p>
+ * The map is split into chunks of {@code chunkSize x chunkSize} tiles. The tiles of each chunk are cached in a {@link SpriteCache} that lives on the GPU,
+ * so a chunk costs a single draw call per layer no matter how many tiles it has. Maps with many tile layers spread the layers of a chunk over several
+ * caches, since a sprite cache can hold at most 8191 tiles. Only the chunks that can be seen by the camera are built and drawn.
+ * Chunks that have not been seen for a while give their cache back to a small pool, so the GPU memory used depends on the size of the view and not on
+ * the size of the map.
+ * <p>
+ * When cells of the map change (destructible terrain, doors), call {@link #invalidateCell(int, int)} or {@link #invalidateArea(int, int, int, int)}.
+ * Only the chunks that contain the cells are rebuilt, the next time they are seen.
+ * <p>
+ * Animated tiles are not cached. They are drawn every frame through a sprite batch on top of the cached tiles of their layer.
+ * <p>
+ * <strong>Note:</strong> only the top level tile layers of the map are rendered. The opacity of a layer is cached with its tiles; call {@link #invalidateAll()}
+ * after changing it.
+ *
+ * @author isoteriksoftware
+ */
+public class ChunkedTiledMapRenderer implements MapRenderer, Disposable {
+    /** The default number of tiles on each side of a chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 16;
+
+    private static final int MAX_CACHE_SIZE = 8191;
+
+    /* The largest chunk whose layers each fit in a cache */
+    private static final int MAX_CHUNK_SIZE = 90;
+
+    /*
+    The shader shared by the caches. It matches the default shader of SpriteCache. A SpriteCache given a shader sets u_proj, u_trans and u_projTrans
+    (and fails on uniforms the shader does not use), so all three take part in the position.
+     */
+    private static final String CACHE_VERTEX_SHADER =
+            "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+            "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" +
+            "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+            "uniform mat4 u_proj;\n" +
+            "uniform mat4 u_trans;\n" +
+            "uniform mat4 u_projTrans;\n" +
+            "varying vec4 v_color;\n" +
+            "varying vec2 v_texCoords;\n" +
+            "void main() {\n" +
+            "    v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" +
+            "    v_color.a = v_color.a * (255.0/254.0);\n" +
+            "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+            "    vec4 position = " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+            "    gl_Position = mix(u_projTrans * position, u_proj * (u_trans * position), 0.5);\n" +
+            "}\n";
+
+    private static final String CACHE_FRAGMENT_SHADER =
+            "#ifdef GL_ES\n" +
+            "precision mediump float;\n" +
+            "#endif\n" +
+            "varying vec4 v_color;\n" +
+            "varying vec2 v_texCoords;\n" +
+            "uniform sampler2D u_texture;\n" +
+            "void main() {\n" +
+            "    gl_FragColor = v_color * texture2D(u_texture, v_texCoords);\n" +
+            "}\n";
+
+    /* Indices of the values of the four vertices of a tile (x, y, color, u and v each) */
+    private static final int X1 = 0, Y1 = 1, C1 = 2, U1 = 3, V1 = 4;
+    private static final int X2 = 5, Y2 = 6, C2 = 7, U2 = 8, V2 = 9;
+    private static final int X3 = 10, Y3 = 11, C3 = 12, U3 = 13, V3 = 14;
+    private static final int X4 = 15, Y4 = 16, C4 = 17, U4 = 18, V4 = 19;
+
+    protected final TiledMap map;
+    protected final float unitScale;
+
+    private final int chunkSize;
+    private final int tilesX, tilesY;
+    private final float tileWidth, tileHeight;
+    private final int chunksX, chunksY;
+    private final Chunk[] chunks;
+    private final int cacheSize;
+    private ShaderProgram cacheShader;
+
+    private final Array<Chunk> liveChunks = new Array<>();
+    private final Array<Chunk> visibleChunks = new Array<>();
+    private final Array<SpriteCache> freeCaches = new Array<>();
+    private int maxPooledCaches = 16;
+    private int evictionFrames = 120;
+    private long frame;
+
+    private final SpriteBatch overlayBatch;
+    private final Matrix4 projection = new Matrix4();
+    private final Rectangle viewBounds = new Rectangle();
+    private final float[] vertices = new float[20];
+    private final IntArray allLayers = new IntArray();
+    private boolean blending = true;
+
+    /**
+     * Creates a new instance.
+     * @param map the map
+     * @param unitScale the number of world units per pixel of the map
+     * @param chunkSize the number of tiles on each side of a chunk. It is kept between 1 and 90, so a layer of a chunk fits in one cache
+     */
+    public ChunkedTiledMapRenderer(TiledMap map, float unitScale, int chunkSize) {
+        this.map = map;
+        this.unitScale = unitScale;
+        this.chunkSize = MathUtils.clamp(chunkSize, 1, MAX_CHUNK_SIZE);
+
+        tilesX = map.getProperties().get("width", Integer.class);
+        tilesY = map.getProperties().get("height", Integer.class);
+        tileWidth = map.getProperties().get("tilewidth", Integer.class) * unitScale;
+        tileHeight = map.getProperties().get("tileheight", Integer.class) * unitScale;
+
+        chunksX = (tilesX + this.chunkSize - 1) / this.chunkSize;
+        chunksY = (tilesY + this.chunkSize - 1) / this.chunkSize;
+        chunks = new Chunk[chunksX * chunksY];
+
+        // Chunks whose layers do not fit in a single cache use several caches
+        int tileLayers = map.getLayers().getByType(TiledMapTileLayer.class).size;
+        cacheSize = Math.min(this.chunkSize * this.chunkSize * Math.max(tileLayers, 1), MAX_CACHE_SIZE);
+
+        overlayBatch = MinGdx.instance().spriteBatches.obtain();
+    }
+
+    /**
+     * Creates a new instance with chunks of {@link #DEFAULT_CHUNK_SIZE} tiles.
+     * @param map the map
+     * @param unitScale the number of world units per pixel of the map
+     */
+    public ChunkedTiledMapRenderer(TiledMap map, float unitScale)
+    { this(map, unitScale, DEFAULT_CHUNK_SIZE); }
+
+    /**
+     *
+     * @return the map rendered
+     */
+    public TiledMap getMap()
+    { return map; }
+
+    /**
+     *
+     * @return the number of tiles on each side of a chunk
+     */
+    public int getChunkSize()
+    { return chunkSize; }
+
+    /**
+     * Whether blending should be enabled while the map renders. It is enabled by default.
+     * @param blending whether blending should be enabled
+     */
+    public void setBlending(boolean blending)
+    { this.blending = blending; }
+
+    /**
+     *
+     * @return whether blending is enabled while the map renders
+     */
+    public boolean isBlending()
+    { return blending; }
+
+    /**
+     * Sets the number of frames a chunk can stay out of the view before its cache is released. Defaults to 120.
+     * @param evictionFrames the number of frames
+     */
+    public void setEvictionFrames(int evictionFrames)
+    { this.evictionFrames = evictionFrames; }
+
+    /**
+     *
+     * @return the number of frames a chunk can stay out of the view before its cache is released
+     */
+    public int getEvictionFrames()
+    { return evictionFrames; }
+
+    /**
+     * Sets the number of released caches kept for reuse. Released caches beyond this number are disposed. Defaults to 16.
+     * @param maxPooledCaches the number of caches
+     */
+    public void setMaxPooledCaches(int maxPooledCaches)
+    { this.maxPooledCaches = maxPooledCaches; }
+
+    /**
+     *
+     * @return the number of released caches kept for reuse
+     */
+    public int getMaxPooledCaches()
+    { return maxPooledCaches; }
+
+    /**
+     *
+     * @return the number of chunks that currently hold caches
+     */
+    public int getLiveChunkCount()
+    { return liveChunks.size; }
+
+    /**
+     * Marks the chunk that contains a cell as changed. The chunk is rebuilt the next time it is seen.
+     * @param x the column of the cell
+     * @param y the row of the cell
+     */
+    public void invalidateCell(int x, int y) {
+        if (x < 0 || y < 0 || x >= tilesX || y >= tilesY)
+            return;
+
+        Chunk chunk = chunks[(y / chunkSize) * chunksX + x / chunkSize];
+        if (chunk != null)
+            chunk.dirty = true;
+    }
+
+    /**
+     * Marks the chunks that contain an area of cells as changed. The chunks are rebuilt the next time they are seen.
+     * @param x the first column of the area
+     * @param y the first row of the area
+     * @param width the number of columns
+     * @param height the number of rows
+     */
+    public void invalidateArea(int x, int y, int width, int height) {
+        int startX = Math.max(x, 0) / chunkSize;
+        int startY = Math.max(y, 0) / chunkSize;
+        int endX = Math.min(x + width - 1, tilesX - 1) / chunkSize;
+        int endY = Math.min(y + height - 1, tilesY - 1) / chunkSize;
+
+        for (int cy = startY; cy <= endY; cy++) {
+            for (int cx = startX; cx <= endX; cx++) {
+                Chunk chunk = chunks[cy * chunksX + cx];
+                if (chunk != null)
+                    chunk.dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Marks every chunk as changed.
+     */
+    public void invalidateAll() {
+        for (Chunk chunk : liveChunks)
+            chunk.dirty = true;
+    }
+
+    @Override
+    public void setView(OrthographicCamera camera) {
+        projection.set(camera.combined);
+
+        float width = camera.viewportWidth * camera.zoom;
+        float height = camera.viewportHeight * camera.zoom;
+        float w = width * Math.abs(camera.up.y) + height * Math.abs(camera.up.x);
+        float h = height * Math.abs(camera.up.y) + width * Math.abs(camera.up.x);
+        viewBounds.set(camera.position.x - w / 2, camera.position.y - h / 2, w, h);
+    }
+
+    @Override
+    public void setView(Matrix4 projection, float x, float y, float width, float height) {
+        this.projection.set(projection);
+        viewBounds.set(x, y, width, height);
+    }
+
+    @Override
+    public void render() {
+        MapLayers layers = map.getLayers();
+
+        allLayers.clear();
+        for (int i = 0; i < layers.getCount(); i++)
+            allLayers.add(i);
+
+        render(allLayers.items, allLayers.size);
+    }
+
+    @Override
+    public void render(int[] layers)
+    { render(layers, layers.length); }
+
+    private void render(int[] layers, int layerCount) {
+        frame++;
+        AnimatedTiledMapTile.updateAnimationBaseTime();
+
+        collectVisibleChunks();
+
+        if (blending) {
+            Gdx.gl.glEnable(GL20.GL_BLEND);
+            Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        }
+
+        MapLayers mapLayers = map.getLayers();
+        for (int i = 0; i < layerCount; i++) {
+            int layerIndex = layers[i];
+            MapLayer layer = mapLayers.get(layerIndex);
+            if (!layer.isVisible() || !(layer instanceof TiledMapTileLayer))
+                continue;
+
+            renderCachedTiles(layerIndex);
+            renderAnimatedTiles((TiledMapTileLayer)layer, layerIndex);
+        }
+
+        if (blending)
+            Gdx.gl.glDisable(GL20.GL_BLEND);
+
+        evictChunks();
+    }
+
+    /* Finds the chunks that can be seen and builds those that have no cache or have changed */
+    private void collectVisibleChunks() {
+        visibleChunks.clear();
+
+        // One tile of margin for tiles with offsets or larger than the grid
+        int startX = MathUtils.clamp((int)((viewBounds.x - tileWidth) / (tileWidth * chunkSize)), 0, chunksX - 1);
+        int startY = MathUtils.clamp((int)((viewBounds.y - tileHeight) / (tileHeight * chunkSize)), 0, chunksY - 1);
+        int endX = MathUtils.clamp((int)((viewBounds.x + viewBounds.width + tileWidth) / (tileWidth * chunkSize)), 0, chunksX - 1);
+        int endY = MathUtils.clamp((int)((viewBounds.y + viewBounds.height + tileHeight) / (tileHeight * chunkSize)), 0, chunksY - 1);
+
+        for (int cy = startY; cy <= endY; cy++) {
+            for (int cx = startX; cx <= endX; cx++) {
+                int index = cy * chunksX + cx;
+                Chunk chunk = chunks[index];
+                if (chunk == null) {
+                    chunk = new Chunk(cx * chunkSize, cy * chunkSize, map.getLayers().getCount());
+                    chunks[index] = chunk;
+                }
+
+                if (chunk.dirty)
+                    buildChunk(chunk);
+
+                chunk.lastVisibleFrame = frame;
+                if (chunk.caches.size > 0 || chunk.animatedCells.size > 0)
+                    visibleChunks.add(chunk);
+            }
+        }
+    }
+
+    private void renderCachedTiles(int layerIndex) {
+        for (Chunk chunk : visibleChunks) {
+            // Layers added after the chunk was created have no cached tiles
+            if (layerIndex >= chunk.cacheIds.length || chunk.cacheIds[layerIndex] < 0)
+                continue;
+
+            SpriteCache cache = chunk.caches.get(chunk.cacheIndices[layerIndex]);
+            cache.setProjectionMatrix(projection);
+            cache.begin();
+            cache.draw(chunk.cacheIds[layerIndex]);
+            cache.end();
+        }
+    }
+
+    private void renderAnimatedTiles(TiledMapTileLayer layer, int layerIndex) {
+        float color = layerColor(layer);
+        boolean drawing = false;
+
+        for (Chunk chunk : visibleChunks) {
+            IntArray cells = chunk.animatedCells;
+            for (int i = 0; i < cells.size; i += 3) {
+                if (cells.items[i] != layerIndex)
+                    continue;
+
+                int x = cells.items[i + 1];
+                int y = cells.items[i + 2];
+                TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                if (cell == null || cell.getTile() == null)
+                    continue;
+
+                if (!drawing) {
+                    overlayBatch.setProjectionMatrix(projection);
+                    overlayBatch.begin();
+                    drawing = true;
+                }
+
+                computeTileVertices(layer, cell, x, y, color);
+                overlayBatch.draw(cell.getTile().getTextureRegion().getTexture(), vertices, 0, vertices.length);
+            }
+        }
+
+        if (drawing)
+            overlayBatch.end();
+    }
+
+    /* Rebuilds the cache of a chunk. Animated tiles are only recorded; they are drawn by the overlay batch */
+    private void buildChunk(Chunk chunk) {
+        chunk.animatedCells.clear();
+        for (SpriteCache cache : chunk.caches)
+            cache.clear();
+
+        MapLayers layers = map.getLayers();
+        int cachedTiles = 0;
+        int endX = Math.min(chunk.x + chunkSize, tilesX);
+        int endY = Math.min(chunk.y + chunkSize, tilesY);
+        int layerCapacity = (endX - chunk.x) * (endY - chunk.y);
+
+        // The cache being filled and the number of tiles it holds
+        int currentCache = -1;
+        int currentCacheTiles = 0;
+
+        for (int layerIndex = 0; layerIndex < chunk.cacheIds.length; layerIndex++) {
+            chunk.cacheIds[layerIndex] = -1;
+
+            MapLayer mapLayer = layerIndex < layers.getCount() ? layers.get(layerIndex) : null;
+            if (!(mapLayer instanceof TiledMapTileLayer))
+                continue;
+
+            TiledMapTileLayer layer = (TiledMapTileLayer)mapLayer;
+            float color = layerColor(layer);
+            boolean caching = false;
+
+            for (int y = chunk.y; y < endY; y++) {
+                for (int x = chunk.x; x < endX; x++) {
+                    TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                    if (cell == null)
+                        continue;
+
+                    TiledMapTile tile = cell.getTile();
+                    if (tile == null)
+                        continue;
+
+                    if (tile instanceof AnimatedTiledMapTile) {
+                        chunk.animatedCells.add(layerIndex, x, y);
+                        continue;
+                    }
+
+                    if (!caching) {
+                        // Move to the next cache unless the whole layer is sure to fit in the current one
+                        if (currentCache < 0 || currentCacheTiles + layerCapacity > cacheSize) {
+                            currentCache++;
+                            currentCacheTiles = 0;
+                            if (currentCache == chunk.caches.size)
+                                chunk.caches.add(obtainCache());
+                        }
+
+                        chunk.caches.get(currentCache).beginCache();
+                        chunk.cacheIndices[layerIndex] = currentCache;
+                        caching = true;
+                    }
+
+                    computeTileVertices(layer, cell, x, y, color);
+                    chunk.caches.get(currentCache).add(tile.getTextureRegion().getTexture(), vertices, 0, vertices.length);
+                    currentCacheTiles++;
+                    cachedTiles++;
+                }
+            }
+
+            if (caching)
+                chunk.cacheIds[layerIndex] = chunk.caches.get(currentCache).endCache();
+        }
+
+        // Caches that are no longer needed go back to the pool
+        while (chunk.caches.size > currentCache + 1)
+            releaseCache(chunk.caches.pop());
+
+        if (cachedTiles == 0)
+            liveChunks.removeValue(chunk, true);
+        else if (!liveChunks.contains(chunk, true))
+            liveChunks.add(chunk);
+
+        chunk.dirty = false;
+    }
+
+    /* Releases the caches of the chunks that have not been seen for a while */
+    private void evictChunks() {
+        for (int i = liveChunks.size - 1; i >= 0; i--) {
+            Chunk chunk = liveChunks.get(i);
+            if (frame - chunk.lastVisibleFrame > evictionFrames) {
+                freeCaches(chunk);
+                chunk.animatedCells.clear();
+                chunk.dirty = true;
+            }
+        }
+    }
+
+    /* Every cache shares one shader so streaming chunks in never compiles a shader */
+    private SpriteCache obtainCache() {
+        if (freeCaches.size > 0)
+            return freeCaches.pop();
+
+        if (cacheShader == null) {
+            cacheShader = new ShaderProgram(CACHE_VERTEX_SHADER, CACHE_FRAGMENT_SHADER);
+            if (!cacheShader.isCompiled()) {
+                String log = cacheShader.getLog();
+                cacheShader.dispose();
+                cacheShader = null;
+                throw new GdxRuntimeException("Failed to compile the tile cache shader: " + log);
+            }
+        }
+
+        return new SpriteCache(cacheSize, cacheShader, true);
+    }
+
+    private void freeCaches(Chunk chunk) {
+        for (SpriteCache cache : chunk.caches)
+            releaseCache(cache);
+
+        chunk.caches.clear();
+        liveChunks.removeValue(chunk, true);
+    }
+
+    private void releaseCache(SpriteCache cache) {
+        if (freeCaches.size < maxPooledCaches) {
+            cache.clear();
+            freeCaches.add(cache);
+        }
+        else
+            cache.dispose();
+    }
+
+    private float layerColor(TiledMapTileLayer layer)
+    { return Color.toFloatBits(1f, 1f, 1f, layer.getOpacity()); }
+
+    /* Computes the vertices of a tile the same way the tiled map renderers of libGDX do, including the flips and rotations of the cell */
+    private void computeTileVertices(TiledMapTileLayer layer, TiledMapTileLayer.Cell cell, int col, int row, float color) {
+        TiledMapTile tile = cell.getTile();
+        TextureRegion region = tile.getTextureRegion();
+
+        float layerTileWidth = layer.getTileWidth() * unitScale;
+        float layerTileHeight = layer.getTileHeight() * unitScale;
+        float x1 = col * layerTileWidth + layer.getRenderOffsetX() * unitScale + tile.getOffsetX() * unitScale;
+        float y1 = row * layerTileHeight - layer.getRenderOffsetY() * unitScale + tile.getOffsetY() * unitScale;
+        float x2 = x1 + region.getRegionWidth() * unitScale;
+        float y2 = y1 + region.getRegionHeight() * unitScale;
+
+        float u1 = region.getU();
+        float v1 = region.getV2();
+        float u2 = region.getU2();
+        float v2 = region.getV();
+
+        float[] vertices = this.vertices;
+        vertices[X1] = x1; vertices[Y1] = y1; vertices[C1] = color; vertices[U1] = u1; vertices[V1] = v1;
+        vertices[X2] = x1; vertices[Y2] = y2; vertices[C2] = color; vertices[U2] = u1; vertices[V2] = v2;
+        vertices[X3] = x2; vertices[Y3] = y2; vertices[C3] = color; vertices[U3] = u2; vertices[V3] = v2;
+        vertices[X4] = x2; vertices[Y4] = y1; vertices[C4] = color; vertices[U4] = u2; vertices[V4] = v1;
+
+        if (cell.getFlipHorizontally()) {
+            swap(U1, U3);
+            swap(U2, U4);
+        }
+
+        if (cell.getFlipVertically()) {
+            swap(V1, V3);
+            swap(V2, V4);
+        }
+
+        switch (cell.getRotation()) {
+            case TiledMapTileLayer.Cell.ROTATE_90: {
+                float tempV = vertices[V1];
+                vertices[V1] = vertices[V2];
+                vertices[V2] = vertices[V3];
+                vertices[V3] = vertices[V4];
+                vertices[V4] = tempV;
+
+                float tempU = vertices[U1];
+                vertices[U1] = vertices[U2];
+                vertices[U2] = vertices[U3];
+                vertices[U3] = vertices[U4];
+                vertices[U4] = tempU;
+                break;
+            }
+            case TiledMapTileLayer.Cell.ROTATE_180: {
+                swap(U1, U3);
+                swap(U2, U4);
+                swap(V1, V3);
+                swap(V2, V4);
+                break;
+            }
+            case TiledMapTileLayer.Cell.ROTATE_270: {
+                float tempV = vertices[V1];
+                vertices[V1] = vertices[V4];
+                vertices[V4] = vertices[V3];
+                vertices[V3] = vertices[V2];
+                vertices[V2] = tempV;
+
+                float tempU = vertices[U1];
+                vertices[U1] = vertices[U4];
+                vertices[U4] = vertices[U3];
+                vertices[U3] = vertices[U2];
+                vertices[U2] = tempU;
+                break;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        float tmp = vertices[a];
+        vertices[a] = vertices[b];
+        vertices[b] = tmp;
+    }
+
+    @Override
+    public void dispose() {
+        for (Chunk chunk : liveChunks) {
+            for (SpriteCache cache : chunk.caches)
+                cache.dispose();
+        }
+
+        for (SpriteCache cache : freeCaches)
+            cache.dispose();
+
+        liveChunks.clear();
+        freeCaches.clear();
+        visibleChunks.clear();
+        for (int i = 0; i < chunks.length; i++)
+            chunks[i] = null;
+
+        if (cacheShader != null) {
+            cacheShader.dispose();
+            cacheShader = null;
+        }
+
+        MinGdx.instance().spriteBatches.free(overlayBatch);
+    }
+
+    /* A square of tiles cached together */
+    private static class Chunk {
+        /* The first column and row of the chunk */
+        final int x, y;
+
+        /* The id of the cache of each layer in its sprite cache or -1 if the layer has no cached tile in this chunk */
+        final int[] cacheIds;
+
+        /* The index of the sprite cache of each layer in caches */
+        final int[] cacheIndices;
+
+        /* The sprite caches of the chunk. Most chunks need only one */
+        final Array<SpriteCache> caches = new Array<>(1);
+
+        /* The layer index, column and row of each animated tile */
+        final IntArray animatedCells = new IntArray();
+
+        boolean dirty = true;
+        long lastVisibleFrame;
+
+        Chunk(int x, int y, int layerCount) {
+            this.x = x;
+            this.y = y;
+            cacheIds = new int[layerCount];
+            cacheIndices = new int[layerCount];
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.maps.MapLayer;
 import com.badlogic.gdx.maps.MapObject;
 import com.badlogic.gdx.maps.MapProperties;
@@ -16,19 +15,24 @@ import com.badlogic.gdx.maps.objects.PolylineMapObject;
 import com.badlogic.gdx.maps.objects.RectangleMapObject;
 import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.maps.tiled.objects.TiledMapTileMapObject;
-import com.badlogic.gdx.maps.tiled.renderers.OrthoCachedTiledMapRenderer;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.isoterik.mgdx.CameraRenderPass;
 import com.isoterik.mgdx.GameObject;
 import com.isoterik.mgdx.Scene;
 import com.isoterik.mgdx.m2d.GameCamera2d;
+import com.isoterik.mgdx.m2d.physics.TiledCollisionBuilder2d;
 
 import java.util.Iterator;
 
 /**
- * A scene that is capable of rendering a {@link TiledMap}. It uses {@link OrthoCachedTiledMapRenderer} for rendering by default but can be changed.
+ * A scene that is capable of rendering a {@link TiledMap}. It uses {@link ChunkedTiledMapRenderer} for rendering by default but can be changed.
+ * Cells that change while the game runs should be set with {@link #setCell(TiledMapTileLayer, int, int, TiledMapTileLayer.Cell)} (or reported with
+ * {@link #invalidateCell(int, int)}) so the renderer rebuilds only the chunk that contains them.
  *
  * @author isoteriksoftware
  */
@@ -44,6 +48,9 @@ public class TiledMapScene extends Scene {
 
     protected final TiledMap tiledMap;
 
+    /** The number of world units per pixel of the map. */
+    protected final float unitScale;
+
     protected MapRenderer tiledMapRenderer;
 
     /**
@@ -55,6 +62,7 @@ public class TiledMapScene extends Scene {
         super();
 
         this.tiledMap = tiledMap;
+        this.unitScale = unitScale;
 
         tileWidth = (int)tiledMap.getProperties().get("tilewidth");
         tileHeight = (int)tiledMap.getProperties().get("tileheight");
@@ -63,8 +71,7 @@ public class TiledMapScene extends Scene {
         mapWidth = tileWidth * horizontalTilesCount;
         mapHeight = tileHeight * verticalTilesCount;
 
-        tiledMapRenderer = new OrthoCachedTiledMapRenderer(tiledMap, unitScale);
-        ((OrthoCachedTiledMapRenderer)tiledMapRenderer).setBlending(true);
+        tiledMapRenderer = new ChunkedTiledMapRenderer(tiledMap, unitScale);
     }
 
     /**
@@ -81,14 +88,22 @@ public class TiledMapScene extends Scene {
      * @param gameCamera2d the 2D game camera
      */
     protected void renderTiledMap(GameCamera2d gameCamera2d) {
-        tiledMapRenderer.setView(gameCamera2d.getCamera());
+        // The camera is owned by the simulation thread while it runs; use the view captured at the sync point
+        if (isRenderingCapturedState())
+            tiledMapRenderer.setView(renderProjection, renderViewBounds.x, renderViewBounds.y,
+                    renderViewBounds.width, renderViewBounds.height);
+        else
+            tiledMapRenderer.setView(gameCamera2d.getCamera());
+
         tiledMapRenderer.render();
     }
 
     @Override
-    public void __render() {
-        Array<GameObject> gameObjects = getGameObjects();
+    protected void renderPassUnderlay(CameraRenderPass renderPass)
+    { renderTiledMap((GameCamera2d)renderPass.getGameCamera()); }
 
+    @Override
+    protected void renderWorld() {
         if (mainCamera != null && mainCamera instanceof GameCamera2d) {
             GameCamera2d gc2d = (GameCamera2d)mainCamera;
             SpriteBatch batch = gc2d.getSpriteBatch();
@@ -101,48 +116,14 @@ public class TiledMapScene extends Scene {
             // Render the tiled map first
             renderTiledMap(gc2d);
 
-            gc2d.getCamera().update();
-            batch.setProjectionMatrix(gc2d.getCamera().combined);
+            batch.setProjectionMatrix(getRenderProjection());
             batch.begin();
-            for (GameObject go : gameObjects) {
-                go.__forEachComponent(renderIter);
-            }
+            renderGameObjects();
             batch.end();
         }
 
-        if (renderPhysicsDebugLines) {
-            assert mainCamera != null;
-            physicsDebugRenderer2d.render(physicsWorld2d, mainCamera.getCamera().combined);
-        }
-
-        // Render debug drawings
-        if (renderCustomDebugLines) {
-            assert mainCamera != null;
-            shapeRenderer.setProjectionMatrix(mainCamera.getCamera().combined);
-
-            // Line
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-            for (GameObject go : gameObjects) {
-                go.__forEachComponent(debugLineIter);
-            }
-            shapeRenderer.end();
-
-            // Filled
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-            for (GameObject go : gameObjects) {
-                go.__forEachComponent(debugFilledIter);
-            }
-            shapeRenderer.end();
-
-            // Point
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Point);
-            for (GameObject go : gameObjects) {
-                go.__forEachComponent(debugPointIter);
-            }
-            shapeRenderer.end();
-        }
-
-        canvas.draw();
+        awaitSimulation();
+        renderWorldDebug();
     }
 
     /**
@@ -159,6 +140,82 @@ public class TiledMapScene extends Scene {
     public void setTiledMapRenderer(MapRenderer tiledMapRenderer)
     { this.tiledMapRenderer = tiledMapRenderer; }
 
+    /**
+     *
+     * @return the number of world units per pixel of the map
+     */
+    public float getUnitScale()
+    { return unitScale; }
+
+    /**
+     * Creates a builder for the static collision bodies of the map. Use it to combine several layers or to change how the bodies are built.
+     * @return a new collision builder for the map
+     */
+    public TiledCollisionBuilder2d newCollisionBuilder2d()
+    { return new TiledCollisionBuilder2d(tiledMap, unitScale); }
+
+    /**
+     * Builds the static collision bodies of a layer in the physics world of this scene. Solid tiles (or rectangle objects) are merged into
+     * chain outlines with one body per chunk of the map. See {@link TiledCollisionBuilder2d}.
+     * @param mapLayer a tile layer or an object layer
+     * @param propertyName the property name of the tiles or objects. <strong>use *</strong> to use everything
+     * @param value the property value to check
+     * @return the bodies created
+     */
+    public Array<Body> buildCollisionBodies2d(MapLayer mapLayer, String propertyName, String value) {
+        TiledCollisionBuilder2d builder = newCollisionBuilder2d();
+        if (mapLayer instanceof TiledMapTileLayer)
+            builder.addTileLayer((TiledMapTileLayer)mapLayer, propertyName, value);
+        else
+            builder.addObjectLayer(mapLayer, propertyName, value);
+
+        return builder.build(physicsWorld2d);
+    }
+
+    /**
+     * Sets a cell of a tile layer and tells the map renderer that the cell changed.
+     * @param layer the layer
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @param cell the cell or null to clear it
+     */
+    public void setCell(TiledMapTileLayer layer, int x, int y, TiledMapTileLayer.Cell cell) {
+        layer.setCell(x, y, cell);
+        invalidateCell(x, y);
+    }
+
+    /**
+     * Tells the map renderer that a cell changed. Call this after modifying a cell directly (for example, changing its tile).
+     * Nothing is done if the map renderer is not a {@link ChunkedTiledMapRenderer}.
+     * @param x the column of the cell
+     * @param y the row of the cell
+     */
+    public void invalidateCell(int x, int y) {
+        if (tiledMapRenderer instanceof ChunkedTiledMapRenderer)
+            ((ChunkedTiledMapRenderer)tiledMapRenderer).invalidateCell(x, y);
+    }
+
+    /**
+     * Tells the map renderer that an area of cells changed.
+     * Nothing is done if the map renderer is not a {@link ChunkedTiledMapRenderer}.
+     * @param x the first column of the area
+     * @param y the first row of the area
+     * @param width the number of columns
+     * @param height the number of rows
+     */
+    public void invalidateArea(int x, int y, int width, int height) {
+        if (tiledMapRenderer instanceof ChunkedTiledMapRenderer)
+            ((ChunkedTiledMapRenderer)tiledMapRenderer).invalidateArea(x, y, width, height);
+    }
+
+    @Override
+    public void __destroy() {
+        super.__destroy();
+
+        if (tiledMapRenderer instanceof Disposable)
+            ((Disposable)tiledMapRenderer).dispose();
+    }
+
     /**
      * Gets all rectangle objects in a given layer that has a property whose value matches the one given.
      * @param mapLayer the layer
@@ -0,0 +1,106 @@
+package com.isoterik.mgdx.m2d.scenes.transition;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * A scene transition that renders both scenes in a single pass using a fragment shader. The whole screen is covered by one quad, so the transition
+ * costs a single draw call no matter how complex it is.
+ * <p>
+ * The fragment shader receives:
+ * <ul>
+ *     <li>{@code v_texCoords}: the screen position (0 - 1, origin at the bottom left)</li>
+ *     <li>{@code u_texture}: the current scene</li>
+ *     <li>{@code u_nextTexture}: the next scene</li>
+ *     <li>{@code u_progress}: the progress of the transition (0 - 1)</li>
+ * </ul>
+ * Subclasses provide the fragment shader and set their own uniforms in {@link #setUniforms(ShaderProgram, float)}.
+ * The shader is compiled the first time the transition is rendered.
+ *
+ * @author isoteriksoftware
+ */
+public abstract class ShaderSceneTransition implements ISceneTransition {
+    private static final String VERTEX_SHADER =
+            "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+            "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+            "uniform mat4 u_projTrans;\n" +
+            "varying vec2 v_texCoords;\n" +
+            "void main() {\n" +
+            "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+            "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+            "}\n";
+
+    /** The header the fragment shaders of transitions should start with. */
+    protected static final String FRAGMENT_HEADER =
+            "#ifdef GL_ES\n" +
+            "precision mediump float;\n" +
+            "#endif\n" +
+            "varying vec2 v_texCoords;\n" +
+            "uniform sampler2D u_texture;\n" +
+            "uniform sampler2D u_nextTexture;\n" +
+            "uniform float u_progress;\n";
+
+    private ShaderProgram shader;
+
+    /**
+     *
+     * @return the source of the fragment shader. It should start with {@link #FRAGMENT_HEADER}
+     */
+    protected abstract String getFragmentShader();
+
+    /**
+     * Called every frame to set the uniforms of the shader. The shader is bound.
+     * @param shader the shader
+     * @param alpha the progress of the transition in a range of [0, 1]
+     */
+    protected void setUniforms(ShaderProgram shader, float alpha) {}
+
+    /**
+     * Compiles the shader if it is not compiled yet.
+     * @return the shader
+     * @throws GdxRuntimeException if the shader fails to compile
+     */
+    protected ShaderProgram getShader() throws GdxRuntimeException {
+        if (shader == null) {
+            ShaderProgram program = new ShaderProgram(VERTEX_SHADER, getFragmentShader());
+            if (!program.isCompiled()) {
+                String log = program.getLog();
+                program.dispose();
+                throw new GdxRuntimeException("Failed to compile the transition shader: " + log);
+            }
+
+            shader = program;
+        }
+
+        return shader;
+    }
+
+    @Override
+    public void render(SpriteBatch batch, Texture currentScreen, Texture nextScreen, float alpha) {
+        ShaderProgram shader = getShader();
+        float w = currentScreen.getWidth();
+        float h = currentScreen.getHeight();
+
+        // The current scene is bound to the texture unit 0 by the batch
+        nextScreen.bind(1);
+        Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0);
+
+        batch.setShader(shader);
+        batch.disableBlending();
+        batch.begin();
+        shader.setUniformi("u_nextTexture", 1);
+        shader.setUniformf("u_progress", alpha);
+        setUniforms(shader, alpha);
+
+        batch.draw(currentScreen, 0, 0, 0, 0, w, h, 1, 1, 0, 0, 0,
+                currentScreen.getWidth(), currentScreen.getHeight(), false, true);
+        batch.end();
+
+        batch.enableBlending();
+        batch.setShader(null);
+    }
+}
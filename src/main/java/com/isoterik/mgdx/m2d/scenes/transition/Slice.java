@@ -1,18 +1,36 @@
 package com.isoterik.mgdx.m2d.scenes.transition;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.utils.Array;
 
 /**
  * A scene transition that divides the scene into slices and animate those slices.
+ * The slices are rendered in a single pass by a shader.
  *
  * @author isoteriksoftware
  */
-public class Slice implements ISceneTransition {
+public class Slice extends ShaderSceneTransition {
+    /** The maximum number of slices. */
+    public static final int MAX_SLICES = 32;
+
+    private static final String FRAGMENT_SHADER = FRAGMENT_HEADER +
+            "uniform float u_slices;\n" +
+            "uniform float u_offsets[" + MAX_SLICES + "];\n" +
+            "void main() {\n" +
+            "    float slice = min(floor(v_texCoords.x * u_slices), u_slices - 1.0);\n" +
+            "    float offset = 0.0;\n" +
+            "    for (int i = 0; i < " + MAX_SLICES + "; i++) {\n" +
+            "        if (float(i) == slice)\n" +
+            "            offset = u_offsets[i];\n" +
+            "    }\n" +
+            "    float y = v_texCoords.y - offset * (1.0 - u_progress);\n" +
+            "    if (y >= 0.0 && y <= 1.0)\n" +
+            "        gl_FragColor = texture2D(u_nextTexture, vec2(v_texCoords.x, y));\n" +
+            "    else\n" +
+            "        gl_FragColor = texture2D(u_texture, v_texCoords);\n" +
+            "}\n";
+
     private static final Slice instance = new Slice();
 
     private float duration;
@@ -20,16 +38,21 @@ public class Slice implements ISceneTransition {
     private Interpolation easing;
     private Array<Integer> sliceIndex = new Array<Integer>();
 
+    // The vertical offset (in screen heights) each slice starts from
+    private final float[] offsets = new float[MAX_SLICES];
+
     /**
      * Creates a new instance given a duration, direction, number of slices and an interpolation
      * @param duration the duration of the transition in seconds
      * @param direction the direction of the transition. Must be one of {@link TransitionDirection#UP}, {@link TransitionDirection#DOWN}, {@link TransitionDirection#UP_DOWN}
-     * @param numSlices the number of slices to generate
+     * @param numSlices the number of slices to generate (max {@link #MAX_SLICES})
      * @param easing an interpolation to use.
      * @return the created instance
      */
     public static Slice init (float duration, int direction, int numSlices,
                               Interpolation easing) {
+        numSlices = Math.max(1, Math.min(numSlices, MAX_SLICES));
+
         instance.duration = duration;
         instance.direction = direction;
         instance.easing = easing;
@@ -41,58 +64,40 @@ public class Slice implements ISceneTransition {
             instance.sliceIndex.add(i);
         instance.sliceIndex.shuffle();
 
-        return instance;
-    }
-
-    @Override
-    public float getDuration()
-    {   return duration;   }
-
-    @Override
-    public void render (SpriteBatch batch, Texture currScreen,
-                        Texture nextScreen, float alpha) {
-        float w = currScreen.getWidth();
-        float h = currScreen.getHeight();
-        float x = 0;
-        float y = 0;
-        int sliceWidth = (int)(w / sliceIndex.size);
-
-        Gdx.gl.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-        batch.begin();
-        batch.draw(currScreen, 0, 0, 0, 0, w, h, 1, 1, 0, 0, 0,
-                currScreen.getWidth(), currScreen.getHeight(),
-                false, true);
-        if (easing != null) alpha = easing.apply(alpha);
-
-        for (int i = 0; i < sliceIndex.size; i++) {
-            // current slice/column
-            x = i * sliceWidth;
-
+        for (int i = 0; i < numSlices; i++) {
             // vertical displacement using randomized
             // list of slice indices
-            float offsetY = h * (1 + sliceIndex.get(i) / (float)sliceIndex.size);
+            float offset = 1 + instance.sliceIndex.get(i) / (float)numSlices;
             switch (direction) {
                 case TransitionDirection.UP:
-                    y = -offsetY + offsetY * alpha;
-                    break;
-                case TransitionDirection.DOWN:
-                    y = offsetY - offsetY * alpha;
+                    offset = -offset;
                     break;
                 case TransitionDirection.UP_DOWN:
-                    if (i % 2 == 0) {
-                        y = -offsetY + offsetY * alpha;
-                    } else {
-                        y = offsetY - offsetY * alpha;
-                    }
+                    if (i % 2 == 0)
+                        offset = -offset;
                     break;
             }
 
-            batch.draw(nextScreen, x, y, 0, 0, sliceWidth, h, 1, 1, 0,
-                    i * sliceWidth, 0, sliceWidth, nextScreen.getHeight(),
-                    false, true);
+            instance.offsets[i] = offset;
         }
 
-        batch.end();
+        return instance;
+    }
+
+    @Override
+    public float getDuration()
+    {   return duration;   }
+
+    @Override
+    protected String getFragmentShader()
+    { return FRAGMENT_SHADER; }
+
+    @Override
+    protected void setUniforms(ShaderProgram shader, float alpha) {
+        if (easing != null) alpha = easing.apply(alpha);
+
+        shader.setUniformf("u_progress", alpha);
+        shader.setUniformf("u_slices", sliceIndex.size);
+        shader.setUniform1fv("u_offsets", offsets, 0, MAX_SLICES);
     }
 }
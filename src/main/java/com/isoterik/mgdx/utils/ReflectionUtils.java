@@ -0,0 +1,32 @@
+package com.isoterik.mgdx.utils;
+
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.Method;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+/**
+ * Provides some useful methods for inspecting classes at runtime. libGDX's reflection API is used so it works on every backend.
+ *
+ * @author isoteriksoftware
+ */
+public class ReflectionUtils {
+	/**
+	 * Checks if a class overrides a public method declared by one of its super classes.
+	 * <strong>Note:</strong> if the method cannot be inspected (for example, reflection data is not available on the current backend), this method assumes
+	 * the method is overridden.
+	 * @param type the class to check
+	 * @param baseType the super class that declares the method
+	 * @param methodName the name of the method
+	 * @param parameterTypes the parameter types of the method
+	 * @return true if the method is declared by a class other than the base class. false otherwise
+	 */
+	public static boolean isMethodOverridden(Class<?> type, Class<?> baseType, String methodName,
+											 Class<?>... parameterTypes) {
+		try {
+			Method method = ClassReflection.getMethod(type, methodName, parameterTypes);
+			return method.getDeclaringClass() != baseType;
+		} catch (ReflectionException e) {
+			return true;
+		}
+	}
+}